@@ -0,0 +1,410 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec;
+
+import br.com.pinter.tqrespec.core.GameNotFoundException;
+import br.com.pinter.tqrespec.core.GuiceModule;
+import br.com.pinter.tqrespec.core.PreloadScheduler;
+import br.com.pinter.tqrespec.core.State;
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.save.Platform;
+import br.com.pinter.tqrespec.save.player.BackupRetention;
+import br.com.pinter.tqrespec.save.player.PlayerBatch;
+import br.com.pinter.tqrespec.save.player.Respec;
+import br.com.pinter.tqrespec.tqdata.*;
+import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Headless entry point, runs maintenance commands over save directories without starting the JavaFX toolkit. Saves
+ * are processed by {@link PlayerBatch}, one line is printed per save and the exit status is non-zero if any of them
+ * failed.
+ */
+public class Cli {
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final String CSV_FILE = "characters.csv";
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "usage: tqrespec-cli [options] <command> [command options] <save directory>...",
+            "       tqrespec-cli [options] retention [retention options]",
+            "",
+            "A save directory is a character directory or a directory holding characters, like SaveData/Main.",
+            "",
+            "commands:",
+            "  summarize                         print level, class and masteries",
+            "  export-json                       write the save data of each character as json",
+            "  export-csv                        write the summaries to " + CSV_FILE,
+            "  validate                          parse and check the saves",
+            "  backup                            copy each character to a zip",
+            "  convert --to windows|mobile       convert each character to a zip for the platform",
+            "  respec [--skills] [--masteries keep|reclaim|remove] [--attributes] [--apply]",
+            "                                    print the respec of each character, --apply saves it after a backup",
+            "  retention [--enable|--disable] [--keep-recent <n>] [--keep-daily <days>] [--keep-weekly <weeks>]",
+            "            [--max-size <MB>]       change the retention of the game backup directory, and apply it",
+            "                                    if enabled",
+            "",
+            "options:",
+            "  --game <directory>                game installation, detected if not set",
+            "  --threads <n>                     number of saves processed at the same time",
+            "  --out <directory>                 output directory, the current directory if not set",
+            "  --debug <n>                       debug level of the log, from 1 to 9");
+
+    private final PrintStream out;
+
+    @Inject
+    private PlayerBatch playerBatch;
+    @Inject
+    private GameInfo gameInfo;
+    @Inject
+    private Db db;
+    @Inject
+    private Txt txt;
+    @Inject
+    private TeleportRegistry teleportRegistry;
+    @Inject
+    private PreloadScheduler preloadScheduler;
+    @Inject
+    private BackupRetention backupRetention;
+
+    enum Command {
+        SUMMARIZE(true),
+        EXPORT_JSON(false),
+        EXPORT_CSV(true),
+        VALIDATE(false),
+        BACKUP(false),
+        CONVERT(false),
+        RESPEC(true),
+        RETENTION(false);
+
+        private final boolean gameData;
+
+        Command(boolean gameData) {
+            this.gameData = gameData;
+        }
+
+        static Command of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    static class Options {
+        Command command;
+        String gamePath;
+        Integer threads;
+        Path outDir = Paths.get("");
+        Platform target;
+        final Respec.Builder respec = Respec.builder();
+        boolean apply = false;
+        final List<Path> paths = new ArrayList<>();
+        Boolean retention;
+        Integer keepRecent;
+        Integer keepDailyDays;
+        Integer keepWeeklyWeeks;
+        Integer maxSizeMb;
+    }
+
+    private Cli(PrintStream out) {
+        this.out = out;
+    }
+
+    public static void main(String... args) {
+        //the log takes over stdout and stderr, results are printed to the original streams
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+
+        Log.setupGlobalLogging();
+        Cli cli = new Cli(out);
+        Guice.createInjector(new GuiceModule()).injectMembers(cli);
+
+        int status;
+        try {
+            status = cli.run(options);
+        } catch (GameNotFoundException | IOException | RuntimeException e) {
+            err.println("error: " + ExceptionUtils.getRootCauseMessage(e));
+            status = EXIT_FAILED;
+        }
+        System.exit(status);
+    }
+
+    static Options parse(String... args) {
+        Options options = new Options();
+        Deque<String> queue = new ArrayDeque<>(Arrays.asList(args));
+        while (!queue.isEmpty()) {
+            String arg = queue.poll();
+            switch (arg) {
+                case "--game" -> options.gamePath = value(queue, arg);
+                case "--threads" -> options.threads = number(queue, arg);
+                case "--out" -> options.outDir = Paths.get(value(queue, arg));
+                case "--debug" -> Main.setDebugLevel(number(queue, arg));
+                case "--to" -> options.target = platform(value(queue, arg));
+                case "--skills" -> options.respec.skills();
+                case "--masteries" -> options.respec.masteries(masteries(value(queue, arg)));
+                case "--attributes" -> options.respec.attributes();
+                case "--apply" -> options.apply = true;
+                case "--enable" -> options.retention = true;
+                case "--disable" -> options.retention = false;
+                case "--keep-recent" -> options.keepRecent = count(queue, arg);
+                case "--keep-daily" -> options.keepDailyDays = count(queue, arg);
+                case "--keep-weekly" -> options.keepWeeklyWeeks = count(queue, arg);
+                case "--max-size" -> options.maxSizeMb = count(queue, arg);
+                default -> {
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("unknown option " + arg);
+                    } else if (options.command == null) {
+                        options.command = command(arg);
+                    } else {
+                        options.paths.add(Paths.get(arg));
+                    }
+                }
+            }
+        }
+
+        if (options.command == null) {
+            throw new IllegalArgumentException("command not specified");
+        }
+        if (options.command == Command.RETENTION) {
+            if (!options.paths.isEmpty()) {
+                throw new IllegalArgumentException("retention doesn't take save directories");
+            }
+        } else if (options.paths.isEmpty()) {
+            throw new IllegalArgumentException("no save directory specified");
+        }
+        if (options.command == Command.CONVERT && options.target == null) {
+            throw new IllegalArgumentException("convert needs the target platform, --to windows|mobile");
+        }
+        return options;
+    }
+
+    private static String value(Deque<String> queue, String option) {
+        String v = queue.poll();
+        if (StringUtils.isBlank(v)) {
+            throw new IllegalArgumentException("missing value of " + option);
+        }
+        return v;
+    }
+
+    private static int number(Deque<String> queue, String option) {
+        try {
+            return Integer.parseInt(value(queue, option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value of " + option);
+        }
+    }
+
+    private static int count(Deque<String> queue, String option) {
+        int n = number(queue, option);
+        if (n < 0) {
+            throw new IllegalArgumentException("invalid value of " + option);
+        }
+        return n;
+    }
+
+    private static Command command(String name) {
+        try {
+            return Command.of(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown command " + name);
+        }
+    }
+
+    private static Platform platform(String name) {
+        if (name.equalsIgnoreCase(Platform.WINDOWS.name())) {
+            return Platform.WINDOWS;
+        } else if (name.equalsIgnoreCase(Platform.MOBILE.name())) {
+            return Platform.MOBILE;
+        }
+        throw new IllegalArgumentException("invalid platform " + name);
+    }
+
+    private static Respec.Masteries masteries(String name) {
+        try {
+            return Respec.Masteries.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid value of --masteries: " + name);
+        }
+    }
+
+    private int run(Options options) throws GameNotFoundException, IOException {
+        if (options.command == Command.RETENTION) {
+            return retention(options);
+        }
+        if (options.threads != null) {
+            playerBatch.setThreads(options.threads);
+        }
+
+        List<Path> saves = new ArrayList<>();
+        for (Path p : options.paths) {
+            saves.addAll(PlayerBatch.findSaves(p));
+        }
+        if (saves.isEmpty()) {
+            throw new IOException("no saves found");
+        }
+
+        if (options.gamePath != null) {
+            gameInfo.setManualGamePath(options.gamePath);
+        }
+        if (options.command.gameData) {
+            loadGameData();
+        } else {
+            //the skills of a save are checked against the database while it loads
+            db.initialize();
+        }
+        Files.createDirectories(options.outDir);
+
+        List<? extends PlayerBatch.Result<?>> results = switch (options.command) {
+            case SUMMARIZE -> print(playerBatch.run(saves, playerBatch.summarize()), this::summary);
+            case EXPORT_JSON -> print(playerBatch.run(saves, playerBatch.exportJson(options.outDir)), Path::toString);
+            case EXPORT_CSV -> exportCsv(playerBatch.run(saves, playerBatch.summarize()), options.outDir);
+            case VALIDATE -> print(playerBatch.run(saves, playerBatch.validate()), Platform::name);
+            case BACKUP -> print(playerBatch.run(saves, playerBatch.backup(options.outDir)), Path::toString);
+            case CONVERT -> print(playerBatch.convertAll(saves, options.target, options.outDir), Path::toString);
+            case RESPEC -> print(playerBatch.run(saves,
+                    playerBatch.respec(options.respec.build(), options.apply ? options.outDir : null)), this::plan);
+            case RETENTION -> throw new IllegalStateException("retention doesn't process saves");
+        };
+
+        return results.stream().allMatch(PlayerBatch.Result::isOk) ? 0 : EXIT_FAILED;
+    }
+
+    private int retention(Options options) throws GameNotFoundException, IOException {
+        if (options.retention != null) {
+            Settings.setBackupRetention(options.retention);
+        }
+        if (options.keepRecent != null) {
+            Settings.setBackupKeepRecent(options.keepRecent);
+        }
+        if (options.keepDailyDays != null) {
+            Settings.setBackupKeepDailyDays(options.keepDailyDays);
+        }
+        if (options.keepWeeklyWeeks != null) {
+            Settings.setBackupKeepWeeklyWeeks(options.keepWeeklyWeeks);
+        }
+        if (options.maxSizeMb != null) {
+            Settings.setBackupMaxSizeMb(options.maxSizeMb);
+        }
+        out.printf("retention %s: keep %d recent, daily for %d days, weekly for %d weeks, up to %d MB%n",
+                Settings.getBackupRetention() ? "enabled" : "disabled", Settings.getBackupKeepRecent(),
+                Settings.getBackupKeepDailyDays(), Settings.getBackupKeepWeeklyWeeks(), Settings.getBackupMaxSizeMb());
+
+        if (options.gamePath != null) {
+            gameInfo.setManualGamePath(options.gamePath);
+        }
+        if (Settings.getBackupRetention()) {
+            backupRetention.run();
+        }
+        return 0;
+    }
+
+    private void loadGameData() {
+        Locale gameLanguage = gameInfo.getGameLanguage();
+        if (gameLanguage != null) {
+            State.get().setLocale(gameLanguage);
+        }
+
+        preloadScheduler
+                .add("database", 1, db::initialize)
+                .add("text", 3, txt::preload)
+                .add("skills", 6, () -> db.skills().preload(), "database")
+                .add("teleports", 1, () -> {
+                    db.teleports().preload();
+                    teleportRegistry.preload();
+                }, "skills")
+                .add("player", 1, () -> db.player().preload(), "teleports");
+        preloadScheduler.start(p -> {
+        }).join();
+    }
+
+    private <T> List<PlayerBatch.Result<T>> print(List<PlayerBatch.Result<T>> results, Function<T, String> detail) {
+        for (PlayerBatch.Result<T> r : results) {
+            if (r.isOk()) {
+                out.printf("OK\t%s\t%s%n", r.getSave(), detail.apply(r.getValue()));
+            } else {
+                out.printf("FAILED\t%s\t%s%n", r.getSave(), r.getError());
+            }
+        }
+        return results;
+    }
+
+    private String summary(PlayerCharacter p) {
+        return String.format("%s\t%d\t%s\t%s\t%s", p.getName(), p.getLevel(), p.getCharacterClass(),
+                difficulty(p), String.join(", ", masteries(p)));
+    }
+
+    private String plan(Respec.Plan plan) {
+        if (plan.isEmpty()) {
+            return "unchanged";
+        }
+        return plan.getChanges().stream().map(Respec.Change::toString).collect(Collectors.joining("; "));
+    }
+
+    private String difficulty(PlayerCharacter p) {
+        String tag = String.format("%s%02d", Constants.UI.PREFIXTAG_DIFFICULTYLABEL, p.getDifficulty() + 1);
+        return txt.isTagStringValid(tag) ? txt.getCleanString(tag) : String.valueOf(p.getDifficulty());
+    }
+
+    private List<String> masteries(PlayerCharacter p) {
+        List<String> ret = new ArrayList<>();
+        if (p.getMasteries() != null) {
+            for (Mastery m : p.getMasteries()) {
+                ret.add(String.format(Constants.Msg.CHARACTERS_NAMENUMBER_FORMAT,
+                        txt.getCapitalizedString(m.getDisplayName()), m.getLevel()));
+            }
+        }
+        return ret;
+    }
+
+    private List<PlayerBatch.Result<PlayerCharacter>> exportCsv(List<PlayerBatch.Result<PlayerCharacter>> results,
+                                                                Path outDir) throws IOException {
+        Path csv = outDir.resolve(CSV_FILE);
+        try (PrintWriter writer = new PrintWriter(csv.toFile(), StandardCharsets.UTF_8)) {
+            writer.println(csvRow("name", "directory", "level", "gender", "class", "difficulty", "experience", "gold",
+                    "health", "energy", "strength", "intelligence", "dexterity", "attribute points", "skill points",
+                    "masteries", "play time", "deaths", "kills"));
+            for (PlayerBatch.Result<PlayerCharacter> r : results) {
+                PlayerCharacter p = r.getValue();
+                if (p == null) {
+                    continue;
+                }
+                writer.println(csvRow(p.getName(), r.getSave().toString(), p.getLevel(), p.getGender(),
+                        p.getCharacterClass(), difficulty(p), p.getExperience(), p.getGold(), p.getStatLife(),
+                        p.getStatMana(), p.getStatStr(), p.getStatInt(), p.getStatDex(), p.getStatAvailableAttrPoints(),
+                        p.getStatAvailableSkillPoints(), String.join(", ", masteries(p)), p.getPlayTimeInSeconds(),
+                        p.getNumberOfDeaths(), p.getNumberOfKills()));
+            }
+        }
+        return print(results, p -> csv.toString());
+    }
+
+    private static String csvRow(Object... fields) {
+        return Arrays.stream(fields).map(f -> {
+            String d = f == null ? "" : f.toString().replace("\r", "");
+            return "\"" + d.replace("\"", "\"\"") + "\"";
+        }).collect(Collectors.joining(","));
+    }
+}
@@ -27,9 +27,12 @@ import br.com.pinter.tqrespec.gui.MainController;
 import br.com.pinter.tqrespec.gui.ResizeListener;
 import br.com.pinter.tqrespec.gui.UIUtils;
 import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.save.player.BackupRetention;
+import br.com.pinter.tqrespec.save.player.CharacterIndex;
 import br.com.pinter.tqrespec.tqdata.Db;
 import br.com.pinter.tqrespec.tqdata.GameInfo;
 import br.com.pinter.tqrespec.tqdata.GameVersion;
+import br.com.pinter.tqrespec.tqdata.TeleportRegistry;
 import br.com.pinter.tqrespec.tqdata.Txt;
 import br.com.pinter.tqrespec.util.Build;
 import br.com.pinter.tqrespec.util.Constants;
@@ -41,7 +44,6 @@ import javafx.application.Platform;
 import javafx.application.Preloader;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.StringExpression;
-import javafx.concurrent.Task;
 import javafx.event.Event;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -74,6 +76,11 @@ import java.util.logging.Level;
 
 @SuppressWarnings("FieldCanBeLocal")
 public class Main extends Application {
+    private static final String PRELOAD_DATABASE = "database";
+    private static final String PRELOAD_TEXT = "text";
+    private static final String PRELOAD_SKILLS = "skills";
+    private static final String PRELOAD_TELEPORTS = "teleports";
+    private static final String PRELOAD_PLAYER = "player";
     private final AtomicDouble progress = new AtomicDouble(0.0);
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
     @Inject
@@ -86,6 +93,14 @@ public class Main extends Application {
     private GameInfo gameInfo;
     @Inject
     private UIUtils uiUtils;
+    @Inject
+    private BackupRetention backupRetention;
+    @Inject
+    private CharacterIndex characterIndex;
+    @Inject
+    private PreloadScheduler preloadScheduler;
+    @Inject
+    private TeleportRegistry teleportRegistry;
     private System.Logger logger;
     private StringExpression initialFontBinding;
     private Future<?> processBarTask;
@@ -166,38 +181,45 @@ public class Main extends Application {
             chooseDirectory(primaryStage);
         }
 
-        Task<Void> task = new Task<>() {
-            @Override
-            public Void call() {
-                //preload game database metadata and skills
-                progressSet(0.2, 0.3);
-                db.initialize();
-                progressSet(0.3, 0.95);
-                db.skills().preload();
-                progressSet(0.95, 1.0);
-                db.teleports().preload();
-                txt.preload();
-                progressSet(1.0, 1.0);
-                db.player().preload();
-
-                try {
-                    new Thread(new GameProcessMonitor(gameInfo.getGamePath())).start();
-                } catch (GameNotFoundException e) {
-                    logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, e);
-                }
+        //text is read from its own files, it loads while the database units run one after the other
+        preloadScheduler
+                .add(PRELOAD_DATABASE, 1, db::initialize)
+                .add(PRELOAD_TEXT, 3, txt::preload)
+                .add(PRELOAD_SKILLS, 6, () -> db.skills().preload(), PRELOAD_DATABASE)
+                .add(PRELOAD_TELEPORTS, 1, () -> {
+                    db.teleports().preload();
+                    teleportRegistry.preload();
+                }, PRELOAD_SKILLS)
+                .add(PRELOAD_PLAYER, 1, () -> db.player().preload(), PRELOAD_TELEPORTS);
+
+        progressSet(0.2, 0.2);
+        preloadScheduler.start(p -> {
+            progress.set(0.2 + 0.8 * p);
+            notifyPreloader(new Preloader.ProgressNotification(progress.get()));
+        }).whenComplete((r, e) -> {
+            progressSet(1.0, 1.0);
+            if (e != null) {
+                Platform.runLater(() -> {
+                    gameInfo.removeSavedDetectedGame();
+                    logger.log(System.Logger.Level.ERROR, "Error loading application", e);
+                    alertException(primaryStage, e);
+                });
+                return;
+            }
 
-                return null;
+            //the window is shown only after the whole graph, every action of the UI reads the database
+            try {
+                new Thread(new GameProcessMonitor(gameInfo.getGamePath())).start();
+            } catch (GameNotFoundException ex) {
+                logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, ex);
             }
-        };
-        task.setOnFailed(e -> {
-            gameInfo.removeSavedDetectedGame();
-            logger.log(System.Logger.Level.ERROR, "Error loading application", e);
-            alertException(primaryStage, e.getSource().getException());
-        });
 
-        task.setOnSucceeded(e -> primaryStage.show());
+            backupRetention.runInBackground();
+            characterIndex.start();
+
+            Platform.runLater(primaryStage::show);
+        });
 
-        new Thread(task).start();
         primaryStage.setOnShown(windowEvent -> notifyPreloader(new Preloader.StateChangeNotification(
                 Preloader.StateChangeNotification.Type.BEFORE_START)));
 
@@ -342,6 +364,13 @@ public class Main extends Application {
             return;
         }
 
+        setDebugLevel(debug);
+    }
+
+    /**
+     * Enables the debug log of the application and database packages, from 1 to 9.
+     */
+    static void setDebugLevel(int debug) {
         switch (debug) {
             case 9:
                 State.get().addDebugPrefix("*", Level.FINER);
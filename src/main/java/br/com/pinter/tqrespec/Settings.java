@@ -34,6 +34,8 @@ public class Settings {
         prefs.remove(Options.LAST_DETECTED_GAMEVERSION.getKey());
         prefs.remove(Options.LAST_DETECTED_INSTALLTYPE.getKey());
         prefs.remove(Options.LAST_DETECTED_TQBASEPATH.getKey());
+        prefs.remove(Options.LAST_DETECTED_PROBE.getKey());
+        prefs.remove(Options.LAST_DETECTED_FINGERPRINT.getKey());
     }
 
     public static String getLastDetectedGamePath() {
@@ -92,6 +94,34 @@ public class Settings {
         }
     }
 
+    public static String getLastDetectedProbe() {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        return prefs.get(Options.LAST_DETECTED_PROBE.getKey(), null);
+    }
+
+    public static void setLastDetectedProbe(String probe) {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        if (probe == null) {
+            prefs.remove(Options.LAST_DETECTED_PROBE.getKey());
+        } else {
+            prefs.put(Options.LAST_DETECTED_PROBE.getKey(), probe);
+        }
+    }
+
+    public static String getLastDetectedFingerprint() {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        return prefs.get(Options.LAST_DETECTED_FINGERPRINT.getKey(), null);
+    }
+
+    public static void setLastDetectedFingerprint(String fingerprint) {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        if (fingerprint == null) {
+            prefs.remove(Options.LAST_DETECTED_FINGERPRINT.getKey());
+        } else {
+            prefs.put(Options.LAST_DETECTED_FINGERPRINT.getKey(), fingerprint);
+        }
+    }
+
     public static boolean getAlwaysFullBackup() {
         Preferences prefs = Preferences.userNodeForPackage(Settings.class);
         return prefs.getBoolean(Options.ALWAYS_FULL_BACKUP.getKey(), false);
@@ -102,12 +132,72 @@ public class Settings {
         prefs.putBoolean(Options.ALWAYS_FULL_BACKUP.getKey(), alwaysFullBackup);
     }
 
+    /**
+     * Retention removes and compacts backups, it only runs when enabled by the user.
+     */
+    public static boolean getBackupRetention() {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        return prefs.getBoolean(Options.BACKUP_RETENTION.getKey(), false);
+    }
+
+    public static void setBackupRetention(boolean enabled) {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        prefs.putBoolean(Options.BACKUP_RETENTION.getKey(), enabled);
+    }
+
+    public static int getBackupKeepRecent() {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        return prefs.getInt(Options.BACKUP_KEEP_RECENT.getKey(), 10);
+    }
+
+    public static void setBackupKeepRecent(int keepRecent) {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        prefs.putInt(Options.BACKUP_KEEP_RECENT.getKey(), keepRecent);
+    }
+
+    public static int getBackupKeepDailyDays() {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        return prefs.getInt(Options.BACKUP_KEEP_DAILY.getKey(), 14);
+    }
+
+    public static void setBackupKeepDailyDays(int days) {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        prefs.putInt(Options.BACKUP_KEEP_DAILY.getKey(), days);
+    }
+
+    public static int getBackupKeepWeeklyWeeks() {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        return prefs.getInt(Options.BACKUP_KEEP_WEEKLY.getKey(), 26);
+    }
+
+    public static void setBackupKeepWeeklyWeeks(int weeks) {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        prefs.putInt(Options.BACKUP_KEEP_WEEKLY.getKey(), weeks);
+    }
+
+    public static int getBackupMaxSizeMb() {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        return prefs.getInt(Options.BACKUP_MAX_SIZE.getKey(), 1024);
+    }
+
+    public static void setBackupMaxSizeMb(int maxSizeMb) {
+        Preferences prefs = Preferences.userNodeForPackage(Settings.class);
+        prefs.putInt(Options.BACKUP_MAX_SIZE.getKey(), maxSizeMb);
+    }
+
     enum Options {
         LAST_DETECTED_GAMEPATH("last_detectedgamepath"),
         LAST_DETECTED_GAMEVERSION("last_detectedgameversion"),
         LAST_DETECTED_INSTALLTYPE("last_detectedinstalltype"),
         LAST_DETECTED_TQBASEPATH("last_detectedtqbasepath"),
+        LAST_DETECTED_PROBE("last_detectedprobe"),
+        LAST_DETECTED_FINGERPRINT("last_detectedfingerprint"),
         ALWAYS_FULL_BACKUP("always_fullbackup"),
+        BACKUP_RETENTION("backup_retention"),
+        BACKUP_KEEP_RECENT("backup_keeprecent"),
+        BACKUP_KEEP_DAILY("backup_keepdaily"),
+        BACKUP_KEEP_WEEKLY("backup_keepweekly"),
+        BACKUP_MAX_SIZE("backup_maxsize"),
         ;
 
         private String key;
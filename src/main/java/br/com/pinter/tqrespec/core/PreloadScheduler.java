@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.core;
+
+import br.com.pinter.tqrespec.logging.Log;
+import com.google.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Runs the startup preload as a dependency graph. Each unit starts as soon as the units it depends on are done, so
+ * independent units run concurrently. Progress is reported from the weight of the completed units.
+ */
+@Singleton
+public class PreloadScheduler {
+    private static final System.Logger logger = Log.getLogger(PreloadScheduler.class.getName());
+
+    private final Map<String, Unit> units = new LinkedHashMap<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private boolean started = false;
+    private int totalWeight = 0;
+    private int doneWeight = 0;
+
+    private static class Unit {
+        private final String name;
+        private final int weight;
+        private final Runnable work;
+        private final List<String> dependsOn;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Unit(String name, int weight, Runnable work, List<String> dependsOn) {
+            this.name = name;
+            this.weight = weight;
+            this.work = work;
+            this.dependsOn = dependsOn;
+        }
+    }
+
+    /**
+     * Adds a unit of work. Dependencies must be added first, which also keeps the graph free of cycles.
+     *
+     * @param name      unique name of the unit
+     * @param weight    relative cost, used for the progress
+     * @param work      the work to run
+     * @param dependsOn units that must be complete before this one starts
+     * @return this scheduler
+     */
+    public synchronized PreloadScheduler add(String name, int weight, Runnable work, String... dependsOn) {
+        if (started) {
+            throw new IllegalStateException("preload already started");
+        }
+        if (units.containsKey(name)) {
+            throw new IllegalArgumentException("duplicate preload unit: " + name);
+        }
+        for (String d : dependsOn) {
+            if (!units.containsKey(d)) {
+                throw new IllegalArgumentException(String.format("preload unit '%s' depends on unknown unit '%s'", name, d));
+            }
+        }
+        units.put(name, new Unit(name, weight, work, List.of(dependsOn)));
+        totalWeight += weight;
+        return this;
+    }
+
+    /**
+     * Starts every unit.
+     *
+     * @param progress receives the fraction of the work completed, from the preload threads
+     * @return completes when all units are done, or exceptionally with the first failure
+     */
+    public CompletableFuture<Void> start(DoubleConsumer progress) {
+        List<Unit> all;
+        synchronized (this) {
+            if (started) {
+                throw new IllegalStateException("preload already started");
+            }
+            started = true;
+            all = new ArrayList<>(units.values());
+        }
+
+        //units are mostly waiting on disk, one thread per unit
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, all.size()), r -> {
+            WorkerThread t = new WorkerThread(r);
+            t.setName("Preload");
+            t.setDaemon(true);
+            return t;
+        });
+
+        for (Unit unit : all) {
+            CompletableFuture<?>[] deps = unit.dependsOn.stream().map(d -> units.get(d).future).toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(deps)
+                    .thenRunAsync(() -> run(unit, progress), executor)
+                    .whenComplete((r, e) -> {
+                        if (e != null) {
+                            unit.future.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                        } else {
+                            unit.future.complete(null);
+                        }
+                    });
+        }
+
+        CompletableFuture.allOf(all.stream().map(u -> u.future).toArray(CompletableFuture[]::new))
+                .whenComplete((r, e) -> {
+                    executor.shutdown();
+                    if (e != null) {
+                        completion.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                    } else {
+                        completion.complete(null);
+                    }
+                });
+        return completion;
+    }
+
+    private void run(Unit unit, DoubleConsumer progress) {
+        long start = System.currentTimeMillis();
+        unit.work.run();
+        logger.log(System.Logger.Level.DEBUG, "preload ''{0}'' done in {1}ms", unit.name, System.currentTimeMillis() - start);
+        double fraction;
+        synchronized (this) {
+            doneWeight += unit.weight;
+            fraction = totalWeight == 0 ? 1.0 : (double) doneWeight / totalWeight;
+        }
+        if (progress != null) {
+            progress.accept(fraction);
+        }
+    }
+
+    /**
+     * @param names units to wait for
+     * @return completes when all the named units are done
+     */
+    public synchronized CompletableFuture<Void> whenDone(String... names) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String n : names) {
+            Unit unit = units.get(n);
+            if (unit == null) {
+                throw new IllegalArgumentException("unknown preload unit: " + n);
+            }
+            futures.add(unit.future);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Blocks until the whole preload is done. Returns immediately if it was never started, like when the game data
+     * is loaded on demand by tests.
+     */
+    public void awaitCompletion() {
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+        }
+        try {
+            completion.join();
+        } catch (CompletionException e) {
+            throw new UnhandledRuntimeException("Error preloading game data", e.getCause());
+        }
+    }
+}
@@ -23,9 +23,13 @@ package br.com.pinter.tqrespec.core;
 import javafx.beans.property.SimpleBooleanProperty;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public class State {
@@ -35,6 +39,7 @@ public class State {
     private final SimpleBooleanProperty gameRunning = new SimpleBooleanProperty(false);
     private final Map<String, Level> debugPrefix = new HashMap<>();
     private final AtomicReference<MyTask<Integer>> lastCursorWaitTask = new AtomicReference<>();
+    private final List<Consumer<Locale>> localeListeners = new CopyOnWriteArrayList<>();
     private Locale locale = Locale.ENGLISH;
 
     private State() {
@@ -96,7 +101,15 @@ public class State {
     }
 
     public void setLocale(Locale locale) {
+        Locale previous = getLocale();
         this.locale = locale;
+        if (!Objects.equals(previous, getLocale())) {
+            localeListeners.forEach(l -> l.accept(getLocale()));
+        }
+    }
+
+    public void addLocaleListener(Consumer<Locale> listener) {
+        localeListeners.add(listener);
     }
 
     public MyTask<Integer> getLastCursorWaitTask() {
@@ -379,7 +379,7 @@ public class AttributesPaneController implements Initializable {
 
         String difficultyTextValue = String.format("%s%02d", Constants.UI.PREFIXTAG_DIFFICULTYLABEL, difficulty + 1);
         if (txt.isTagStringValid(difficultyTextValue)) {
-            difficultyText.setText(ResourceHelper.cleanTagString(txt.getString(difficultyTextValue)));
+            difficultyText.setText(txt.getCleanString(difficultyTextValue));
         } else {
             difficultyText.setText(ResourceHelper.getMessage(String.format("difficulty.%d", difficulty)));
         }
@@ -21,18 +21,23 @@
 package br.com.pinter.tqrespec.gui;
 
 import br.com.pinter.tqrespec.core.MyTask;
+import br.com.pinter.tqrespec.core.PreloadScheduler;
 import br.com.pinter.tqrespec.core.UnhandledRuntimeException;
 import br.com.pinter.tqrespec.core.WorkerThread;
 import br.com.pinter.tqrespec.logging.Log;
 import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.save.player.ArchiveResult;
 import br.com.pinter.tqrespec.save.player.Archiver;
-import br.com.pinter.tqrespec.save.player.PlayerLoader;
+import br.com.pinter.tqrespec.save.player.CharacterEvent;
+import br.com.pinter.tqrespec.save.player.CharacterIndex;
+import br.com.pinter.tqrespec.save.player.PlayerSummaryLoader;
 import br.com.pinter.tqrespec.tqdata.*;
 import br.com.pinter.tqrespec.util.Build;
 import br.com.pinter.tqrespec.util.Constants;
 import com.google.inject.Inject;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.concurrent.WorkerStateEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.Cursor;
@@ -69,6 +74,7 @@ import java.util.stream.Collectors;
 
 public class CharactersViewController implements Initializable {
     private static final System.Logger logger = Log.getLogger(CharactersViewController.class.getName());
+    private static final long ROWS_BATCH_INTERVAL_MS = 100;
     private double dragX;
     private double dragY;
     private boolean isMoving = false;
@@ -80,10 +86,13 @@ public class CharactersViewController implements Initializable {
     private Label charFormTitle;
 
     @Inject
-    private GameInfo gameInfo;
+    private PlayerSummaryLoader playerSummaryLoader;
 
     @Inject
-    private PlayerLoader player;
+    private CharacterIndex characterIndex;
+
+    @Inject
+    private PreloadScheduler preloadScheduler;
 
     @Inject
     private Txt txt;
@@ -202,7 +211,6 @@ public class CharactersViewController implements Initializable {
         charactersTable.getItems().clear();
         charactersTable.getSortOrder().clear();
         Stage stage = (Stage) rootElement.getScene().getWindow();
-        player.reset();
         characters = null;
         stage.close();
         stage.setWidth(stage.getMinWidth());
@@ -241,34 +249,104 @@ public class CharactersViewController implements Initializable {
         loadingCharacters.set(true);
 
         Platform.runLater(() -> {
+            setupTable();
             charactersTable.setPlaceholder(new Label(ResourceHelper.getMessage("characters.loadingPlaceholder")));
             rootElement.getScene().setCursor(Cursor.WAIT);
 
         });
 
-        characters = new ArrayList<>();
-        for (PlayerCharacterFile p : gameInfo.getPlayerCharacterList()) {
-            try {
-                player.loadPlayer(p.getPlayerName(), p.getLocation());
-            } catch (RuntimeException e) {
-                logger.log(System.Logger.Level.ERROR, String.format("Error loading character '%s'", p));
-                continue;
-            }
-            characters.add(player.getCharacter());
-        }
+        preloadScheduler.awaitCompletion();
+        txt.prefetch(tableTags());
+        FxBatchQueue<PlayerCharacter> rows = new FxBatchQueue<>(this::addRows, ROWS_BATCH_INTERVAL_MS);
+        characters = playerSummaryLoader.loadAll(characterIndex.getCharacters(), pc -> {
+            //resolve the strings of the row on the loader thread, the cells read them from the cache
+            txt.prefetch(rowTags(pc));
+            rows.offer(pc);
+        });
+        rows.finish();
 
         Platform.runLater(() -> {
-            setupTable();
+            resizeCharactersTable();
             charactersTable.setPlaceholder(new Label(""));
             Platform.runLater(() -> rootElement.getScene().setCursor(Cursor.DEFAULT));
             loadingCharacters.set(false);
         });
     }
 
+    private List<String> tableTags() {
+        List<String> tags = new ArrayList<>(List.of(Constants.UI.TAG_STAT_ELAPSEDTIME, Constants.UI.TAG_STAT_TOTALDEATHS,
+                Constants.UI.TAG_STAT_MONSTERSKILLED, Constants.UI.TAG_STAT_GREATESTDAMAGE,
+                Constants.UI.TAG_STAT_GREATESTMONSTER));
+        for (int i = 1; i <= 3; i++) {
+            tags.add(String.format("%s%02d", Constants.UI.PREFIXTAG_DIFFICULTYLABEL, i));
+        }
+        return tags;
+    }
+
+    private List<String> rowTags(PlayerCharacter pc) {
+        List<String> tags = new ArrayList<>();
+        if (pc.getMasteries() != null) {
+            pc.getMasteries().forEach(m -> tags.add(m.getDisplayName()));
+        }
+        if (pc.getLastMapTeleport() != null) {
+            tags.add(pc.getLastMapTeleport().getName());
+        }
+        return tags;
+    }
+
+    private void addRows(List<PlayerCharacter> rows) {
+        boolean firstRows = charactersTable.getItems().isEmpty();
+        charactersTable.getItems().addAll(rows);
+        //keep the order chosen by the user while rows are still arriving
+        charactersTable.sort();
+        if (firstRows) {
+            resizeCharactersTable();
+        }
+    }
+
+    private void characterIndexChanged(CharacterEvent event) {
+        if (characters == null || loadingCharacters.get()) {
+            return;
+        }
+
+        if (event.getType() == CharacterEvent.Type.REMOVED) {
+            Platform.runLater(() -> charactersTable.getItems().removeIf(c -> event.getPath().equals(c.getPath())));
+            return;
+        }
+
+        //only the touched save is parsed again, unchanged saves come from the summary cache
+        new WorkerThread(() -> {
+            PlayerCharacter playerCharacter;
+            try {
+                playerCharacter = playerSummaryLoader.load(event.getCharacter());
+            } catch (RuntimeException e) {
+                logger.log(System.Logger.Level.WARNING, "Unable to reload character ''{0}''", event.getCharacter());
+                return;
+            }
+            if (playerCharacter == null) {
+                return;
+            }
+            Platform.runLater(() -> {
+                if (characters == null) {
+                    return;
+                }
+                List<PlayerCharacter> items = charactersTable.getItems();
+                for (int i = 0; i < items.size(); i++) {
+                    if (event.getPath().equals(items.get(i).getPath())) {
+                        if (event.getType() == CharacterEvent.Type.MODIFIED) {
+                            items.set(i, playerCharacter);
+                        }
+                        return;
+                    }
+                }
+                items.add(playerCharacter);
+                charactersTable.sort();
+            });
+        }).start();
+    }
+
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        player.reset();
-
         Scene scene = new Scene(rootElement);
         Stage stage = new Stage();
 
@@ -313,6 +391,7 @@ public class CharactersViewController implements Initializable {
                 return null;
             }
         }).start());
+        characterIndex.addListener(this::characterIndexChanged);
         stage.addEventHandler(KeyEvent.KEY_PRESSED, (event -> {
             if (event.getCode() == KeyCode.ESCAPE) {
                 close();
@@ -343,50 +422,78 @@ public class CharactersViewController implements Initializable {
 
         charactersTable.setContextMenu(contextMenu);
         contextMenu.setOnShowing(e -> {
-            int selectedCount = charactersTable.getSelectionModel().getSelectedItems().size();
-            PlayerCharacter selected = charactersTable.getSelectionModel().getSelectedItem();
-            archive.setDisable(selectedCount > 1 || !selected.isArchivable());
-            unarchive.setDisable(selectedCount > 1 || !selected.isArchived());
+            List<PlayerCharacter> selected = charactersTable.getSelectionModel().getSelectedItems();
+            archive.setDisable(selected.isEmpty() || !selected.stream().allMatch(PlayerCharacter::isArchivable));
+            unarchive.setDisable(selected.isEmpty() || !selected.stream().allMatch(PlayerCharacter::isArchived));
         });
         stage.show();
     }
 
     private void archiveAction(boolean undo) {
-        PlayerCharacter selected = charactersTable.getSelectionModel().getSelectedItem();
-
-        String toastHeader = null;
-        String toastContent = null;
+        List<PlayerCharacter> selected = new ArrayList<>(charactersTable.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            return;
+        }
 
-        try {
-            rootElement.getScene().setCursor(Cursor.WAIT);
-            if(undo) {
-                archiver.unarchive(selected);
-                toastHeader = "characters.unarchive";
-                toastContent = "characters.unarchivedmessage";
-            } else {
-                archiver.archive(selected);
-                toastHeader = "characters.archive";
-                toastContent = "characters.archivedmessage";
-            }
-        } catch (IOException e) {
-            throw new UnhandledRuntimeException(e);
-        } finally {
-            reset();
-            SaveLocation locationMessage = selected.getLocation();
-            if(locationMessage.equals(SaveLocation.ARCHIVEMAIN)) {
-                locationMessage = SaveLocation.MAIN;
-            }
-            if(locationMessage.equals(SaveLocation.ARCHIVEUSER)) {
-                locationMessage = SaveLocation.USER;
+        rootElement.getScene().setCursor(Cursor.WAIT);
+        MyTask<List<ArchiveResult>> archiveTask = new MyTask<>() {
+            @Override
+            protected List<ArchiveResult> call() {
+                try {
+                    return undo ? archiver.unarchive(selected) : archiver.archive(selected);
+                } catch (IOException e) {
+                    throw new UnhandledRuntimeException(e);
+                }
             }
+        };
 
+        archiveTask.addEventHandler(WorkerStateEvent.WORKER_STATE_SUCCEEDED, e -> {
+            List<ArchiveResult> results = archiveTask.getValue();
+            for (ArchiveResult r : results) {
+                if (r.isSuccess()) {
+                    r.getPlayerCharacter().setPath(r.getTarget());
+                    r.getPlayerCharacter().setLocation(r.getTargetLocation());
+                }
+            }
+            charactersTable.refresh();
             rootElement.getScene().setCursor(Cursor.DEFAULT);
-            Toast.show((Stage) rootElement.getScene().getWindow(),
-                    ResourceHelper.getMessage(toastHeader),
-                    ResourceHelper.getMessage(toastContent,
-                            selected.getName(), ResourceHelper.getMessage("characters.store." + locationMessage)),
-                    5000);
+            showArchiveToast(results, undo);
+        });
+        archiveTask.addEventHandler(WorkerStateEvent.WORKER_STATE_FAILED, e -> rootElement.getScene().setCursor(Cursor.DEFAULT));
+
+        new WorkerThread(archiveTask).start();
+    }
+
+    private void showArchiveToast(List<ArchiveResult> results, boolean undo) {
+        String toastHeader = undo ? "characters.unarchive" : "characters.archive";
+        long failed = results.stream().filter(r -> !r.isSuccess()).count();
+        String toastContent;
+
+        if (results.size() == 1 && failed == 0) {
+            ArchiveResult result = results.get(0);
+            SaveLocation locationMessage = result.getTargetLocation();
+            if (undo) {
+                toastContent = ResourceHelper.getMessage("characters.unarchivedmessage",
+                        result.getPlayerCharacter().getName(), ResourceHelper.getMessage("characters.store." + locationMessage));
+            } else {
+                // keep the message pointing at the store the character came from
+                locationMessage = SaveLocation.ARCHIVEMAIN.equals(locationMessage) ? SaveLocation.MAIN : SaveLocation.USER;
+                toastContent = ResourceHelper.getMessage("characters.archivedmessage",
+                        result.getPlayerCharacter().getName(), ResourceHelper.getMessage("characters.store." + locationMessage));
+            }
+        } else if (failed == 0) {
+            toastContent = ResourceHelper.getMessage(undo ? "characters.unarchivedmessageMulti" : "characters.archivedmessageMulti",
+                    results.size());
+        } else {
+            toastContent = ResourceHelper.getMessage("characters.archiveFailedMessage", failed,
+                    results.stream().filter(r -> !r.isSuccess())
+                            .map(r -> r.getPlayerCharacter().getName()).collect(Collectors.joining(", ")));
         }
+
+        Toast.show((Stage) rootElement.getScene().getWindow(),
+                ResourceHelper.getMessage(toastHeader),
+                toastContent,
+                5000);
     }
 
     private void setupTable() {
@@ -440,7 +547,7 @@ public class CharactersViewController implements Initializable {
             String difficultyTextValue = String.format("%s%02d",
                     Constants.UI.PREFIXTAG_DIFFICULTYLABEL, f.getValue().getDifficulty() + 1);
             if (txt.isTagStringValid(difficultyTextValue)) {
-                difficultyText = ResourceHelper.cleanTagString(txt.getString(difficultyTextValue));
+                difficultyText = txt.getCleanString(difficultyTextValue);
             } else {
                 difficultyText = ResourceHelper.getMessage(String.format("difficulty.%d", f.getValue().getDifficulty()));
             }
@@ -483,18 +590,7 @@ public class CharactersViewController implements Initializable {
             return null;
         });
 
-        charactersTable.getItems().addAll(characters);
-
         charactersTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
-
-        resizeCharactersTable();
-    }
-
-    private void reset() {
-        charactersTable.getItems().clear();
-        characters.clear();
-        loadCharacters();
-        resizeCharactersTable();
     }
 
     private void resizeCharactersTable() {
@@ -574,13 +670,13 @@ public class CharactersViewController implements Initializable {
         };
         csvRows.add(header);
 
-        for (PlayerCharacter p : characters) {
+        for (PlayerCharacter p : charactersTable.getItems()) {
             String gender = ResourceHelper.getMessage("main.gender." + p.getGender().name().toLowerCase());
             String difficultyText;
             String difficultyTextValue = String.format("%s%02d",
                     Constants.UI.PREFIXTAG_DIFFICULTYLABEL, p.getDifficulty() + 1);
             if (txt.isTagStringValid(difficultyTextValue)) {
-                difficultyText = ResourceHelper.cleanTagString(txt.getString(difficultyTextValue));
+                difficultyText = txt.getCleanString(difficultyTextValue);
             } else {
                 difficultyText = ResourceHelper.getMessage(String.format("difficulty.%d", p.getDifficulty()));
             }
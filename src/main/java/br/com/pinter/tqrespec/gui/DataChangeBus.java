@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.gui;
+
+import br.com.pinter.tqrespec.save.DataMapEvent;
+import br.com.pinter.tqrespec.save.FileDataMapListener;
+import br.com.pinter.tqrespec.save.VariableInfo;
+import br.com.pinter.tqrespec.save.player.CurrentPlayerData;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import javafx.application.Platform;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the changes made to the character to the panes, so they can update only the items affected. Events are
+ * collected until the FX thread is free and handed over once per pulse: a value changed several times is delivered
+ * once, at the position of its last change, and changes to a block removed in the same pulse are dropped.
+ */
+@Singleton
+public class DataChangeBus implements FileDataMapListener {
+    private final List<Consumer<List<DataMapEvent>>> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<Object, DataMapEvent> pending = new LinkedHashMap<>();
+    private boolean scheduled = false;
+    private boolean attached = false;
+
+    @Inject
+    private CurrentPlayerData saveData;
+
+    /**
+     * @param subscriber receives the events of a pulse on the FX thread, in the order of their last occurrence
+     */
+    public void subscribe(Consumer<List<DataMapEvent>> subscriber) {
+        synchronized (this) {
+            if (!attached) {
+                saveData.addDataMapListener(this);
+                attached = true;
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    private synchronized void offer(Object key, DataMapEvent event) {
+        if (event.getType() == DataMapEvent.Type.BLOCK_REMOVED) {
+            pending.values().removeIf(e -> e.getBlockStart() == event.getBlockStart());
+        }
+        //moved to the end, an event repeated after others must be delivered after them
+        pending.remove(key);
+        pending.put(key, event);
+        if (!scheduled) {
+            scheduled = true;
+            schedule(this::deliver);
+        }
+    }
+
+    void schedule(Runnable delivery) {
+        Platform.runLater(delivery);
+    }
+
+    void deliver() {
+        List<DataMapEvent> events;
+        synchronized (this) {
+            scheduled = false;
+            events = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        if (!events.isEmpty()) {
+            List<DataMapEvent> batch = Collections.unmodifiableList(events);
+            subscribers.forEach(s -> s.accept(batch));
+        }
+    }
+
+    @Override
+    public void blockRemoved(int blockStart) {
+        offer(List.of(DataMapEvent.Type.BLOCK_REMOVED, blockStart), DataMapEvent.blockRemoved(blockStart));
+    }
+
+    @Override
+    public void variableChanged(int blockStart, String variable) {
+        offer(List.of(DataMapEvent.Type.VARIABLE_CHANGED, blockStart, variable),
+                DataMapEvent.variableChanged(blockStart, variable));
+    }
+
+    @Override
+    public void variableInserted(VariableInfo variable) {
+        DataMapEvent event = DataMapEvent.variableInserted(variable);
+        offer(event, event);
+    }
+
+    @Override
+    public void variableRemoved(VariableInfo variable) {
+        DataMapEvent event = DataMapEvent.variableRemoved(variable);
+        offer(event, event);
+    }
+
+    @Override
+    public void changesReverted() {
+        offer(DataMapEvent.Type.CHANGES_REVERTED, DataMapEvent.changesReverted());
+    }
+}
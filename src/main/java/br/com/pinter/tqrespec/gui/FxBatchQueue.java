@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.gui;
+
+import br.com.pinter.tqrespec.core.WorkerThread;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects items produced by background threads and hands them to the FX thread in batches, at most one batch per
+ * interval, so a fast producer doesn't flood the FX thread with {@link Platform#runLater(Runnable)} calls.
+ *
+ * @param <T> item type
+ */
+class FxBatchQueue<T> {
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Consumer<List<T>> consumer;
+    private final long intervalMs;
+    private final ScheduledExecutorService scheduler;
+    private volatile long lastDrain = 0;
+
+    /**
+     * @param consumer   receives every batch on the FX thread
+     * @param intervalMs minimum time between two batches
+     */
+    FxBatchQueue(Consumer<List<T>> consumer, long intervalMs) {
+        this.consumer = consumer;
+        this.intervalMs = intervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            WorkerThread t = new WorkerThread(r);
+            t.setName("FxBatchQueue");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void offer(T item) {
+        queue.add(item);
+        if (scheduled.compareAndSet(false, true)) {
+            long wait = Math.max(0, lastDrain + intervalMs - System.currentTimeMillis());
+            scheduler.schedule(() -> Platform.runLater(this::drain), wait, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Delivers the remaining items and releases the scheduler. The last batch is queued on the FX thread before the
+     * method returns, so a {@link Platform#runLater(Runnable)} called afterwards runs after it.
+     */
+    void finish() {
+        scheduler.shutdown();
+        Platform.runLater(this::drain);
+    }
+
+    private void drain() {
+        //clear the flag first, items offered from now on schedule a new batch
+        scheduled.set(false);
+        lastDrain = System.currentTimeMillis();
+        List<T> batch = new ArrayList<>();
+        T item;
+        while ((item = queue.poll()) != null) {
+            batch.add(item);
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+}
@@ -23,6 +23,9 @@ package br.com.pinter.tqrespec.gui;
 import br.com.pinter.tqrespec.core.*;
 import br.com.pinter.tqrespec.logging.Log;
 import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.save.player.BackupRetention;
+import br.com.pinter.tqrespec.save.player.CharacterEvent;
+import br.com.pinter.tqrespec.save.player.CharacterIndex;
 import br.com.pinter.tqrespec.save.player.Player;
 import br.com.pinter.tqrespec.save.player.PlayerWriter;
 import br.com.pinter.tqrespec.tqdata.Db;
@@ -94,6 +97,12 @@ public class MainController implements Initializable {
     @Inject
     private PlayerWriter playerWriter;
     @Inject
+    private BackupRetention backupRetention;
+    @Inject
+    private CharacterIndex characterIndex;
+    @Inject
+    private PreloadScheduler preloadScheduler;
+    @Inject
     private CheckVersionService checkVersionService;
     @Inject
     private GameInfo gameInfo;
@@ -179,7 +188,7 @@ public class MainController implements Initializable {
     public void addCharactersToCombo() {
         try {
             characterCombo.getSelectionModel().clearSelection();
-            characterCombo.getItems().setAll(gameInfo.getPlayerCharacterList(SaveLocation.MAIN, SaveLocation.EXTERNAL));
+            characterCombo.getItems().setAll(characterIndex.getCharacters(SaveLocation.MAIN, SaveLocation.EXTERNAL));
             characterCombo.getItems().sort(Comparator.comparing(PlayerCharacterFile::getPlayerName));
         } catch (ClassCastException | UnsupportedOperationException | IllegalArgumentException e) {
             logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, e);
@@ -187,6 +196,22 @@ public class MainController implements Initializable {
         }
     }
 
+    private void characterIndexChanged(CharacterEvent event) {
+        PlayerCharacterFile character = event.getCharacter();
+        if (!SaveLocation.MAIN.equals(character.getLocation()) && !SaveLocation.EXTERNAL.equals(character.getLocation())) {
+            return;
+        }
+
+        Platform.runLater(() -> {
+            if (event.getType() == CharacterEvent.Type.ADDED && !characterCombo.getItems().contains(character)) {
+                characterCombo.getItems().add(character);
+                characterCombo.getItems().sort(Comparator.comparing(PlayerCharacterFile::getPlayerName));
+            } else if (event.getType() == CharacterEvent.Type.REMOVED && !character.equals(characterCombo.getValue())) {
+                characterCombo.getItems().remove(character);
+            }
+        });
+    }
+
     public void setCharacterCombo(PlayerCharacterFile character) {
         if (characterCombo.getItems().contains(character)) {
             characterCombo.setValue(character);
@@ -196,6 +221,7 @@ public class MainController implements Initializable {
     private void windowShownHandler() {
         assert characterCombo == null : "fx:id=\"characterCombo\" not found in FXML.";
         addCharactersToCombo();
+        characterIndex.addListener(this::characterIndexChanged);
         tabPane.addEventHandler(MouseEvent.MOUSE_ENTERED, e -> {
             if (State.get().getLastCursorWaitTask() != null && State.get().getLastCursorWaitTask().isRunning()) {
                 tabPane.setCursor(Cursor.WAIT);
@@ -323,6 +349,7 @@ public class MainController implements Initializable {
                 if ((int) backupSaveGameTask.getValue() == 2) {
                     setCursorWaitOnTask(saveGameTask);
                     new WorkerThread(saveGameTask).start();
+                    backupRetention.runInBackground();
                 } else {
                     uiUtils.showError(ResourceHelper.getMessage("alert.errorbackup_header"),
                             ResourceHelper.getMessage("alert.errorbackup_content", Constants.BACKUP_DIRECTORY));
@@ -385,6 +412,8 @@ public class MainController implements Initializable {
         MyTask<Boolean> loadTask = new MyTask<>() {
             @Override
             protected Boolean call() {
+                //the window is shown before the game data finishes loading
+                preloadScheduler.awaitCompletion();
                 return player.loadPlayer(playerCharacterFile.getPlayerName(), playerCharacterFile.getLocation());
             }
         };
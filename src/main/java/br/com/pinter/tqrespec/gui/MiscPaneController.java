@@ -4,11 +4,13 @@
 
 package br.com.pinter.tqrespec.gui;
 
+import br.com.pinter.tqrespec.Settings;
 import br.com.pinter.tqrespec.core.MyEventHandler;
 import br.com.pinter.tqrespec.core.MyTask;
 import br.com.pinter.tqrespec.core.WorkerThread;
 import br.com.pinter.tqrespec.save.Platform;
 import br.com.pinter.tqrespec.save.exporter.Exporter;
+import br.com.pinter.tqrespec.save.player.BackupRetention;
 import br.com.pinter.tqrespec.save.player.Player;
 import br.com.pinter.tqrespec.save.player.PlayerWriter;
 import com.google.inject.Inject;
@@ -19,6 +21,7 @@ import javafx.concurrent.WorkerStateEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.TextField;
@@ -47,12 +50,16 @@ public class MiscPaneController implements Initializable {
     private ComboBox<CopyTarget> copyTargetCombo;
     @FXML
     private Button exportJsonButton;
+    @FXML
+    private CheckBox backupRetentionCheckBox;
     @Inject
     private Player player;
     @Inject
     private PlayerWriter playerWriter;
     @Inject
     private UIUtils uiUtils;
+    @Inject
+    private BackupRetention backupRetention;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -78,6 +85,16 @@ public class MiscPaneController implements Initializable {
         });
         exportJsonButton.setGraphic(Icon.FA_FILE_EXPORT.create());
         exportJsonButton.setTooltip(uiUtils.simpleTooltip(ResourceHelper.getMessage("misc.tooltipExportJson")));
+        backupRetentionCheckBox.setSelected(Settings.getBackupRetention());
+        backupRetentionCheckBox.setTooltip(uiUtils.simpleTooltip(ResourceHelper.getMessage("misc.tooltipBackupRetention",
+                Settings.getBackupKeepRecent(), Settings.getBackupKeepDailyDays(),
+                Settings.getBackupKeepWeeklyWeeks(), Settings.getBackupMaxSizeMb())));
+    }
+
+    @FXML
+    public void backupRetentionChanged() {
+        Settings.setBackupRetention(backupRetentionCheckBox.isSelected());
+        backupRetention.runInBackground();
     }
 
     public void setMainController(MainController mainController) {
@@ -30,7 +30,6 @@ import javafx.scene.control.Tab;
 import javafx.scene.image.Image;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -100,23 +99,18 @@ public class ResourceHelper {
     }
 
     public static String cleanTagString(String value) {
-        if (StringUtils.isBlank(value)) {
-            return value;
-        }
-
-        return value.replaceAll("(?:\\{[^}]+\\})*([^{}:]*)(?:\\{[^}]+\\})*", "$1")
-                .replace(":", "")
-                .trim();
+        return Txt.cleanTagString(value);
     }
 
     public static void tryTagText(Txt txt, Object control, String tag, boolean capitalized, boolean needsClean) {
         if (!txt.isTagStringValid(tag))
             return;
 
-        String text = capitalized ? txt.getCapitalizedString(tag) : txt.getString(tag);
-
+        String text;
         if (needsClean) {
-            text = ResourceHelper.cleanTagString(text);
+            text = capitalized ? Txt.cleanTagString(txt.getCapitalizedString(tag)) : txt.getCleanString(tag);
+        } else {
+            text = capitalized ? txt.getCapitalizedString(tag) : txt.getString(tag);
         }
         if (control instanceof Labeled) {
             setLabeledText(control, text);
@@ -21,12 +21,14 @@
 package br.com.pinter.tqrespec.gui;
 
 import br.com.pinter.tqdatabase.models.Skill;
+import br.com.pinter.tqrespec.save.DataMapEvent;
 import br.com.pinter.tqrespec.save.player.Player;
 import br.com.pinter.tqrespec.save.player.PlayerSkill;
-import br.com.pinter.tqrespec.tqdata.Db;
+import br.com.pinter.tqrespec.save.player.SkillGraph;
 import br.com.pinter.tqrespec.tqdata.Txt;
 import br.com.pinter.tqrespec.util.Constants;
 import com.google.inject.Inject;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.StringBinding;
 import javafx.beans.property.BooleanProperty;
@@ -44,16 +46,13 @@ import javafx.stage.Stage;
 import javafx.util.Callback;
 
 import java.net.URL;
-import java.util.List;
-import java.util.ResourceBundle;
+import java.util.*;
 
 public class SkillsPaneController implements Initializable {
     private final BooleanProperty saveDisabled = new SimpleBooleanProperty();
     @FXML
     public GridPane skillsGridPane;
     @Inject
-    private Db db;
-    @Inject
     private Txt txt;
     @Inject
     private Player player;
@@ -85,6 +84,8 @@ public class SkillsPaneController implements Initializable {
     private MenuButton secondMasteryButton;
     @Inject
     private UIUtils uiUtils;
+    @Inject
+    private DataChangeBus dataChangeBus;
 
     private SimpleStringProperty currentSkillPoints = null;
     private SimpleStringProperty currentFirstMasteryLevel = null;
@@ -96,6 +97,8 @@ public class SkillsPaneController implements Initializable {
     private StringBinding freeSkillPointsBinding;
     private StringBinding reclaimMasterySecondBinding;
     private StringBinding reclaimMasteryFirstBinding;
+    private final Map<Integer, SkillListViewItem> skillItems = new HashMap<>();
+    private final Set<Integer> masteryBlocks = new HashSet<>();
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -107,6 +110,7 @@ public class SkillsPaneController implements Initializable {
         removeMasteryFirstItem.setGraphic(Icon.FA_TIMES.create());
         reclaimMasterySecondItem.setGraphic(Icon.FA_ANGLE_DOUBLE_DOWN.create());
         removeMasterySecondItem.setGraphic(Icon.FA_TIMES.create());
+        dataChangeBus.subscribe(this::dataChanged);
     }
 
     public boolean isSaveDisabled() {
@@ -166,6 +170,8 @@ public class SkillsPaneController implements Initializable {
             currentSecondMasteryLevel.setValue(null);
         if (currentSkillPoints != null)
             currentSkillPoints.setValue(null);
+        skillItems.clear();
+        masteryBlocks.clear();
         firstMasteryLabel.setText(null);
         firstMasteryListView.getItems().clear();
         secondMasteryLabel.setText(null);
@@ -228,6 +234,83 @@ public class SkillsPaneController implements Initializable {
         currentSecondMasteryLevel.setValue(String.valueOf(Math.max(secondMasteryLevel - 1, 0)));
     }
 
+    /**
+     * Patches the skill lists with the changes made since the last pulse. The lists are only built again when a
+     * mastery is removed, a skill is added or a transaction is reverted.
+     */
+    private void dataChanged(List<DataMapEvent> events) {
+        if (!player.isCharacterLoaded() || currentSkillPoints == null) {
+            return;
+        }
+
+        boolean rebuild = false;
+        boolean masteryLevelChanged = false;
+        for (DataMapEvent e : events) {
+            switch (e.getType()) {
+                case BLOCK_REMOVED -> {
+                    if (masteryBlocks.contains(e.getBlockStart())) {
+                        rebuild = true;
+                    } else {
+                        removeSkillItem(e.getBlockStart());
+                    }
+                }
+                case VARIABLE_CHANGED -> {
+                    if (Constants.Save.SKILL_POINTS.equals(e.getVariable())) {
+                        currentSkillPoints.setValue(String.valueOf(player.getAvailableSkillPoints()));
+                    } else if (Constants.Save.SKILL_LEVEL.equals(e.getVariable())) {
+                        if (masteryBlocks.contains(e.getBlockStart())) {
+                            masteryLevelChanged = true;
+                        } else {
+                            rebuild |= skillItems.containsKey(e.getBlockStart());
+                        }
+                    }
+                }
+                case VARIABLE_INSERTED -> rebuild |= Constants.Save.SKILL_NAME.equals(e.getVariable());
+                case CHANGES_REVERTED -> rebuild = true;
+                default -> {
+                    //not shown in this pane
+                }
+            }
+        }
+
+        if (rebuild) {
+            updateMasteries();
+            return;
+        }
+        if (masteryLevelChanged) {
+            updateMasteryLevels();
+        }
+        disableControls(false);
+    }
+
+    private void removeSkillItem(int blockStart) {
+        SkillListViewItem item = skillItems.remove(blockStart);
+        if (item != null && !firstMasteryListView.getItems().remove(item)) {
+            secondMasteryListView.getItems().remove(item);
+        }
+    }
+
+    private void updateMasteryLevels() {
+        firstMasteryLevel = getMasteryLevel(0);
+        secondMasteryLevel = getMasteryLevel(1);
+        List<Skill> masteries = player.getSkillGraph().getMasteries();
+        if (!masteries.isEmpty()) {
+            firstMasteryLabel.setText(masteryLabel(masteries.get(0)));
+        }
+        if (masteries.size() > 1) {
+            secondMasteryLabel.setText(masteryLabel(masteries.get(1)));
+        }
+        currentFirstMasteryLevel.setValue(String.valueOf(Math.max(firstMasteryLevel - 1, 0)));
+        currentSecondMasteryLevel.setValue(String.valueOf(Math.max(secondMasteryLevel - 1, 0)));
+    }
+
+    private String masteryLabel(Skill mastery) {
+        return String.format("%s (%d)",
+                txt.getString(mastery.getSkillDisplayName()),
+                player.getSkillGraph().getNode(mastery.getRecordPath()).getLevel()
+        );
+    }
+
     private int getMasteryLevel(int i) {
         List<Skill> masteries = player.getPlayerMasteries();
 
@@ -258,19 +341,17 @@ public class SkillsPaneController implements Initializable {
         }
 
         Skill mastery = null;
+        SkillGraph skillGraph = player.getSkillGraph();
+        List<Skill> masteries = skillGraph.getMasteries();
 
-        if (!(player.getPlayerMasteries().size() == 1 && i > 0) && !player.getPlayerMasteries().isEmpty()) {
-            mastery = player.getPlayerMasteries().get(i);
-            masteryLabel.setText(
-                    String.format("%s (%d)",
-                            txt.getString(mastery.getSkillDisplayName()),
-                            player.getPlayerSkills().get(mastery.getRecordPath()).getSkillLevel()
-                    )
-            );
+        if (!(masteries.size() == 1 && i > 0) && !masteries.isEmpty()) {
+            mastery = masteries.get(i);
+            masteryLabel.setText(masteryLabel(mastery));
+            masteryBlocks.add(skillGraph.getNode(mastery.getRecordPath()).getPlayerSkill().getBlockStart());
             ret = true;
         }
 
-        ObservableList<SkillListViewItem> observableSkills = createObservableListFromMastery(mastery);
+        ObservableList<SkillListViewItem> observableSkills = createObservableListFromMastery(skillGraph, mastery);
 
         Callback<ListView<SkillListViewItem>, ListCell<SkillListViewItem>> listViewCallback
                 = skillListView -> new SkillListCell();
@@ -280,21 +361,18 @@ public class SkillsPaneController implements Initializable {
         return ret;
     }
 
-    private ObservableList<SkillListViewItem> createObservableListFromMastery(Skill mastery) {
+    private ObservableList<SkillListViewItem> createObservableListFromMastery(SkillGraph skillGraph, Skill mastery) {
         ObservableList<SkillListViewItem> ret = FXCollections.observableArrayList();
 
         if (mastery == null) return ret;
 
-        for (Skill s : player.getPlayerSkillsFromMastery(mastery)) {
-            Skill s1 = s;
-            if (s.isPointsToPet() || s.isPointsToBuff()) {
-                s1 = db.skills().getSkill(s.getRecordPath(), true);
-            }
-
-            PlayerSkill sb = player.getPlayerSkills().get(s.getRecordPath());
-            if (sb == null || s1.getRecordPath() == null) continue;
-            ret.add(new SkillListViewItem(s1.getSkillDisplayName(),
-                    sb.getSkillLevel(), txt.getString(s1.getSkillDisplayName())));
+        for (SkillGraph.Node node : skillGraph.getSkills(mastery)) {
+            Skill s1 = node.getDisplaySkill();
+            if (s1 == null || s1.getRecordPath() == null) continue;
+            SkillListViewItem item = new SkillListViewItem(s1.getSkillDisplayName(),
+                    node.getLevel(), txt.getString(s1.getSkillDisplayName()));
+            skillItems.put(node.getPlayerSkill().getBlockStart(), item);
+            ret.add(item);
         }
         return ret;
     }
@@ -307,76 +385,78 @@ public class SkillsPaneController implements Initializable {
         }
     }
 
-    @FXML
-    public void reclaimMasteryFirst(Event event) {
+    /**
+     * Runs an action that changes the character with the controls disabled. The lists are updated by the change
+     * events of the next pulse, the controls are enabled after them, also when the action changed nothing or failed.
+     */
+    private void change(Runnable action) {
         disableControls(true);
-        Skill mastery = player.getPlayerMasteries().get(0);
-        PlayerSkill sb = player.getPlayerSkills().get(mastery.getRecordPath());
-
-        if (!isMasteryEmpty(mastery)) {
-            return;
+        try {
+            action.run();
+        } finally {
+            //queued after the delivery of the changes made by the action
+            Platform.runLater(() -> disableControls(false));
         }
+    }
 
-        player.reclaimMasteryPoints(sb);
-        updateMasteries();
+    private void reclaimMastery(int i) {
+        change(() -> {
+            Skill mastery = player.getPlayerMasteries().get(i);
+            PlayerSkill sb = player.getPlayerSkills().get(mastery.getRecordPath());
+
+            if (!isMasteryEmpty(mastery)) {
+                return;
+            }
+
+            player.reclaimMasteryPoints(sb);
+        });
     }
 
-    @FXML
-    public void reclaimMasterySecond(Event event) {
-        disableControls(true);
-        Skill mastery = player.getPlayerMasteries().get(1);
-        PlayerSkill sb = player.getPlayerSkills().get(mastery.getRecordPath());
+    private void reclaimSkills(int i) {
+        change(() -> reclaimPointsFromSkills(player.getPlayerMasteries().get(i)));
+    }
 
-        if (!isMasteryEmpty(mastery)) {
-            return;
-        }
+    private void removeMastery(int i) {
+        change(() -> {
+            Skill mastery = player.getPlayerMasteries().get(i);
+            PlayerSkill sb = player.getPlayerSkills().get(mastery.getRecordPath());
 
-        player.reclaimMasteryPoints(sb);
-        updateMasteries();
+            if (!isMasteryEmpty(mastery)) {
+                return;
+            }
+
+            player.removeMastery(sb);
+        });
+    }
+
+    @FXML
+    public void reclaimMasteryFirst(Event event) {
+        reclaimMastery(0);
+    }
+
+    @FXML
+    public void reclaimMasterySecond(Event event) {
+        reclaimMastery(1);
     }
 
     @FXML
     public void reclaimSkillsFirst(Event event) {
-        disableControls(true);
-        Skill mastery = player.getPlayerMasteries().get(0);
-        reclaimPointsFromSkills(mastery);
-        updateMasteries();
+        reclaimSkills(0);
     }
 
     @FXML
     public void reclaimSkillsSecond(Event event) {
-        disableControls(true);
-        Skill mastery = player.getPlayerMasteries().get(1);
-        reclaimPointsFromSkills(mastery);
-        updateMasteries();
+        reclaimSkills(1);
     }
 
     @FXML
     public void removeMasteryFirst(Event event) {
-        disableControls(true);
-        Skill mastery = player.getPlayerMasteries().get(0);
-        PlayerSkill sb = player.getPlayerSkills().get(mastery.getRecordPath());
-
-        if (!isMasteryEmpty(mastery)) {
-            return;
-        }
-
-        player.removeMastery(sb);
-        updateMasteries();
+        removeMastery(0);
     }
 
     @FXML
     public void removeMasterySecond(Event event) {
-        disableControls(true);
-        Skill mastery = player.getPlayerMasteries().get(1);
-        PlayerSkill sb = player.getPlayerSkills().get(mastery.getRecordPath());
-
-        if (!isMasteryEmpty(mastery)) {
-            return;
-        }
-
-        player.removeMastery(sb);
-        updateMasteries();
+        removeMastery(1);
     }
 
     public boolean isMasteryEmpty(Skill mastery) {
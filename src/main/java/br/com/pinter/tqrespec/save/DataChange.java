@@ -24,7 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 
-abstract class DataChange implements Serializable {
+abstract class DataChange implements DeepCloneable {
     private byte[] padding = new byte[0];
     private boolean paddingAfter = true;
 
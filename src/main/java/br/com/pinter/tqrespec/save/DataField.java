@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+/**
+ * A variable of a loaded save, resolved once when the handle is bound. The handle keeps the value last read and only
+ * reads it again from the {@link FileDataMap} when a change was stored after that.
+ */
+public abstract class DataField {
+    final FileDataMap dataMap;
+    final VariableInfo variable;
+    private final boolean singleDefinition;
+    int stamp = -1;
+
+    DataField(FileDataMap dataMap, VariableInfo variable, boolean singleDefinition) {
+        this.dataMap = dataMap;
+        this.variable = variable;
+        this.singleDefinition = singleDefinition;
+    }
+
+    public String getName() {
+        return variable.getName();
+    }
+
+    public int getBlockOffset() {
+        return variable.getBlockOffset();
+    }
+
+    /**
+     * @return a copy of the variable to hold the new value, checking that the variable can be changed
+     */
+    VariableInfo prepareChange() {
+        if (!singleDefinition) {
+            throw new IllegalStateException(FileDataMap.MULTIPLE_DEFINITIONS_ERROR);
+        }
+        return variable.copy();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + variable + '}';
+    }
+}
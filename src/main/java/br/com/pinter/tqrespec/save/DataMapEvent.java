@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+/**
+ * A change made through a {@link FileDataMap}, as delivered to the GUI.
+ */
+public final class DataMapEvent {
+    public enum Type {
+        VARIABLE_CHANGED,
+        VARIABLE_INSERTED,
+        VARIABLE_REMOVED,
+        BLOCK_REMOVED,
+        CHANGES_REVERTED
+    }
+
+    private final Type type;
+    private final int blockStart;
+    private final String variable;
+    private final VariableInfo variableInfo;
+
+    private DataMapEvent(Type type, int blockStart, String variable, VariableInfo variableInfo) {
+        this.type = type;
+        this.blockStart = blockStart;
+        this.variable = variable;
+        this.variableInfo = variableInfo;
+    }
+
+    public static DataMapEvent variableChanged(int blockStart, String variable) {
+        return new DataMapEvent(Type.VARIABLE_CHANGED, blockStart, variable, null);
+    }
+
+    public static DataMapEvent variableInserted(VariableInfo variable) {
+        return new DataMapEvent(Type.VARIABLE_INSERTED, variable.getBlockOffset(), variable.getName(), variable);
+    }
+
+    public static DataMapEvent variableRemoved(VariableInfo variable) {
+        return new DataMapEvent(Type.VARIABLE_REMOVED, variable.getBlockOffset(), variable.getName(), variable);
+    }
+
+    public static DataMapEvent blockRemoved(int blockStart) {
+        return new DataMapEvent(Type.BLOCK_REMOVED, blockStart, null, null);
+    }
+
+    public static DataMapEvent changesReverted() {
+        return new DataMapEvent(Type.CHANGES_REVERTED, -1, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getBlockStart() {
+        return blockStart;
+    }
+
+    /**
+     * @return name of the variable, null for {@link Type#BLOCK_REMOVED} and {@link Type#CHANGES_REVERTED}
+     */
+    public String getVariable() {
+        return variable;
+    }
+
+    /**
+     * @return the variable inserted or removed, null for the other types
+     */
+    public VariableInfo getVariableInfo() {
+        return variableInfo;
+    }
+
+    @Override
+    public String toString() {
+        return type + "{blockStart=" + blockStart + ", variable=" + variable + '}';
+    }
+}
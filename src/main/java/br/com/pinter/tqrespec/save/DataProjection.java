@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Builds an object from the variables of a loaded save, declared once as a list of fields. The blocks holding the
+ * declared variables are walked a single time and every variable found is handed to the fields reading it, instead of
+ * one lookup per field. Values are read like the {@link FileDataMap} getters: from the first block holding the
+ * variable, with pending changes. Fields are set in the order they were declared.
+ *
+ * @param <T> type of the object built
+ */
+public final class DataProjection<T> {
+    private static final String TEMP = "temp";
+
+    private final List<Field<T>> fields;
+    private final Map<String, List<Field<T>>> byVariable = new HashMap<>();
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        void read(T target, FileDataMap dataMap, BlockInfo block, List<VariableInfo> variables);
+    }
+
+    private static final class Field<T> {
+        private final int index;
+        private final String variable;
+        private final String alias;
+        private final Reader<T> reader;
+
+        private Field(int index, String variable, String alias, Reader<T> reader) {
+            this.index = index;
+            this.variable = variable;
+            this.alias = alias;
+            this.reader = reader;
+        }
+
+        private boolean matches(VariableInfo v) {
+            return alias == null || alias.equals(v.getAlias());
+        }
+    }
+
+    private DataProjection(List<Field<T>> fields) {
+        this.fields = List.copyOf(fields);
+        for (Field<T> f : this.fields) {
+            byVariable.computeIfAbsent(f.variable, k -> new ArrayList<>()).add(f);
+        }
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Reads the fields from the data map into the target.
+     *
+     * @param dataMap data of the loaded save
+     * @param target  object receiving the values
+     * @return the target
+     */
+    public T apply(FileDataMap dataMap, T target) {
+        int[] blocks = new int[fields.size()];
+        Arrays.fill(blocks, -1);
+        List<List<VariableInfo>> found = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            found.add(new ArrayList<>());
+        }
+
+        NavigableSet<Integer> offsets = new TreeSet<>();
+        for (String variable : byVariable.keySet()) {
+            List<Integer> locations = dataMap.getVariableLocation().get(variable);
+            if (locations != null) {
+                offsets.addAll(locations);
+            }
+        }
+
+        for (int offset : offsets) {
+            BlockInfo block = dataMap.getBlockInfo().get(offset);
+            if (block == null || dataMap.isRemoved(offset)) {
+                continue;
+            }
+            for (VariableInfo v : block.getVariables().values()) {
+                List<Field<T>> candidates = byVariable.get(v.getName());
+                if (candidates == null) {
+                    continue;
+                }
+                for (Field<T> f : candidates) {
+                    if (!f.matches(v)) {
+                        continue;
+                    }
+                    if (blocks[f.index] == -1) {
+                        blocks[f.index] = offset;
+                    }
+                    if (blocks[f.index] == offset) {
+                        found.get(f.index).add(v);
+                    }
+                }
+            }
+        }
+
+        for (Field<T> f : fields) {
+            BlockInfo block = blocks[f.index] != -1 ? dataMap.getBlockInfo().get(blocks[f.index]) : null;
+            f.reader.read(target, dataMap, block, found.get(f.index));
+        }
+        return target;
+    }
+
+    public static final class Builder<T> {
+        private final List<Field<T>> fields = new ArrayList<>();
+
+        private Builder<T> add(String variable, String alias, Reader<T> reader) {
+            fields.add(new Field<>(fields.size(), variable, alias, reader));
+            return this;
+        }
+
+        /**
+         * Integer variable, like {@link FileDataMap#getInt(String)}. The projection fails if the variable is missing.
+         */
+        public Builder<T> intField(String variable, ObjIntConsumer<T> setter) {
+            return add(variable, null, (t, dataMap, block, variables) -> {
+                if (variables.isEmpty() || !variables.get(0).isInt()) {
+                    throw new IllegalStateException("invalid variable: " + variable);
+                }
+                setter.accept(t, (Integer) dataMap.currentVariable(variables.get(0)).getValue());
+            });
+        }
+
+        /**
+         * Float variable, like {@link FileDataMap#getFloat(String)}. The projection fails if the variable is missing.
+         */
+        public Builder<T> floatField(String variable, BiConsumer<T, Float> setter) {
+            return add(variable, null, (t, dataMap, block, variables) -> {
+                if (variables.isEmpty() || !variables.get(0).isFloat()) {
+                    throw new IllegalStateException("invalid variable: " + variable);
+                }
+                setter.accept(t, (Float) dataMap.currentVariable(variables.get(0)).getValue());
+            });
+        }
+
+        /**
+         * String variable, like {@link FileDataMap#getString(String)}. Receives null if the variable is missing.
+         */
+        public Builder<T> stringField(String variable, BiConsumer<T, String> setter) {
+            return add(variable, null, (t, dataMap, block, variables) -> {
+                String value = null;
+                if (!variables.isEmpty() && variables.get(0).isString()) {
+                    value = dataMap.currentVariable(variables.get(0)).getValueString();
+                }
+                setter.accept(t, value);
+            });
+        }
+
+        /**
+         * All the integer values of a variable in the first block holding it, like
+         * {@link FileDataMap#getIntValuesFromBlock(String)}.
+         */
+        public Builder<T> intValues(String variable, BiConsumer<T, List<Integer>> setter) {
+            return add(variable, null, (t, dataMap, block, variables) -> {
+                List<Integer> values = new ArrayList<>();
+                for (VariableInfo v : variables) {
+                    VariableInfo current = dataMap.currentVariable(v);
+                    if (current.isInt() && current.getValue() != null) {
+                        values.add((Integer) current.getValue());
+                    }
+                }
+                setter.accept(t, values);
+            });
+        }
+
+        /**
+         * All the string values of a variable in the first block holding it, like
+         * {@link FileDataMap#getStringValuesFromBlock(String)}.
+         */
+        public Builder<T> stringValues(String variable, BiConsumer<T, List<String>> setter) {
+            return add(variable, null, (t, dataMap, block, variables) -> {
+                List<String> values = new ArrayList<>();
+                for (VariableInfo v : variables) {
+                    VariableInfo current = dataMap.currentVariable(v);
+                    if (current.isString() && current.getValue() != null) {
+                        values.add(current.getValueString());
+                    }
+                }
+                setter.accept(t, values);
+            });
+        }
+
+        /**
+         * Attribute stored in a temp variable, like {@link FileDataMap#getTempAttr(String)}. The projection fails if
+         * the attribute is missing.
+         *
+         * @param alias alias given to the temp variable by the parser
+         */
+        public Builder<T> tempAttr(String alias, ObjIntConsumer<T> setter) {
+            return add(TEMP, alias, (t, dataMap, block, variables) -> {
+                int value = -1;
+                if (variables.size() == 1) {
+                    VariableInfo current = dataMap.currentVariable(variables.get(0));
+                    if (current.getVariableType() == VariableType.FLOAT) {
+                        value = Math.round((Float) current.getValue());
+                    } else if (current.getVariableType() == VariableType.INTEGER) {
+                        value = (Integer) current.getValue();
+                    }
+                }
+                if (value < 0) {
+                    throw new IllegalArgumentException(String.format("attribute not found %s", alias));
+                }
+                setter.accept(t, value);
+            });
+        }
+
+        /**
+         * The first block holding the variable, for fields computed from several variables of the same block.
+         * Receives null if the variable is missing.
+         */
+        public Builder<T> block(String variable, BiConsumer<T, BlockInfo> setter) {
+            return add(variable, null, (t, dataMap, block, variables) -> setter.accept(t, block));
+        }
+
+        public DataProjection<T> build() {
+            return new DataProjection<>(fields);
+        }
+    }
+}
@@ -28,16 +28,23 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 public class FileDataMap implements DeepCloneable {
     private static final String ALERT_INVALIDDATA = "alert.changesinvaliddata";
-    private static final String MULTIPLE_DEFINITIONS_ERROR = "Variable is defined on multiple locations, aborting";
+    static final String MULTIPLE_DEFINITIONS_ERROR = "Variable is defined on multiple locations, aborting";
     private static final String INVALID_DATA_TYPE = "Variable '%s' has an unexpected data type";
     private final Map<Integer, DataChange> changes = new ConcurrentHashMap<>();
     private Map<Integer, BlockInfo> blockInfo = new ConcurrentHashMap<>();
     private Map<String, List<Integer>> variableLocation = new ConcurrentHashMap<>();
     private Platform platform = Platform.WINDOWS;
+    private transient List<FileDataMapListener> listeners = new CopyOnWriteArrayList<>();
+    private transient Map<BlockType, NavigableSet<Integer>> blockTypeIndex = new ConcurrentHashMap<>();
+    private transient Map<String, DataField> fields = new ConcurrentHashMap<>();
+    private volatile int modCount = 0;
 
     @Override
     public boolean equals(Object o) {
@@ -59,6 +66,56 @@ public class FileDataMap implements DeepCloneable {
 
     public void setBlockInfo(Map<Integer, BlockInfo> blockInfo) {
         this.blockInfo = blockInfo;
+        indexBlockTypes();
+        fields = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Indexes the offsets of the blocks by type. Block types are only final when the parser is done, so the index is
+     * built when the parsed table is handed to the map.
+     */
+    private void indexBlockTypes() {
+        Map<BlockType, NavigableSet<Integer>> index = new ConcurrentHashMap<>();
+        for (BlockInfo b : blockInfo.values()) {
+            if (!isRemoved(b.getStart())) {
+                index.computeIfAbsent(b.getBlockType(), k -> new ConcurrentSkipListSet<>()).add(b.getStart());
+            }
+        }
+        blockTypeIndex = index;
+    }
+
+    private NavigableSet<Integer> blockOffsetsOfType(BlockType type) {
+        if (blockTypeIndex == null) {
+            indexBlockTypes();
+        }
+        return blockTypeIndex.getOrDefault(type, Collections.emptyNavigableSet());
+    }
+
+    /**
+     * @param type block type
+     * @return the block of the type with the lowest offset, or null if there is none
+     */
+    public BlockInfo firstBlockOfType(BlockType type) {
+        NavigableSet<Integer> offsets = blockOffsetsOfType(type);
+        return offsets.isEmpty() ? null : blockInfo.get(offsets.first());
+    }
+
+    /**
+     * @param type block type
+     * @return the blocks of the type, sorted by offset
+     */
+    public List<BlockInfo> blocksOfType(BlockType type) {
+        return blockOffsetsOfType(type).stream().map(blockInfo::get).collect(Collectors.toList());
+    }
+
+    /**
+     * @param type   block type
+     * @param parent offset of the parent block
+     * @return the blocks of the type that are children of the parent, sorted by offset
+     */
+    public List<BlockInfo> blocksOfType(BlockType type, int parent) {
+        return blockOffsetsOfType(type).stream().map(blockInfo::get)
+                .filter(b -> b.getParentOffset() == parent).collect(Collectors.toList());
     }
 
     public Map<String, List<Integer>> getVariableLocation() {
@@ -67,6 +124,77 @@ public class FileDataMap implements DeepCloneable {
 
     public void setVariableLocation(Map<String, List<Integer>> variableLocation) {
         this.variableLocation = variableLocation;
+        fields = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Incremented on every change stored, field handles compare it to know when the value they hold is outdated.
+     */
+    int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Returns a handle to an integer variable, resolved once for the loaded save. Reading the handle doesn't look up
+     * the variable again, so it should be preferred for variables read often.
+     *
+     * @param variable variable name
+     * @return the handle, shared by the callers until another save is loaded
+     */
+    public IntField intField(String variable) {
+        return (IntField) bindField(variable, VariableType.INTEGER,
+                (v, single) -> new IntField(this, v, single));
+    }
+
+    public FloatField floatField(String variable) {
+        return (FloatField) bindField(variable, VariableType.FLOAT,
+                (v, single) -> new FloatField(this, v, single));
+    }
+
+    public StringField stringField(String variable) {
+        return (StringField) bindField(variable, null,
+                (v, single) -> new StringField(this, v, single));
+    }
+
+    private DataField bindField(String variable, VariableType type, BiFunction<VariableInfo, Boolean, DataField> factory) {
+        if (fields == null) {
+            fields = new ConcurrentHashMap<>();
+        }
+        DataField field = fields.get(variable);
+        if (field == null) {
+            VariableInfo v = getFirst(variable);
+            if (v == null) {
+                throw new IllegalArgumentException(ResourceHelper.getMessage(ALERT_INVALIDDATA, variable));
+            }
+            if (type != null ? v.getVariableType() != type : !v.isString()) {
+                throw new NumberFormatException(String.format(INVALID_DATA_TYPE, variable));
+            }
+            field = fields.computeIfAbsent(variable, k -> factory.apply(v, getVariableLocation().get(variable).size() == 1));
+        }
+        return field;
+    }
+
+    /**
+     * @return the pending change of the variable if there is one, or the variable read from the file
+     */
+    VariableInfo currentVariable(VariableInfo variable) {
+        DataChange change = changes.get(variable.getValOffset());
+        if (change != null && change.isVariable()) {
+            VariableInfo c = ((DataChangeVariable) change).getVariable(variable);
+            if (c != null) {
+                return c;
+            }
+        }
+        return variable;
+    }
+
+    void storeField(VariableInfo variable, VariableInfo newVar) {
+        storeChange(variable, newVar);
+        if (newVar.isInt()) {
+            fireIntChanged(variable.getBlockOffset(), variable.getName(), (Integer) newVar.getValue());
+        } else {
+            fireVariableChanged(variable.getBlockOffset(), variable.getName());
+        }
     }
 
     byte[] getBytes(Integer offset) {
@@ -102,7 +230,64 @@ public class FileDataMap implements DeepCloneable {
         this.platform = platform;
     }
 
+    public void addListener(FileDataMapListener listener) {
+        if (listeners == null) {
+            listeners = new CopyOnWriteArrayList<>();
+        }
+        listeners.add(listener);
+    }
+
+    private void fireIntChanged(int blockStart, String variable, int value) {
+        if (listeners != null) {
+            listeners.forEach(l -> l.intChanged(blockStart, variable, value));
+        }
+        fireVariableChanged(blockStart, variable);
+    }
+
+    private void fireVariableChanged(int blockStart, String variable) {
+        if (listeners != null) {
+            listeners.forEach(l -> l.variableChanged(blockStart, variable));
+        }
+    }
+
+    /**
+     * Stores a set of changes as a unit. If one of them fails, the changes stored by the others are discarded, the
+     * data map is left as it was before the call and the exception is thrown again.
+     *
+     * @param edits the changes, made through the methods of this data map
+     */
+    public void transaction(Runnable edits) {
+        Map<Integer, DataChange> savedChanges = new HashMap<>();
+        changes.forEach((k, v) -> savedChanges.put(k, (DataChange) v.deepClone()));
+        Map<Integer, List<VariableInfo>> savedStaging = new HashMap<>();
+        for (BlockInfo b : blockInfo.values()) {
+            if (!b.getStagingVariables().isEmpty()) {
+                savedStaging.put(b.getStart(), new ArrayList<>(b.getStagingVariables().values()));
+            }
+        }
+
+        try {
+            edits.run();
+        } catch (RuntimeException e) {
+            changes.clear();
+            changes.putAll(savedChanges);
+            for (BlockInfo b : blockInfo.values()) {
+                b.getStagingVariables().clear();
+                savedStaging.getOrDefault(b.getStart(), List.of()).forEach(v -> b.getStagingVariables().put(v.getName(), v));
+            }
+            modCount++;
+            indexBlockTypes();
+            if (listeners != null) {
+                listeners.forEach(FileDataMapListener::changesReverted);
+            }
+            throw e;
+        }
+    }
+
     public void clear() {
+        modCount++;
+        blockTypeIndex = new ConcurrentHashMap<>();
+        fields = new ConcurrentHashMap<>();
         blockInfo.clear();
         changes.clear();
         variableLocation.clear();
@@ -145,6 +330,7 @@ public class FileDataMap implements DeepCloneable {
      *                 1 = after
      */
     private void storeChange(VariableInfo oldVar, VariableInfo newVar, int position) {
+        modCount++;
         int offset;
         boolean creating = false;
 
@@ -213,6 +399,7 @@ public class FileDataMap implements DeepCloneable {
      *                 1 = after
      */
     private void storeChange(int offset, byte[] newData, int previousLength, int position) {
+        modCount++;
         if (changes.get(offset) != null && newData.length == 0) {
             int previous = changes.get(offset).previousValueLength();
             changes.put(offset, new DataChangeRaw(offset, newData, previous));
@@ -388,6 +575,7 @@ public class FileDataMap implements DeepCloneable {
             VariableInfo newVar = (VariableInfo) variableInfo.deepClone();
             newVar.setValue(value);
             storeChange(variableInfo, newVar);
+            fireVariableChanged(variableInfo.getBlockOffset(), variable);
         } else {
             throw new IllegalArgumentException(ResourceHelper.getMessage(ALERT_INVALIDDATA, variable));
         }
@@ -399,6 +587,7 @@ public class FileDataMap implements DeepCloneable {
                 VariableInfo newVar = (VariableInfo) variable.deepClone();
                 newVar.setValue((float) value);
                 storeChange(variable, newVar);
+                fireVariableChanged(variable.getBlockOffset(), variable.getName());
             } else {
                 throw new NumberFormatException(String.format(INVALID_DATA_TYPE, variable));
             }
@@ -435,6 +624,7 @@ public class FileDataMap implements DeepCloneable {
                 VariableInfo newVar = (VariableInfo) variableInfo.deepClone();
                 newVar.setValue(value);
                 storeChange(variableInfo, newVar);
+                fireIntChanged(blockStart, variable, value);
             } else {
                 throw new NumberFormatException(String.format(INVALID_DATA_TYPE, variable));
             }
@@ -454,6 +644,7 @@ public class FileDataMap implements DeepCloneable {
             VariableInfo newVar = (VariableInfo) variableInfo.deepClone();
             newVar.setValue(value);
             storeChange(variableInfo, newVar);
+            fireIntChanged(variableInfo.getBlockOffset(), variable, value);
         } else {
             throw new NumberFormatException(String.format(INVALID_DATA_TYPE, variable));
         }
@@ -491,6 +682,7 @@ public class FileDataMap implements DeepCloneable {
                 VariableInfo newVar = (VariableInfo) variable.deepClone();
                 newVar.setValue(value);
                 storeChange(variable, newVar);
+                fireIntChanged(variable.getBlockOffset(), variable.getName(), value);
             } else {
                 throw new NumberFormatException(String.format(INVALID_DATA_TYPE, variable));
             }
@@ -584,7 +776,7 @@ public class FileDataMap implements DeepCloneable {
                         continue;
                     }
                     if (vi.getVariableType().equals(VariableType.UID)) {
-                        ret.add(new UID((byte[]) vi.getValue()));
+                        ret.add(vi.getUidValue());
                     }
                 }
             }
@@ -602,6 +794,12 @@ public class FileDataMap implements DeepCloneable {
             }
         }
         storeChange(current.getStart(), new byte[0], current.getSize());
+        if (blockTypeIndex != null && blockTypeIndex.containsKey(current.getBlockType())) {
+            blockTypeIndex.get(current.getBlockType()).remove(current.getStart());
+        }
+        if (listeners != null) {
+            listeners.forEach(l -> l.blockRemoved(current.getStart()));
+        }
     }
 
     public void removeVariable(VariableInfo variable) {
@@ -609,6 +807,7 @@ public class FileDataMap implements DeepCloneable {
     }
 
     public void removeVariable(int offset, VariableInfo variable) {
+        modCount++;
         if (changes.get(offset) != null && changes.get(offset).isVariable()) {
             DataChangeVariable dataChange = (DataChangeVariable) changes.get(offset);
             List<VariableInfo> toRemove = new ArrayList<>();
@@ -631,6 +830,9 @@ public class FileDataMap implements DeepCloneable {
         } else {
             storeChange(variable.getKeyOffset(), new byte[0], variable.getVariableBytesLength());
         }
+        if (listeners != null) {
+            listeners.forEach(l -> l.variableRemoved(variable));
+        }
     }
 
     public void insertVariable(VariableInfo variable) {
@@ -641,6 +843,9 @@ public class FileDataMap implements DeepCloneable {
         storeChange(null, variable, overwrite ? 0 : -1);
         BlockInfo block = getBlockInfo().get(variable.getBlockOffset());
         block.getStagingVariables().put(variable.getName(), variable);
+        if (listeners != null) {
+            listeners.forEach(l -> l.variableInserted(variable));
+        }
     }
 
     List<VariableInfo> getTempVariableInfo(String var) {
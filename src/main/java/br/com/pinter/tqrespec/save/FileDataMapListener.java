@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+/**
+ * Receives the changes made through a {@link FileDataMap}, so indexes built from the save can be updated in place.
+ */
+public interface FileDataMapListener {
+    default void blockRemoved(int blockStart) {
+    }
+
+    default void intChanged(int blockStart, String variable, int value) {
+    }
+
+    /**
+     * Called for every value stored, of any type. Integer values are also delivered to
+     * {@link #intChanged(int, String, int)}.
+     */
+    default void variableChanged(int blockStart, String variable) {
+    }
+
+    default void variableInserted(VariableInfo variable) {
+    }
+
+    default void variableRemoved(VariableInfo variable) {
+    }
+
+    /**
+     * Called when a transaction fails and the changes it stored are discarded, indexes built from the changes
+     * reported before must be built again.
+     */
+    default void changesReverted() {
+    }
+}
@@ -51,7 +51,19 @@ public abstract class FileWriter {
     }
 
     protected void writeBuffer(String rootPath, String filename, FileDataMap fileDataMap, FileSystem fileSystem) throws IOException {
-        getSaveData().getBuffer().rewind();
+        Files.write(fileSystem.getPath(rootPath, filename), render(fileDataMap));
+    }
+
+    /**
+     * Builds the content of the file, the original buffer with the changes of the data map applied. The buffer of the
+     * save data is read through a duplicate, so several maps can be rendered from the same save at the same time.
+     *
+     * @param fileDataMap data map holding the changes
+     * @return the bytes of the file
+     */
+    protected byte[] render(FileDataMap fileDataMap) throws IOException {
+        ByteBuffer buffer = getSaveData().getBuffer().duplicate();
+        buffer.rewind();
 
         List<Integer> changedOffsets = new ArrayList<>(fileDataMap.changesKeySet());
         Collections.sort(changedOffsets);
@@ -59,33 +71,27 @@ public abstract class FileWriter {
         ByteArrayOutputStream outBuffer = new ByteArrayOutputStream();
 
         for (int offset : changedOffsets) {
-            int rawCount = offset - getSaveData().getBuffer().position();
-            getSaveData().getBuffer().limit(rawCount +
-                    getSaveData().getBuffer().position()
-            );
+            int rawCount = offset - buffer.position();
+            buffer.limit(rawCount + buffer.position());
 
-            byte[] buf = new byte[getSaveData().getBuffer().remaining()];
+            byte[] buf = new byte[buffer.remaining()];
             //copy to buf everything until next change
-            getSaveData().getBuffer().get(buf);
+            buffer.get(buf);
             outBuffer.write(buf);
             //restore bytebuffer limit
-            getSaveData().getBuffer().limit(getSaveData().getBuffer().capacity());
+            buffer.limit(buffer.capacity());
             //copy changed bytes to output buffer
             byte[] c = fileDataMap.getBytes(offset);
             outBuffer.write(c);
             int previousValueLength = fileDataMap.getPreviousValueLength(offset);
             //skip the number of bytes of original value, to position the cursor at the next variable/block
-            getSaveData().getBuffer().position(
-                    getSaveData().getBuffer().position() + previousValueLength);
+            buffer.position(buffer.position() + previousValueLength);
         }
 
         //copy remaining data to output buffer
-        while (true) {
-            byte[] buf = new byte[getSaveData().getBuffer().remaining()];
-            getSaveData().getBuffer().get(buf);
-            outBuffer.write(buf);
-            if (buf.length == 0) break;
-        }
+        byte[] remaining = new byte[buffer.remaining()];
+        buffer.get(remaining);
+        outBuffer.write(remaining);
 
         ByteBuffer bufferWrapper = ByteBuffer.wrap(outBuffer.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
 
@@ -94,8 +100,7 @@ public abstract class FileWriter {
             bufferWrapper.putInt(getCrcOffset(), calculateCRC32(bufferWrapper));
         }
 
-        Files.write(fileSystem.getPath(rootPath, filename), bufferWrapper.array());
-        getSaveData().getBuffer().rewind();
+        return bufferWrapper.array();
     }
 
     public int calculateCRC32(ByteBuffer buffer) {
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+/**
+ * Handle to a float variable, see {@link FileDataMap#floatField(String)}.
+ */
+public final class FloatField extends DataField {
+    private float value;
+
+    FloatField(FileDataMap dataMap, VariableInfo variable, boolean singleDefinition) {
+        super(dataMap, variable, singleDefinition);
+    }
+
+    /**
+     * @return the current value, the pending change if there is one
+     */
+    public synchronized float get() {
+        int modCount = dataMap.getModCount();
+        if (stamp != modCount) {
+            value = (Float) dataMap.currentVariable(variable).getValue();
+            stamp = modCount;
+        }
+        return value;
+    }
+
+    public synchronized void set(float newValue) {
+        VariableInfo newVar = prepareChange();
+        newVar.setValue(newValue);
+        dataMap.storeField(variable, newVar);
+        value = newValue;
+        stamp = dataMap.getModCount();
+    }
+}
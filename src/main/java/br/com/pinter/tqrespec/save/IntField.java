@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+/**
+ * Handle to an integer variable, see {@link FileDataMap#intField(String)}.
+ */
+public final class IntField extends DataField {
+    private int value;
+
+    IntField(FileDataMap dataMap, VariableInfo variable, boolean singleDefinition) {
+        super(dataMap, variable, singleDefinition);
+    }
+
+    /**
+     * @return the current value, the pending change if there is one
+     */
+    public synchronized int get() {
+        int modCount = dataMap.getModCount();
+        if (stamp != modCount) {
+            value = (Integer) dataMap.currentVariable(variable).getValue();
+            stamp = modCount;
+        }
+        return value;
+    }
+
+    public synchronized void set(int newValue) {
+        VariableInfo newVar = prepareChange();
+        newVar.setValue(newValue);
+        dataMap.storeField(variable, newVar);
+        value = newValue;
+        stamp = dataMap.getModCount();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+/**
+ * Handle to a string variable, see {@link FileDataMap#stringField(String)}.
+ */
+public final class StringField extends DataField {
+    private String value;
+
+    StringField(FileDataMap dataMap, VariableInfo variable, boolean singleDefinition) {
+        super(dataMap, variable, singleDefinition);
+    }
+
+    /**
+     * @return the current value, the pending change if there is one
+     */
+    public synchronized String get() {
+        int modCount = dataMap.getModCount();
+        if (stamp != modCount) {
+            value = dataMap.currentVariable(variable).getValueString();
+            stamp = modCount;
+        }
+        return value;
+    }
+
+    public synchronized void set(String newValue) {
+        VariableInfo newVar = prepareChange();
+        newVar.setValue(newValue);
+        dataMap.storeField(variable, newVar);
+        value = newValue;
+        stamp = dataMap.getModCount();
+    }
+}
@@ -22,80 +22,130 @@ package br.com.pinter.tqrespec.save;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.nio.ByteBuffer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteOrder;
-import java.util.Arrays;
-import java.util.Objects;
 
-public class UID {
+/**
+ * A 128-bit unique id as stored in the save files: 16 bytes, little-endian. The value is kept in two longs, the
+ * string form "p4-p3-p2-p1" (four unsigned 32-bit words, most significant first) is only built when requested.
+ */
+public final class UID {
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int SIZE = 16;
+    private static final long WORD_MASK = 0xFFFFFFFFL;
+
+    private final long high;
+    private final long low;
     private String value;
 
+    public UID(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
     public UID(String value) {
-        this.value = value;
+        this(parseHigh(value), parseLow(value));
+        this.value = StringUtils.isBlank(value) ? null : value;
     }
 
     public UID(byte[] value) {
-        this.value = convertUidByteToString(value);
+        this(value, 0);
+    }
+
+    /**
+     * @param value  buffer holding the raw id
+     * @param offset position of the first of the 16 bytes
+     */
+    public UID(byte[] value, int offset) {
+        this((long) LONG_LE.get(value, offset + 8), (long) LONG_LE.get(value, offset));
     }
 
     public static String convertUidByteToString(byte[] uid) {
-        ByteBuffer uidP1 = ByteBuffer.wrap(Arrays.copyOfRange(uid, 0, 4)).order(ByteOrder.LITTLE_ENDIAN);
-        ByteBuffer uidP2 = ByteBuffer.wrap(Arrays.copyOfRange(uid, 4, 8)).order(ByteOrder.LITTLE_ENDIAN);
-        ByteBuffer uidP3 = ByteBuffer.wrap(Arrays.copyOfRange(uid, 8, 12)).order(ByteOrder.LITTLE_ENDIAN);
-        ByteBuffer uidP4 = ByteBuffer.wrap(Arrays.copyOfRange(uid, 12, 16)).order(ByteOrder.LITTLE_ENDIAN);
-
-        int p4 = uidP4.getInt();
-        int p3 = uidP3.getInt();
-        int p2 = uidP2.getInt();
-        int p1 = uidP1.getInt();
-
-        String uidStr = String.format("%d-%d-%d-%d",
-                p4 & 0xFFFFFFFFL,
-                p3 & 0xFFFFFFFFL,
-                p2 & 0xFFFFFFFFL,
-                p1 & 0xFFFFFFFFL);
-
-        if("0-0-0-0".equals(uidStr) || StringUtils.isBlank(uidStr)) {
-            return null;
-        }
-        return uidStr;
+        return new UID(uid).getUid();
     }
 
     public static byte[] convertUidStringToByte(String uid) {
-        if(StringUtils.isBlank(uid)) {
+        if (StringUtils.isBlank(uid)) {
             return new byte[0];
         }
+        byte[] ret = new byte[SIZE];
+        new UID(uid).writeTo(ret, 0);
+        return ret;
+    }
 
-        String[] p = StringUtils.split(uid, "-");
-        long p4 = Long.parseLong(p[3]);
-        long p3 = Long.parseLong(p[2]);
-        long p2 = Long.parseLong(p[1]);
-        long p1 = Long.parseLong(p[0]);
+    private static long parseHigh(String uid) {
+        if (StringUtils.isBlank(uid)) {
+            return 0;
+        }
+        int[] dashes = dashes(uid);
+        return (parseWord(uid, 0, dashes[0]) << 32) | parseWord(uid, dashes[0] + 1, dashes[1]);
+    }
 
-        ByteBuffer uidP4 = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
-        ByteBuffer uidP3 = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
-        ByteBuffer uidP2 = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
-        ByteBuffer uidP1 = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+    private static long parseLow(String uid) {
+        if (StringUtils.isBlank(uid)) {
+            return 0;
+        }
+        int[] dashes = dashes(uid);
+        return (parseWord(uid, dashes[1] + 1, dashes[2]) << 32) | parseWord(uid, dashes[2] + 1, uid.length());
+    }
 
-        uidP4.putInt((int) (p4));
-        uidP3.putInt((int) p3);
-        uidP2.putInt((int) p2);
-        uidP1.putInt((int) p1);
+    private static int[] dashes(String uid) {
+        int d1 = uid.indexOf('-');
+        int d2 = uid.indexOf('-', d1 + 1);
+        int d3 = uid.indexOf('-', d2 + 1);
+        if (d1 < 0 || d2 < 0 || d3 < 0) {
+            throw new NumberFormatException("invalid uid: " + uid);
+        }
+        return new int[]{d1, d2, d3};
+    }
 
-        byte[] ret = new byte[16];
-        System.arraycopy(uidP4.array(), 0, ret, 0, 4);
-        System.arraycopy(uidP3.array(), 0, ret, 4, 4);
-        System.arraycopy(uidP2.array(), 0, ret, 8, 4);
-        System.arraycopy(uidP1.array(), 0, ret, 12, 4);
+    private static long parseWord(String uid, int begin, int end) {
+        return Long.parseLong(uid, begin, end, 10) & WORD_MASK;
+    }
 
-        return ret;
+    /**
+     * Writes the raw little-endian form.
+     *
+     * @param dst    destination buffer
+     * @param offset position of the first of the 16 bytes
+     */
+    public void writeTo(byte[] dst, int offset) {
+        LONG_LE.set(dst, offset, low);
+        LONG_LE.set(dst, offset + 8, high);
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
     }
 
+    public boolean isZero() {
+        return high == 0 && low == 0;
+    }
+
+    /**
+     * @return the raw id, or an empty array for the zero id
+     */
     public byte[] getBytes() {
-        return convertUidStringToByte(value);
+        if (isZero()) {
+            return new byte[0];
+        }
+        byte[] ret = new byte[SIZE];
+        writeTo(ret, 0);
+        return ret;
     }
 
+    /**
+     * @return the id as "p4-p3-p2-p1", or null for the zero id
+     */
     public String getUid() {
+        if (value == null && !isZero()) {
+            value = String.valueOf(high >>> 32) + '-' + (high & WORD_MASK) + '-' + (low >>> 32) + '-' + (low & WORD_MASK);
+        }
         return value;
     }
 
@@ -104,18 +154,18 @@ public class UID {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         UID uid = (UID) o;
-        return value.equals(uid.value);
+        return high == uid.high && low == uid.low;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return Long.hashCode(high) * 31 + Long.hashCode(low);
     }
 
     @Override
     public String toString() {
         return "UID{" +
-                "value='" + value + '\'' +
+                "value='" + getUid() + '\'' +
                 '}';
     }
 }
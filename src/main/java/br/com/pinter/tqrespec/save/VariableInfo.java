@@ -165,6 +165,25 @@ public class VariableInfo implements DeepCloneable, Serializable {
         valSize = valueByteArray.length;
     }
 
+    public void setValue(UID value) {
+        if(!isUid()) {
+            throw new IllegalArgumentException(INVALID_VALUE_TYPE_MSG);
+        }
+        byte[] bytes = new byte[VariableType.UID.dataTypeSize()];
+        value.writeTo(bytes, 0);
+        setValue(bytes);
+    }
+
+    /**
+     * Returns the value of a UID variable, read directly from the raw bytes.
+     */
+    public UID getUidValue() {
+        if(!isUid()) {
+            throw new IllegalArgumentException(INVALID_VALUE_TYPE_MSG);
+        }
+        return valueByteArray == null ? null : new UID(valueByteArray);
+    }
+
     /**
      * Returns value as a string. Bytes are converted to hex-string.
      */
@@ -176,7 +195,7 @@ public class VariableInfo implements DeepCloneable, Serializable {
         if (variableType == VariableType.FLOAT)
             return String.valueOf(valueFloat);
         if (variableType == VariableType.UID)
-            return UID.convertUidByteToString(valueByteArray);
+            return getUidValue().getUid();
         if (variableType == VariableType.STREAM)
             return BaseEncoding.base16().encode(valueByteArray);
         return null;
@@ -308,6 +327,25 @@ public class VariableInfo implements DeepCloneable, Serializable {
         return new byte[0];
     }
 
+    /**
+     * Copies the variable without going through serialization, the only mutable field is the byte array.
+     */
+    VariableInfo copy() {
+        VariableInfo v = new VariableInfo();
+        v.name = name;
+        v.alias = alias;
+        v.keyOffset = keyOffset;
+        v.valOffset = valOffset;
+        v.valSize = valSize;
+        v.valueString = valueString;
+        v.valueInteger = valueInteger;
+        v.valueFloat = valueFloat;
+        v.valueByteArray = valueByteArray != null ? valueByteArray.clone() : null;
+        v.variableType = variableType;
+        v.blockOffset = blockOffset;
+        return v;
+    }
+
     public static class Builder {
         private String builderName = null;
         private String builderAlias = null;
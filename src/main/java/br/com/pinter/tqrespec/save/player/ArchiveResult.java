@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
+
+import java.nio.file.Path;
+
+public class ArchiveResult {
+    private final PlayerCharacter playerCharacter;
+    private final Path target;
+    private final SaveLocation targetLocation;
+    private final Exception error;
+
+    ArchiveResult(PlayerCharacter playerCharacter, Path target, SaveLocation targetLocation, Exception error) {
+        this.playerCharacter = playerCharacter;
+        this.target = target;
+        this.targetLocation = targetLocation;
+        this.error = error;
+    }
+
+    public PlayerCharacter getPlayerCharacter() {
+        return playerCharacter;
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    public SaveLocation getTargetLocation() {
+        return targetLocation;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchiveResult{" +
+                "playerCharacter=" + playerCharacter.getName() +
+                ", target=" + target +
+                ", targetLocation=" + targetLocation +
+                ", error=" + error +
+                '}';
+    }
+}
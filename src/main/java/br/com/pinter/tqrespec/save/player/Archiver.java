@@ -4,24 +4,56 @@
 
 package br.com.pinter.tqrespec.save.player;
 
+import br.com.pinter.tqrespec.core.WorkerThread;
+import br.com.pinter.tqrespec.logging.Log;
 import br.com.pinter.tqrespec.save.SaveLocation;
 import br.com.pinter.tqrespec.tqdata.GameInfo;
 import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
 import com.google.inject.Inject;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Archiver {
+    private static final System.Logger logger = Log.getLogger(Archiver.class.getName());
+    private static final int MAX_CONCURRENT_MOVES = 4;
+
     @Inject
     private GameInfo gameInfo;
 
+    @Inject
+    private CharacterIndex characterIndex;
+
     public void archive(PlayerCharacter playerCharacter) throws IOException {
-        Path src = playerCharacter.getPath();
-        Path dst;
+        prepareArchiveDirectories();
+        move(playerCharacter.getPath(), archiveTarget(playerCharacter));
+    }
+
+    public void unarchive(PlayerCharacter playerCharacter) throws IOException {
+        move(playerCharacter.getPath(), unarchiveTarget(playerCharacter));
+    }
+
+    public List<ArchiveResult> archive(Collection<PlayerCharacter> playerCharacters) throws IOException {
+        prepareArchiveDirectories();
+        return moveAll(playerCharacters, false);
+    }
+
+    public List<ArchiveResult> unarchive(Collection<PlayerCharacter> playerCharacters) {
+        return moveAll(playerCharacters, true);
+    }
 
+    private void prepareArchiveDirectories() throws IOException {
         Path main = Paths.get(gameInfo.getSaveDataMainPath());
         Path mainArchive = Paths.get(gameInfo.getSaveDataMainArchivedPath());
         if(main.toFile().exists() && !mainArchive.toFile().exists()) {
@@ -33,38 +65,113 @@ public class Archiver {
         if(user.toFile().exists() && !userArchive.toFile().exists()) {
             Files.createDirectory(userArchive);
         }
+    }
 
-        if (SaveLocation.MAIN.equals(playerCharacter.getLocation())) {
-            dst = gameInfo.playerPath(playerCharacter.getName(), SaveLocation.ARCHIVEMAIN);
-        } else if (SaveLocation.USER.equals(playerCharacter.getLocation())) {
-            dst = gameInfo.playerPath(playerCharacter.getName(), SaveLocation.ARCHIVEUSER);
-        } else {
-            throw new IOException("Invalid savegame location");
-        }
+    private Path archiveTarget(PlayerCharacter playerCharacter) throws IOException {
+        Path src = playerCharacter.getPath();
+        Path dst = gameInfo.playerPath(playerCharacter.getName(), archiveLocation(playerCharacter.getLocation()));
 
         if(!dst.startsWith(src.getParent()) || !dst.startsWith(gameInfo.getSavePath())) {
             throw new IOException("Error archiving character, invalid path");
         }
-
-        Files.move(src, dst, StandardCopyOption.ATOMIC_MOVE);
+        return dst;
     }
 
-    public void unarchive(PlayerCharacter playerCharacter) throws IOException {
+    private Path unarchiveTarget(PlayerCharacter playerCharacter) throws IOException {
         Path src = playerCharacter.getPath();
-        Path dst;
-
-        if (SaveLocation.ARCHIVEMAIN.equals(playerCharacter.getLocation())) {
-            dst = gameInfo.playerPath(playerCharacter.getName(), SaveLocation.MAIN);
-        } else if (SaveLocation.ARCHIVEUSER.equals(playerCharacter.getLocation())) {
-            dst = gameInfo.playerPath(playerCharacter.getName(), SaveLocation.USER);
-        } else {
-            throw new IOException("Invalid savegame location");
-        }
+        Path dst = gameInfo.playerPath(playerCharacter.getName(), unarchiveLocation(playerCharacter.getLocation()));
 
         if(!src.startsWith(dst.getParent()) || !dst.startsWith(gameInfo.getSavePath())) {
             throw new IOException("Error unarchiving character, invalid path");
         }
+        return dst;
+    }
 
-        Files.move(src, dst, StandardCopyOption.ATOMIC_MOVE);
+    private SaveLocation archiveLocation(SaveLocation location) throws IOException {
+        if (SaveLocation.MAIN.equals(location)) {
+            return SaveLocation.ARCHIVEMAIN;
+        } else if (SaveLocation.USER.equals(location)) {
+            return SaveLocation.ARCHIVEUSER;
+        }
+        throw new IOException("Invalid savegame location");
+    }
+
+    private SaveLocation unarchiveLocation(SaveLocation location) throws IOException {
+        if (SaveLocation.ARCHIVEMAIN.equals(location)) {
+            return SaveLocation.MAIN;
+        } else if (SaveLocation.ARCHIVEUSER.equals(location)) {
+            return SaveLocation.USER;
+        }
+        throw new IOException("Invalid savegame location");
+    }
+
+    private List<ArchiveResult> moveAll(Collection<PlayerCharacter> playerCharacters, boolean undo) {
+        List<PlayerCharacter> characters = new ArrayList<>(playerCharacters);
+        Set<Path> targets = new HashSet<>();
+
+        //every target is checked before the first move, an invalid entry is reported and the others are still moved
+        Path[] validTargets = new Path[characters.size()];
+        ArchiveResult[] invalid = new ArchiveResult[characters.size()];
+        int valid = 0;
+        for (int i = 0; i < characters.size(); i++) {
+            PlayerCharacter pc = characters.get(i);
+            try {
+                Path dst = undo ? unarchiveTarget(pc) : archiveTarget(pc);
+                if (Files.exists(dst) || !targets.add(dst)) {
+                    throw new FileAlreadyExistsException(dst.toString());
+                }
+                validTargets[i] = dst;
+                valid++;
+            } catch (IOException e) {
+                logger.log(System.Logger.Level.ERROR, "Unable to move character ''{0}'': {1}", pc.getName(), e.getMessage());
+                invalid[i] = new ArchiveResult(pc, null, null, e);
+            }
+        }
+
+        ExecutorService executor = valid == 0 ? null : Executors.newFixedThreadPool(Math.min(valid, MAX_CONCURRENT_MOVES), r -> {
+            WorkerThread t = new WorkerThread(r);
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<CompletableFuture<ArchiveResult>> moves = new ArrayList<>();
+            for (int i = 0; i < characters.size(); i++) {
+                PlayerCharacter pc = characters.get(i);
+                Path dst = validTargets[i];
+                moves.add(dst == null ? CompletableFuture.completedFuture(invalid[i])
+                        : CompletableFuture.supplyAsync(() -> move(pc, dst, undo), executor));
+            }
+            //results in the same order of the characters received
+            List<ArchiveResult> results = new ArrayList<>();
+            moves.forEach(m -> results.add(m.join()));
+            return results;
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private ArchiveResult move(PlayerCharacter playerCharacter, Path dst, boolean undo) {
+        try {
+            SaveLocation targetLocation = undo ? unarchiveLocation(playerCharacter.getLocation())
+                    : archiveLocation(playerCharacter.getLocation());
+            move(playerCharacter.getPath(), dst);
+            return new ArchiveResult(playerCharacter, dst, targetLocation, null);
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.ERROR, "Unable to move character ''{0}'': {1}", playerCharacter.getName(), e.getMessage());
+            return new ArchiveResult(playerCharacter, null, null, e);
+        }
+    }
+
+    private void move(Path src, Path dst) throws IOException {
+        //the index holds a watch handle on the character directory, it is released while the directory moves
+        characterIndex.releaseCharacter(src);
+        try {
+            Files.move(src, dst, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            characterIndex.rewatchCharacter(src);
+            throw e;
+        }
     }
 }
@@ -0,0 +1,415 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.Settings;
+import br.com.pinter.tqrespec.core.WorkerThread;
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the backup directory bounded. Hourly backups are thinned to one per day and one per week, weekly survivors
+ * are merged into one compacted zip per character and month, and the oldest files are removed when the directory
+ * exceeds the configured size. Nothing is removed unless the user enabled the retention, in the misc tab or with
+ * the retention command of the command line.
+ */
+@Singleton
+public class BackupRetention {
+    private static final System.Logger logger = Log.getLogger(BackupRetention.class.getName());
+    private static final Pattern BACKUP_NAME = Pattern.compile("^(.+?)(-fullbackup)?_(\\d{8}_\\d{2}|\\d{6}-compacted)\\.zip$");
+    private static final DateTimeFormatter BACKUP_TS = DateTimeFormatter.ofPattern("yyyyMMdd_HH");
+    private static final DateTimeFormatter COMPACTED_TS = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String COMPACTED_SUFFIX = "-compacted";
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Inject
+    private GameInfo gameInfo;
+
+    enum Action {
+        KEEP,
+        COMPACT,
+        DELETE
+    }
+
+    public void runInBackground() {
+        if (!Settings.getBackupRetention() || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        WorkerThread thread = new WorkerThread(() -> {
+            try {
+                run();
+            } catch (IOException e) {
+                logger.log(System.Logger.Level.ERROR, "Error applying backup retention", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        thread.setName("BackupRetention");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Applies the retention configured in the settings now, on the calling thread.
+     */
+    public void run() throws IOException {
+        enforce(Policy.fromSettings(), LocalDateTime.now());
+    }
+
+    void enforce(Policy policy, LocalDateTime now) throws IOException {
+        String savePath = gameInfo.getSavePath();
+        if (StringUtils.isEmpty(savePath)) {
+            return;
+        }
+        Path backupDirectory = Paths.get(savePath, Constants.BACKUP_DIRECTORY);
+        if (!Files.isDirectory(backupDirectory)) {
+            return;
+        }
+
+        Map<Backup, Action> plan = plan(listBackups(backupDirectory), policy, now);
+
+        Map<Path, List<Backup>> compactTargets = new LinkedHashMap<>();
+        for (Map.Entry<Backup, Action> e : plan.entrySet()) {
+            Backup backup = e.getKey();
+            if (e.getValue() == Action.DELETE) {
+                logger.log(System.Logger.Level.DEBUG, "removing expired backup ''{0}''", backup.getPath());
+                Files.deleteIfExists(backup.getPath());
+            } else if (e.getValue() == Action.COMPACT) {
+                compactTargets.computeIfAbsent(backupDirectory.resolve(backup.compactedFileName()), k -> new ArrayList<>())
+                        .add(backup);
+            }
+        }
+
+        for (Map.Entry<Path, List<Backup>> e : compactTargets.entrySet()) {
+            compact(e.getKey(), e.getValue());
+        }
+
+        for (Backup backup : overBudget(listBackups(backupDirectory), policy)) {
+            logger.log(System.Logger.Level.DEBUG, "removing backup ''{0}'' to free space", backup.getPath());
+            Files.deleteIfExists(backup.getPath());
+        }
+    }
+
+    private List<Backup> listBackups(Path backupDirectory) throws IOException {
+        List<Backup> ret = new ArrayList<>();
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            for (Path p : files.collect(Collectors.toList())) {
+                if (!Files.isRegularFile(p)) {
+                    continue;
+                }
+                Backup backup = Backup.parse(p, Files.size(p));
+                if (backup != null) {
+                    if (backup.isCompacted()) {
+                        readCompactedDays(backup);
+                    }
+                    ret.add(backup);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private void readCompactedDays(Backup backup) {
+        try (FileSystem zipFs = FileSystems.newFileSystem(backup.getPath());
+             Stream<Path> dirs = Files.list(zipFs.getPath("/"))) {
+            for (Path dir : dirs.collect(Collectors.toList())) {
+                String name = StringUtils.strip(dir.getFileName().toString(), "/");
+                try {
+                    backup.getCompactedDays().add(LocalDateTime.parse(name, BACKUP_TS).toLocalDate());
+                } catch (DateTimeParseException ignored) {
+                    //not a merged backup
+                }
+            }
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to read compacted backup ''{0}''", backup.getPath());
+        }
+    }
+
+    private void compact(Path target, List<Backup> backups) throws IOException {
+        URI zipUri = URI.create("jar:" + target.toUri());
+        List<Backup> merged = new ArrayList<>();
+
+        try (FileSystem targetFs = FileSystems.newFileSystem(zipUri, Map.of("create", "true"))) {
+            for (Backup backup : backups) {
+                Path dir = targetFs.getPath("/", backup.getTimestamp().format(BACKUP_TS));
+                if (!Files.exists(dir)) {
+                    copyZipContents(backup.getPath(), dir);
+                }
+                merged.add(backup);
+            }
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.ERROR, "Error compacting backups into ''{0}''", target);
+            throw e;
+        }
+
+        // sources are only removed after the compacted zip was closed successfully
+        for (Backup backup : merged) {
+            Files.deleteIfExists(backup.getPath());
+        }
+        logger.log(System.Logger.Level.DEBUG, "compacted {0} backups into ''{1}''", merged.size(), target);
+    }
+
+    private void copyZipContents(Path sourceZip, Path targetDir) throws IOException {
+        try (FileSystem sourceFs = FileSystems.newFileSystem(sourceZip)) {
+            Path root = sourceFs.getPath("/");
+            Files.createDirectories(targetDir);
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(targetDir.resolve(root.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.copy(file, targetDir.resolve(root.relativize(file).toString()),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+
+    static Map<Backup, Action> plan(List<Backup> backups, Policy policy, LocalDateTime now) {
+        Map<Backup, Action> ret = new LinkedHashMap<>();
+        LocalDate today = now.toLocalDate();
+
+        for (List<Backup> group : groupNewestFirst(backups).values()) {
+            Set<LocalDate> days = new HashSet<>();
+            Set<Long> weeks = new HashSet<>();
+            int recent = 0;
+
+            //weeks already merged into a compacted zip are covered, another backup of them is not merged again
+            group.stream().filter(Backup::isCompacted)
+                    .flatMap(b -> b.getCompactedDays().stream())
+                    .forEach(d -> weeks.add(weekKey(d)));
+
+            for (Backup backup : group) {
+                LocalDate day = backup.getTimestamp().toLocalDate();
+                long age = ChronoUnit.DAYS.between(day, today);
+                long week = weekKey(day);
+
+                if (backup.isCompacted()) {
+                    YearMonth month = YearMonth.from(day);
+                    boolean expired = policy.getKeepWeeklyWeeks() > 0
+                            && month.atEndOfMonth().isBefore(today.minusWeeks(policy.getKeepWeeklyWeeks()));
+                    ret.put(backup, expired ? Action.DELETE : Action.KEEP);
+                    continue;
+                }
+
+                Action action;
+                if (recent < policy.getKeepRecent()) {
+                    recent++;
+                    action = Action.KEEP;
+                } else if (age < policy.getKeepDailyDays() && !days.contains(day)) {
+                    action = Action.KEEP;
+                } else if (age < policy.getKeepWeeklyWeeks() * 7L && !weeks.contains(week)) {
+                    action = Action.COMPACT;
+                } else {
+                    action = Action.DELETE;
+                }
+
+                if (action != Action.DELETE) {
+                    days.add(day);
+                    weeks.add(week);
+                }
+                ret.put(backup, action);
+            }
+        }
+        return ret;
+    }
+
+    static List<Backup> overBudget(List<Backup> backups, Policy policy) {
+        if (policy.getMaxSizeBytes() <= 0) {
+            return Collections.emptyList();
+        }
+
+        Set<Backup> protectedBackups = new HashSet<>();
+        for (List<Backup> group : groupNewestFirst(backups).values()) {
+            group.stream().filter(b -> !b.isCompacted()).limit(policy.getKeepRecent()).forEach(protectedBackups::add);
+        }
+
+        long total = backups.stream().mapToLong(Backup::getSize).sum();
+        List<Backup> ret = new ArrayList<>();
+        List<Backup> oldestFirst = backups.stream()
+                .filter(b -> !protectedBackups.contains(b))
+                .sorted(Comparator.comparing(Backup::getTimestamp))
+                .collect(Collectors.toList());
+        for (Backup backup : oldestFirst) {
+            if (total <= policy.getMaxSizeBytes()) {
+                break;
+            }
+            total -= backup.getSize();
+            ret.add(backup);
+        }
+        return ret;
+    }
+
+    private static Map<String, List<Backup>> groupNewestFirst(List<Backup> backups) {
+        Map<String, List<Backup>> groups = new LinkedHashMap<>();
+        backups.stream()
+                .sorted(Comparator.comparing(Backup::getTimestamp).reversed())
+                .forEach(b -> groups.computeIfAbsent(b.groupKey(), k -> new ArrayList<>()).add(b));
+        return groups;
+    }
+
+    private static long weekKey(LocalDate day) {
+        return day.get(IsoFields.WEEK_BASED_YEAR) * 100L + day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    }
+
+    static class Policy {
+        private final int keepRecent;
+        private final int keepDailyDays;
+        private final int keepWeeklyWeeks;
+        private final long maxSizeBytes;
+
+        Policy(int keepRecent, int keepDailyDays, int keepWeeklyWeeks, long maxSizeBytes) {
+            this.keepRecent = Math.max(keepRecent, 0);
+            this.keepDailyDays = Math.max(keepDailyDays, 0);
+            this.keepWeeklyWeeks = Math.max(keepWeeklyWeeks, 0);
+            this.maxSizeBytes = maxSizeBytes;
+        }
+
+        static Policy fromSettings() {
+            return new Policy(Settings.getBackupKeepRecent(),
+                    Settings.getBackupKeepDailyDays(),
+                    Settings.getBackupKeepWeeklyWeeks(),
+                    Settings.getBackupMaxSizeMb() * 1024L * 1024L);
+        }
+
+        int getKeepRecent() {
+            return keepRecent;
+        }
+
+        int getKeepDailyDays() {
+            return keepDailyDays;
+        }
+
+        int getKeepWeeklyWeeks() {
+            return keepWeeklyWeeks;
+        }
+
+        long getMaxSizeBytes() {
+            return maxSizeBytes;
+        }
+    }
+
+    static class Backup {
+        private final Path path;
+        private final String playerName;
+        private final boolean fullBackup;
+        private final boolean compacted;
+        private final LocalDateTime timestamp;
+        private final long size;
+        private final Set<LocalDate> compactedDays = new HashSet<>();
+
+        Backup(Path path, String playerName, boolean fullBackup, boolean compacted, LocalDateTime timestamp, long size) {
+            this.path = path;
+            this.playerName = playerName;
+            this.fullBackup = fullBackup;
+            this.compacted = compacted;
+            this.timestamp = timestamp;
+            this.size = size;
+        }
+
+        static Backup parse(Path path, long size) {
+            Matcher matcher = BACKUP_NAME.matcher(path.getFileName().toString());
+            if (!matcher.matches()) {
+                return null;
+            }
+            String ts = matcher.group(3);
+            boolean compacted = ts.endsWith(COMPACTED_SUFFIX);
+            try {
+                LocalDateTime timestamp = compacted
+                        ? YearMonth.parse(ts.substring(0, ts.length() - COMPACTED_SUFFIX.length()), COMPACTED_TS).atDay(1).atStartOfDay()
+                        : LocalDateTime.parse(ts, BACKUP_TS);
+                return new Backup(path, matcher.group(1), matcher.group(2) != null, compacted, timestamp, size);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+
+        String groupKey() {
+            return playerName + (fullBackup ? "-fullbackup" : "");
+        }
+
+        String compactedFileName() {
+            return String.format("%s_%s%s.zip", groupKey(), timestamp.format(COMPACTED_TS), COMPACTED_SUFFIX);
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        String getPlayerName() {
+            return playerName;
+        }
+
+        boolean isFullBackup() {
+            return fullBackup;
+        }
+
+        boolean isCompacted() {
+            return compacted;
+        }
+
+        LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        /**
+         * @return days of the backups merged into a compacted zip
+         */
+        Set<LocalDate> getCompactedDays() {
+            return compactedDays;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return path.equals(((Backup) o).path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return path.getFileName().toString();
+        }
+    }
+}
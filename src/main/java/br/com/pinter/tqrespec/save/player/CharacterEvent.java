@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.tqdata.PlayerCharacterFile;
+
+import java.nio.file.Path;
+
+public class CharacterEvent {
+    public enum Type {
+        ADDED,
+        REMOVED,
+        MODIFIED
+    }
+
+    private final Type type;
+    private final PlayerCharacterFile character;
+    private final Path path;
+
+    CharacterEvent(Type type, PlayerCharacterFile character, Path path) {
+        this.type = type;
+        this.character = character;
+        this.path = path;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public PlayerCharacterFile getCharacter() {
+        return character;
+    }
+
+    /**
+     * @return the character directory
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (%s)", type, character, path);
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.core.WorkerThread;
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacterFile;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * In-memory index of the character directories found in every {@link SaveLocation}. The save directories are scanned
+ * once and then kept current by a {@link WatchService}; listeners receive an event for each character added, removed
+ * or modified. The location directories are watched for characters added and removed, and every character directory
+ * is watched too, since rewriting Player.chr in place doesn't change the directory holding it. A watched directory
+ * holds an open handle, that can make Windows refuse to move it, so code moving a character directory releases it
+ * first with {@link #releaseCharacter(Path)}.
+ */
+@Singleton
+public class CharacterIndex {
+    private static final System.Logger logger = Log.getLogger(CharacterIndex.class.getName());
+    private static final long COALESCE_DELAY_MS = 250;
+
+    private final Map<Path, PlayerCharacterFile> characters = new ConcurrentHashMap<>();
+    private final Map<WatchKey, SaveLocation> watchKeys = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> characterKeys = new ConcurrentHashMap<>();
+    private final List<Consumer<CharacterEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean watching = false;
+    private WatchService watchService;
+
+    @Inject
+    private GameInfo gameInfo;
+
+    public void addListener(Consumer<CharacterEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<CharacterEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Scans the save directories and starts watching them. Until this method is called, or if the platform can't
+     * provide a watch service, the characters are listed from disk on every request.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to watch save directories, falling back to scanning", e);
+            return;
+        }
+
+        for (SaveLocation location : SaveLocation.values()) {
+            register(location);
+        }
+        watching = true;
+
+        WorkerThread thread = new WorkerThread(this::watch);
+        thread.setName("CharacterIndex");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public List<PlayerCharacterFile> getCharacters() {
+        return getCharacters(SaveLocation.MAIN, SaveLocation.USER, SaveLocation.ARCHIVEMAIN,
+                SaveLocation.ARCHIVEUSER, SaveLocation.EXTERNAL);
+    }
+
+    public List<PlayerCharacterFile> getCharacters(SaveLocation... locations) {
+        if (!watching) {
+            return gameInfo.getPlayerCharacterList(locations);
+        }
+
+        List<SaveLocation> wanted = Arrays.asList(locations);
+        return characters.values().stream()
+                .filter(c -> wanted.contains(c.getLocation()))
+                .sorted(Comparator.comparing((PlayerCharacterFile c) -> wanted.indexOf(c.getLocation()))
+                        .thenComparing(PlayerCharacterFile::getPlayerName))
+                .collect(Collectors.toList());
+    }
+
+    private Path locationDirectory(SaveLocation location) {
+        String path = gameInfo.locationPath(location);
+        if (path == null) {
+            return null;
+        }
+        return Paths.get(path).toAbsolutePath();
+    }
+
+    private boolean isRegistered(SaveLocation location) {
+        return watchKeys.values().stream().anyMatch(location::equals);
+    }
+
+    private void register(SaveLocation location) {
+        Path directory = locationDirectory(location);
+        if (directory == null || !Files.isDirectory(directory) || isRegistered(location)) {
+            return;
+        }
+
+        try {
+            watchKeys.put(directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), location);
+            logger.log(System.Logger.Level.DEBUG, "watching ''{0}''", directory);
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to watch ''{0}''", directory);
+            return;
+        }
+
+        for (Path characterDirectory : listCharacterDirectories(directory)) {
+            changed(characterDirectory, location);
+        }
+    }
+
+    private List<Path> listCharacterDirectories(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(this::isCharacterDirectory).collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to list ''{0}''", directory);
+            return Collections.emptyList();
+        }
+    }
+
+    private boolean isCharacterDirectory(Path path) {
+        return path.getFileName().toString().startsWith("_") && Files.isDirectory(path);
+    }
+
+    private void watch() {
+        while (true) {
+            try {
+                WatchKey key = watchService.take();
+                //the game touches the save several times in a row, wait a bit and handle them together
+                Thread.sleep(COALESCE_DELAY_MS);
+                Set<WatchKey> keys = new LinkedHashSet<>();
+                keys.add(key);
+                WatchKey next;
+                while ((next = watchService.poll(0, TimeUnit.MILLISECONDS)) != null) {
+                    keys.add(next);
+                }
+                //a save changed is seen by the key of its directory and by the key of the location
+                Map<Path, SaveLocation> changes = new LinkedHashMap<>();
+                keys.forEach(k -> process(k, changes));
+                changes.forEach(this::changed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ClosedWatchServiceException e) {
+                break;
+            } catch (RuntimeException e) {
+                logger.log(System.Logger.Level.ERROR, "Error processing save directory events", e);
+            }
+        }
+        watching = false;
+    }
+
+    private void process(WatchKey key, Map<Path, SaveLocation> changes) {
+        Path directory = (Path) key.watchable();
+        if (key.equals(characterKeys.get(directory))) {
+            processCharacter(key, directory, changes);
+            return;
+        }
+
+        SaveLocation location = watchKeys.get(key);
+        Set<Path> touched = new LinkedHashSet<>();
+        boolean overflow = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else {
+                touched.add(directory.resolve((Path) event.context()));
+            }
+        }
+
+        if (location == null) {
+            key.cancel();
+            return;
+        }
+
+        if (overflow) {
+            touched.addAll(listCharacterDirectories(directory));
+            characters.entrySet().stream()
+                    .filter(e -> e.getValue().getLocation() == location)
+                    .forEach(e -> touched.add(e.getKey()));
+        }
+
+        for (Path path : touched) {
+            if (path.getFileName().toString().startsWith("_")) {
+                changes.put(path.toAbsolutePath(), location);
+            } else {
+                //archive directories are created on the first archive
+                Arrays.stream(SaveLocation.values())
+                        .filter(l -> path.equals(locationDirectory(l)))
+                        .forEach(this::register);
+            }
+        }
+
+        if (!key.reset()) {
+            watchKeys.remove(key);
+            //the save directory may have moved, resolve it again on the next request
+            gameInfo.invalidateSaveLocations();
+            logger.log(System.Logger.Level.DEBUG, "stopped watching ''{0}''", directory);
+            new ArrayList<>(characters.keySet()).stream()
+                    .filter(p -> p.startsWith(directory))
+                    .forEach(p -> changes.put(p, location));
+        }
+    }
+
+    private void processCharacter(WatchKey key, Path characterDirectory, Map<Path, SaveLocation> changes) {
+        //any file written in the character directory is a change of the save
+        key.pollEvents();
+        if (!key.reset()) {
+            characterKeys.remove(characterDirectory, key);
+        }
+        PlayerCharacterFile character = characters.get(characterDirectory);
+        if (character != null) {
+            changes.put(characterDirectory, character.getLocation());
+        }
+    }
+
+    private void watchCharacter(Path characterDirectory) {
+        try {
+            characterKeys.put(characterDirectory,
+                    characterDirectory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to watch ''{0}''", characterDirectory);
+        }
+    }
+
+    /**
+     * Stops watching a character directory that is about to be moved. The character is watched again when it shows up
+     * in the target location, or by {@link #rewatchCharacter(Path)} if the move fails.
+     *
+     * @param characterDirectory the directory of the character
+     */
+    public void releaseCharacter(Path characterDirectory) {
+        unwatchCharacter(characterDirectory.toAbsolutePath());
+    }
+
+    /**
+     * Watches again a character directory released by {@link #releaseCharacter(Path)} that was not moved.
+     *
+     * @param characterDirectory the directory of the character
+     */
+    public void rewatchCharacter(Path characterDirectory) {
+        Path path = characterDirectory.toAbsolutePath();
+        if (watching && characters.containsKey(path) && !characterKeys.containsKey(path)) {
+            watchCharacter(path);
+        }
+    }
+
+    private void unwatchCharacter(Path characterDirectory) {
+        WatchKey key = characterKeys.remove(characterDirectory);
+        if (key != null) {
+            key.cancel();
+        }
+    }
+
+    private void changed(Path characterDirectory, SaveLocation location) {
+        Path path = characterDirectory.toAbsolutePath();
+        if (isCharacterDirectory(path)) {
+            PlayerCharacterFile character = new PlayerCharacterFile(
+                    path.getFileName().toString().replaceAll("^_", ""), location);
+            if (characters.put(path, character) == null) {
+                watchCharacter(path);
+                fire(new CharacterEvent(CharacterEvent.Type.ADDED, character, path));
+            } else {
+                fire(new CharacterEvent(CharacterEvent.Type.MODIFIED, character, path));
+            }
+        } else {
+            PlayerCharacterFile character = characters.remove(path);
+            unwatchCharacter(path);
+            if (character != null) {
+                fire(new CharacterEvent(CharacterEvent.Type.REMOVED, character, path));
+            }
+        }
+    }
+
+    private void fire(CharacterEvent event) {
+        if (!watching) {
+            //initial scan
+            return;
+        }
+        logger.log(System.Logger.Level.DEBUG, "character event: {0}", event);
+        for (Consumer<CharacterEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.log(System.Logger.Level.ERROR, "Error notifying character event", e);
+            }
+        }
+    }
+}
@@ -22,20 +22,73 @@ package br.com.pinter.tqrespec.save.player;
 
 import br.com.pinter.tqrespec.save.FileDataHolder;
 import br.com.pinter.tqrespec.save.FileDataMap;
+import br.com.pinter.tqrespec.save.FileDataMapListener;
 import br.com.pinter.tqrespec.save.Platform;
 import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.save.VariableInfo;
+import br.com.pinter.tqrespec.util.Constants;
 import com.google.inject.Singleton;
 
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Singleton
 public class CurrentPlayerData implements FileDataHolder {
     private final Map<String, PlayerSkill> playerSkills = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final SkillGraph skillGraph = new SkillGraph();
+    private final Map<Integer, String> skillBlocks = new ConcurrentHashMap<>();
+    private final AtomicBoolean skillsStale = new AtomicBoolean(true);
+    private final FileDataMapListener skillIndexUpdater = new FileDataMapListener() {
+        @Override
+        public void blockRemoved(int blockStart) {
+            String path = skillBlocks.remove(blockStart);
+            PlayerSkill sb = path != null ? playerSkills.get(path) : null;
+            if (sb == null || sb.getBlockStart() != blockStart) {
+                //the skill is indexed by another block with the same path, that one is still in the save
+                return;
+            }
+            if (skillBlocks.containsValue(path)) {
+                //the index only knows the removed block of this path, the surviving one needs a rescan
+                skillsStale.set(true);
+                return;
+            }
+            playerSkills.remove(path);
+            skillGraph.remove(path);
+        }
+
+        @Override
+        public void intChanged(int blockStart, String variable, int value) {
+            if (!Constants.Save.SKILL_LEVEL.equals(variable)) {
+                return;
+            }
+            String path = skillBlocks.get(blockStart);
+            PlayerSkill sb = path != null ? playerSkills.get(path) : null;
+            if (sb != null && sb.getBlockStart() == blockStart) {
+                sb.setSkillLevel(value);
+            }
+        }
+
+        @Override
+        public void variableInserted(VariableInfo variable) {
+            if (Constants.Save.SKILL_NAME.equals(variable.getName())) {
+                //a new skill block, the index can't tell where it belongs without a rescan
+                skillsStale.set(true);
+            }
+        }
+
+        @Override
+        public void changesReverted() {
+            skillsStale.set(true);
+        }
+    };
+    private final List<FileDataMapListener> dataMapListeners = new CopyOnWriteArrayList<>(List.of(skillIndexUpdater));
     private final AtomicBoolean missingSkills = new AtomicBoolean(false);
     private String playerName = null;
     private Path playerChr = null;
@@ -44,6 +97,19 @@ public class CurrentPlayerData implements FileDataHolder {
     private ByteBuffer buffer = null;
     private SaveLocation location;
 
+    public CurrentPlayerData() {
+        dataMap.addListener(skillIndexUpdater);
+    }
+
+    /**
+     * Registers a listener on the data map of the character, it is carried over to the data map of the characters
+     * loaded afterwards.
+     */
+    public void addDataMapListener(FileDataMapListener listener) {
+        dataMapListeners.add(listener);
+        dataMap.addListener(listener);
+    }
+
     @Override
     public String getPlayerName() {
         return playerName;
@@ -81,6 +147,31 @@ public class CurrentPlayerData implements FileDataHolder {
         return playerSkills;
     }
 
+    SkillGraph getSkillGraph() {
+        return skillGraph;
+    }
+
+    /**
+     * Adds a skill to the index kept current by the changes made to the save.
+     */
+    void indexSkill(String path, PlayerSkill playerSkill) {
+        skillBlocks.put(playerSkill.getBlockStart(), path);
+        playerSkills.put(path, playerSkill);
+    }
+
+    void clearSkills() {
+        skillBlocks.clear();
+        playerSkills.clear();
+    }
+
+    boolean isSkillsStale() {
+        return skillsStale.get();
+    }
+
+    void setSkillsStale(boolean stale) {
+        skillsStale.set(stale);
+    }
+
     Path getPlayerChr() {
         return playerChr;
     }
@@ -143,9 +234,13 @@ public class CurrentPlayerData implements FileDataHolder {
         this.buffer = null;
         this.headerInfo = new HeaderInfo();
         this.dataMap = new FileDataMap();
+        dataMapListeners.forEach(this.dataMap::addListener);
         this.playerName = null;
         this.location = SaveLocation.MAIN;
         this.playerSkills.clear();
+        this.skillBlocks.clear();
+        this.skillsStale.set(true);
+        this.skillGraph.clear();
         this.missingSkills.set(false);
     }
 
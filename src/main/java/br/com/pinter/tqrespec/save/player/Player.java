@@ -23,7 +23,6 @@ package br.com.pinter.tqrespec.save.player;
 import br.com.pinter.tqdatabase.Database;
 import br.com.pinter.tqdatabase.models.Pc;
 import br.com.pinter.tqdatabase.models.Skill;
-import br.com.pinter.tqdatabase.models.Teleport;
 import br.com.pinter.tqrespec.core.State;
 import br.com.pinter.tqrespec.core.UnhandledRuntimeException;
 import br.com.pinter.tqrespec.logging.Log;
@@ -36,6 +35,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -49,12 +49,17 @@ public class Player {
     @Inject
     private Db db;
 
+    @Inject
+    private TeleportRegistry teleportRegistry;
+
     @Inject
     private Txt txt;
 
     @Inject
     private CurrentPlayerData saveData;
 
+    private final Map<Platform, DataProjection<PlayerCharacter>> characterProjections = new ConcurrentHashMap<>();
+
     public CurrentPlayerData getSaveData() {
         return saveData;
     }
@@ -64,18 +69,69 @@ public class Player {
     }
 
     public boolean loadPlayer(String playerName, SaveLocation saveLocation) {
+        return parsePlayer(playerName, saveLocation) && resolveSkills();
+    }
+
+    /**
+     * Reads the save like {@link #loadPlayer(String, SaveLocation)}, but doesn't touch the game database. Loaders
+     * running on several threads parse in parallel and call {@link #resolveSkills()} holding
+     * {@link Db#getAccessLock()}.
+     *
+     * @return true if the save was parsed
+     */
+    boolean parsePlayer(String playerName, SaveLocation saveLocation) {
         if (State.get().getSaveInProgress() != null && State.get().getSaveInProgress()) {
             return false;
         }
 
+        return parse(playerName, saveLocation, null);
+    }
+
+    /**
+     * Loads a save from any directory, like the archived characters kept outside the game save path. The character
+     * name is taken from the directory name. Unlike {@link #loadPlayer(String, SaveLocation)}, the save is read even
+     * while another one is being written, callers writing saves in batch serialize their own writes.
+     *
+     * @param playerDir directory holding the Player.chr
+     * @return true if the save was loaded
+     */
+    public boolean loadPlayer(Path playerDir) {
+        return parsePlayer(playerDir) && resolveSkills();
+    }
+
+    /**
+     * Reads the save like {@link #loadPlayer(Path)}, see {@link #parsePlayer(String, SaveLocation)}.
+     */
+    boolean parsePlayer(Path playerDir) {
+        String playerName = playerDir.getFileName().toString().replaceFirst("^_", "");
+        return parse(playerName, null, playerDir.resolve(Constants.PLAYERCHR));
+    }
+
+    /**
+     * Second half of the load, checks the skills of the save parsed against the game database.
+     *
+     * @return true if the skills were resolved
+     */
+    boolean resolveSkills() {
+        try {
+            prepareSkillsList();
+        } catch (RuntimeException e) {
+            throw loadFailed(e);
+        }
+        return true;
+    }
+
+    private boolean parse(String playerName, SaveLocation saveLocation, Path playerChr) {
         try {
             prepareSaveData();
 
-            Path playerChrPath;
+            Path playerChrPath = playerChr;
 
             getSaveData().setPlayerName(playerName);
             getSaveData().setLocation(saveLocation);
-            playerChrPath = gameInfo.playerChr(playerName, saveLocation);
+            if (playerChrPath == null) {
+                playerChrPath = gameInfo.playerChr(playerName, saveLocation);
+            }
 
             logger.log(System.Logger.Level.INFO, "Loading character ''{0}''", playerChrPath);
 
@@ -90,50 +146,27 @@ public class Player {
             getSaveData().getDataMap().setBlockInfo(playerParser.getBlockInfo());
             getSaveData().setHeaderInfo(playerParser.getHeaderInfo());
             getSaveData().getDataMap().setVariableLocation(playerParser.getVariableLocation());
-            saveData.getDataMap().validate();
-            prepareSkillsList();
+            getSaveData().getDataMap().validate();
         } catch (RuntimeException e) {
-            reset();
-            logger.log(System.Logger.Level.ERROR, "Error loading character", e);
-            throw new UnhandledRuntimeException("Error loading character", e);
+            throw loadFailed(e);
         }
         return true;
     }
 
+    private UnhandledRuntimeException loadFailed(RuntimeException e) {
+        reset();
+        logger.log(System.Logger.Level.ERROR, "Error loading character", e);
+        return new UnhandledRuntimeException("Error loading character", e);
+    }
+
     public PlayerCharacter getCharacter() {
         PlayerCharacter playerCharacter = new PlayerCharacter();
         playerCharacter.setPath(getSaveData().getPlayerPath());
         playerCharacter.setLocation(getSaveData().getLocation());
         playerCharacter.setGender(getGender());
         playerCharacter.setCharacterClass(getPlayerClassName());
-        playerCharacter.setDifficulty(getDifficulty());
-        playerCharacter.setExperience(getXp());
-        playerCharacter.setGold(getMoney());
-        playerCharacter.setLevel(getLevel());
-        playerCharacter.setName(getCharacterName());
-        playerCharacter.setStatAvailableAttrPoints(getModifierPoints());
-        playerCharacter.setStatDex(getDex());
-        playerCharacter.setStatInt(getInt());
-        playerCharacter.setStatStr(getStr());
-        playerCharacter.setStatLife(getLife());
-        playerCharacter.setStatMana(getMana());
         playerCharacter.setMasteries(new ArrayList<>());
-        playerCharacter.setStatAvailableSkillPoints(getAvailableSkillPoints());
-        playerCharacter.setPlayTimeInSeconds(getStatPlayTimeInSeconds());
-        playerCharacter.setGreatestMonsterKilledName(getStatGreatestMonsterKilledName());
-        playerCharacter.setNumberOfDeaths(getStatNumberOfDeaths());
-        playerCharacter.setNumberOfKills(getStatNumberOfKills());
-        playerCharacter.setExperienceFromKills(getStatExperienceFromKills());
-        playerCharacter.setHealthPotionsUsed(getStatHealthPotionsUsed());
-        playerCharacter.setManaPotionsUsed(getStatManaPotionsUsed());
-        playerCharacter.setNumHitsInflicted(getStatNumHitsInflicted());
-        playerCharacter.setNumHitsReceived(getStatNumHitsReceived());
-        playerCharacter.setGreatestDamageInflicted(getStatGreatestDamageInflicted());
-        playerCharacter.setGreatestMonsterKilledLevel(getStatGreatestMonsterKilledLevel());
-        playerCharacter.setCriticalHitsInflicted(getStatCriticalHitsInflicted());
-        playerCharacter.getDefaultMapTeleports().put(0, getDefaultMapTeleports(0));
-        playerCharacter.getDefaultMapTeleports().put(1, getDefaultMapTeleports(1));
-        playerCharacter.getDefaultMapTeleports().put(2, getDefaultMapTeleports(2));
+        characterProjection(getSaveData().getPlatform()).apply(getSaveData().getDataMap(), playerCharacter);
 
         List<Skill> playerMasteries = getPlayerMasteries();
         Map<String, PlayerSkill> playerSkills = getPlayerSkills();
@@ -158,8 +191,52 @@ public class Player {
         return playerCharacter;
     }
 
+    /**
+     * Fields of the {@link PlayerCharacter} read from the save, see {@link #getCharacter()}.
+     */
+    DataProjection<PlayerCharacter> characterProjection(Platform platform) {
+        return characterProjections.computeIfAbsent(platform, p -> DataProjection.<PlayerCharacter>builder()
+                .tempAttr("difficulty", PlayerCharacter::setDifficulty)
+                .intField("currentStats.experiencePoints", PlayerCharacter::setExperience)
+                .intField("money", PlayerCharacter::setGold)
+                .intField("currentStats.charLevel", PlayerCharacter::setLevel)
+                .stringField("myPlayerName", PlayerCharacter::setName)
+                .intField("modifierPoints", PlayerCharacter::setStatAvailableAttrPoints)
+                .tempAttr("dex", PlayerCharacter::setStatDex)
+                .tempAttr("int", PlayerCharacter::setStatInt)
+                .tempAttr("str", PlayerCharacter::setStatStr)
+                .tempAttr("life", PlayerCharacter::setStatLife)
+                .tempAttr("mana", PlayerCharacter::setStatMana)
+                .intField(Constants.Save.SKILL_POINTS, PlayerCharacter::setStatAvailableSkillPoints)
+                .intField("playTimeInSeconds", PlayerCharacter::setPlayTimeInSeconds)
+                .stringValues(PlayerFileVariable.valueOf(p, "greatestMonsterKilledName").var(),
+                        (pc, v) -> pc.setGreatestMonsterKilledName(lastGreatestMonsterName(v)))
+                .intField("numberOfDeaths", PlayerCharacter::setNumberOfDeaths)
+                .intField("numberOfKills", PlayerCharacter::setNumberOfKills)
+                .intField("experienceFromKills", PlayerCharacter::setExperienceFromKills)
+                .intField("healthPotionsUsed", PlayerCharacter::setHealthPotionsUsed)
+                .intField("manaPotionsUsed", PlayerCharacter::setManaPotionsUsed)
+                .intField("numHitsInflicted", PlayerCharacter::setNumHitsInflicted)
+                .intField("numHitsReceived", PlayerCharacter::setNumHitsReceived)
+                .floatField("greatestDamageInflicted", (pc, v) -> pc.setGreatestDamageInflicted(v.intValue()))
+                .intValues(PlayerFileVariable.valueOf(p, "greatestMonsterKilledLevel").var(),
+                        (pc, v) -> pc.setGreatestMonsterKilledLevel(lastGreatestMonsterLevel(v)))
+                .intField("criticalHitsInflicted", PlayerCharacter::setCriticalHitsInflicted)
+                .block(Constants.Save.VAR_TELEPORTUIDSSIZE, (pc, block) -> {
+                    for (int difficulty = 0; difficulty <= 2; difficulty++) {
+                        List<MapTeleport> teleports = new ArrayList<>();
+                        if (block != null && difficulty <= pc.getDifficulty()) {
+                            teleports = resolveTeleports(teleportsOfDifficulty(block, difficulty));
+                        }
+                        pc.getDefaultMapTeleports().put(difficulty, teleports);
+                    }
+                })
+                .build());
+    }
+
     private void prepareSkillsList() {
-        getSaveData().getPlayerSkills().clear();
+        getSaveData().clearSkills();
+        List<PlayerSkill> skills = new ArrayList<>();
         for (String v : getSaveData().getDataMap().getVariableLocation().keySet()) {
             if (!v.startsWith(Database.Variables.PREFIX_SKILL_NAME)) {
                 continue;
@@ -183,19 +260,25 @@ public class Player {
                 sb.setSkillLevel(getVariableValueInteger(b.getStart(), Constants.Save.SKILL_LEVEL));
                 sb.setBlockStart(b.getStart());
                 if (sb.getSkillName() != null) {
-                    if (!db.recordExists(sb.getSkillName())) {
-                        logger.log(System.Logger.Level.WARNING, "The character \"{0}\" have the skill \"{1}\", but this" +
-                                " skill was not found in the game database. Please check if the game installed is compatible" +
-                                " with your save game.", getPlayerSavegameName(), sb.getSkillName());
-                        getSaveData().setMissingSkills(true);
-                    }
-                    synchronized (getSaveData().getPlayerSkills()) {
-                        getSaveData().getPlayerSkills().put(Objects.requireNonNull(Database.normalizeRecordPath(sb.getSkillName())),
-                                sb);
-                    }
+                    skills.add(sb);
                 }
             }
         }
+
+        Map<String, Boolean> recordsFound = db.recordsExist(skills.stream().map(PlayerSkill::getSkillName).collect(Collectors.toList()));
+        for (PlayerSkill sb : skills) {
+            if (!Boolean.TRUE.equals(recordsFound.get(sb.getSkillName()))) {
+                logger.log(System.Logger.Level.WARNING, "The character \"{0}\" have the skill \"{1}\", but this" +
+                        " skill was not found in the game database. Please check if the game installed is compatible" +
+                        " with your save game.", getPlayerSavegameName(), sb.getSkillName());
+                getSaveData().setMissingSkills(true);
+            }
+            synchronized (getSaveData().getPlayerSkills()) {
+                getSaveData().indexSkill(Objects.requireNonNull(Database.normalizeRecordPath(sb.getSkillName())), sb);
+            }
+        }
+        getSaveData().getSkillGraph().update(getSaveData().getPlayerSkills(), db.skills()::getSkill);
+        getSaveData().setSkillsStale(false);
     }
 
     public boolean isMissingSkills() {
@@ -229,17 +312,12 @@ public class Player {
         return getVariableValueInteger(statsBlock.getStart(), Constants.Save.SKILL_POINTS);
     }
 
+    /**
+     * @return the skills of the character. Removals and level changes made through the data map update it in place,
+     * the save is scanned again only after a skill block is inserted.
+     */
     public Map<String, PlayerSkill> getPlayerSkills() {
-        boolean update = false;
-
-        for (PlayerSkill b : getSaveData().getPlayerSkills().values()) {
-            if (getSaveData().getDataMap().isRemoved(b.getBlockStart())) {
-                //new block size is zero, was removed, ignore
-                update = true;
-            }
-        }
-
-        if (getSaveData().getPlayerSkills().isEmpty() || update) {
+        if (getSaveData().isSkillsStale()) {
             prepareSkillsList();
         }
 
@@ -248,7 +326,7 @@ public class Player {
 
     public int getMasteryLevel(PlayerSkill sb) {
         int blockStart = sb.getBlockStart();
-        Skill mastery = db.skills().getSkill(sb.getSkillName(), false);
+        Skill mastery = resolveSkill(sb);
         if (!mastery.isMastery()) {
             throw new IllegalStateException("Error loading mastery. Skill detected.");
         }
@@ -261,9 +339,111 @@ public class Player {
         return -1;
     }
 
+    /**
+     * Computes the refunds and block removals of a respec in one pass over the skills of the character, without
+     * changing it.
+     *
+     * @param respec what to reset
+     * @return the changes the respec would make
+     */
+    public Respec.Plan previewRespec(Respec respec) {
+        Respec.Plan plan = new Respec.Plan();
+        SkillGraph skillGraph = getSkillGraph();
+
+        for (Skill mastery : skillGraph.getMasteries()) {
+            List<SkillGraph.Node> skills = skillGraph.getSkills(mastery);
+            if (respec.isSkills()) {
+                for (SkillGraph.Node node : skills) {
+                    plan.skillPointsRefund += node.getLevel();
+                    plan.removedBlocks.add(node.getPlayerSkill().getBlockStart());
+                    plan.add(new Respec.Change(Respec.Change.Kind.SKILL_REMOVED, node.getSkill().getRecordPath(), node.getLevel(), 0));
+                }
+            }
+
+            SkillGraph.Node masteryNode = skillGraph.getNode(mastery.getRecordPath());
+            int level = masteryNode.getLevel();
+            if (respec.getMasteries() == Respec.Masteries.REMOVE) {
+                if (!respec.isSkills() && !skills.isEmpty()) {
+                    throw new IllegalStateException("Mastery have skills, aborting.");
+                }
+                if (level > 0) {
+                    plan.skillPointsRefund += level;
+                    plan.removedBlocks.add(masteryNode.getPlayerSkill().getBlockStart());
+                    plan.add(new Respec.Change(Respec.Change.Kind.MASTERY_REMOVED, mastery.getRecordPath(), level, 0));
+                }
+            } else if (respec.getMasteries() == Respec.Masteries.RECLAIM && level > 1) {
+                plan.skillPointsRefund += level - 1;
+                plan.reclaimedMasteryBlocks.add(masteryNode.getPlayerSkill().getBlockStart());
+                plan.add(new Respec.Change(Respec.Change.Kind.MASTERY_LEVEL, mastery.getRecordPath(), level, 1));
+            }
+        }
+
+        if (plan.skillPointsRefund > 0) {
+            int skillPoints = getVariableValueInteger(Constants.Save.SKILL_POINTS);
+            plan.add(new Respec.Change(Respec.Change.Kind.POINTS, Constants.Save.SKILL_POINTS, skillPoints, skillPoints + plan.skillPointsRefund));
+        }
+        if (!plan.removedBlocks.isEmpty()) {
+            int max = getVariableValueInteger("max");
+            plan.add(new Respec.Change(Respec.Change.Kind.POINTS, "max", max, max - plan.removedBlocks.size()));
+        }
+
+        if (respec.isAttributes()) {
+            Pc pc = db.player().getPc();
+            planAttribute(plan, "str", getStr(), Math.round(pc.getCharacterStrength()), db.player().getPlayerLevels().getStrengthIncrement());
+            planAttribute(plan, "int", getInt(), Math.round(pc.getCharacterIntelligence()), db.player().getPlayerLevels().getIntelligenceIncrement());
+            planAttribute(plan, "dex", getDex(), Math.round(pc.getCharacterDexterity()), db.player().getPlayerLevels().getDexterityIncrement());
+            planAttribute(plan, "life", getLife(), Math.round(pc.getCharacterLife()), db.player().getPlayerLevels().getLifeIncrement());
+            planAttribute(plan, "mana", getMana(), Math.round(pc.getCharacterMana()), db.player().getPlayerLevels().getManaIncrement());
+            if (plan.attributePointsRefund > 0) {
+                int modifierPoints = getModifierPoints();
+                plan.add(new Respec.Change(Respec.Change.Kind.POINTS, "modifierPoints", modifierPoints, modifierPoints + plan.attributePointsRefund));
+            }
+        }
+
+        return plan;
+    }
+
+    private static void planAttribute(Respec.Plan plan, String attr, int value, int base, int step) {
+        if (step <= 0 || value <= base) {
+            return;
+        }
+        int refund = (value - base) / step;
+        if (refund > 0) {
+            plan.attributePointsRefund += refund;
+            plan.add(new Respec.Change(Respec.Change.Kind.ATTRIBUTE, attr, value, value - refund * step));
+        }
+    }
+
+    /**
+     * Applies a respec as a single transaction, nothing is changed if one of the changes fails.
+     *
+     * @param respec what to reset
+     * @return the changes made
+     */
+    public Respec.Plan respec(Respec respec) {
+        Respec.Plan plan = previewRespec(respec);
+        if (plan.isEmpty()) {
+            return plan;
+        }
+
+        FileDataMap dataMap = getSaveData().getDataMap();
+        dataMap.transaction(() -> {
+            plan.removedBlocks.forEach(dataMap::removeBlock);
+            plan.reclaimedMasteryBlocks.forEach(b -> dataMap.setInt(b, Constants.Save.SKILL_LEVEL, 1));
+            for (Respec.Change c : plan.getChanges()) {
+                if (c.getKind() == Respec.Change.Kind.ATTRIBUTE) {
+                    dataMap.setTempAttr(c.getName(), c.getAfter());
+                } else if (c.getKind() == Respec.Change.Kind.POINTS) {
+                    dataMap.intField(c.getName()).set(c.getAfter());
+                }
+            }
+        });
+        return plan;
+    }
+
     public void reclaimSkillPoints(PlayerSkill sb) {
         int blockStart = sb.getBlockStart();
-        Skill skill = db.skills().getSkill(sb.getSkillName(), false);
+        Skill skill = resolveSkill(sb);
         if (skill.isMastery()) {
             throw new IllegalStateException("Error reclaiming points. Mastery detected.");
         }
@@ -272,20 +452,16 @@ public class Player {
         VariableInfo varSkillLevel = skillToRemove.getVariables().get(Constants.Save.SKILL_LEVEL).get(0);
         if (varSkillLevel.getVariableType() == VariableType.INTEGER) {
             int currentSkillPoints = getVariableValueInteger(Constants.Save.SKILL_POINTS);
-            int currentSkillLevel = (int) varSkillLevel.getValue();
-            getSaveData().getDataMap().setInt(Constants.Save.SKILL_POINTS, currentSkillPoints + currentSkillLevel);
+            int currentSkillLevel = getVariableValueInteger(blockStart, Constants.Save.SKILL_LEVEL);
+            getSaveData().getDataMap().intField(Constants.Save.SKILL_POINTS).set(currentSkillPoints + currentSkillLevel);
             getSaveData().getDataMap().removeBlock(blockStart);
-            getSaveData().getDataMap().setInt("max", getVariableValueInteger("max") - 1);
-
-            if (getSaveData().getDataMap().isRemoved(blockStart)) {
-                prepareSkillsList();
-            }
+            getSaveData().getDataMap().intField("max").set(getVariableValueInteger("max") - 1);
         }
     }
 
     public void removeMastery(PlayerSkill sb) {
         int blockStart = sb.getBlockStart();
-        Skill mastery = db.skills().getSkill(sb.getSkillName(), false);
+        Skill mastery = resolveSkill(sb);
         if (!mastery.isMastery()) {
             throw new IllegalStateException("Error removing mastery. Not a mastery.");
         }
@@ -298,19 +474,15 @@ public class Player {
         int currentSkillLevel = getVariableValueInteger(blockStart, Constants.Save.SKILL_LEVEL);
 
         if (currentSkillLevel > 0) {
-            getSaveData().getDataMap().setInt(Constants.Save.SKILL_POINTS, currentSkillPoints + currentSkillLevel);
+            getSaveData().getDataMap().intField(Constants.Save.SKILL_POINTS).set(currentSkillPoints + currentSkillLevel);
             getSaveData().getDataMap().removeBlock(blockStart);
-            getSaveData().getDataMap().setInt("max", getVariableValueInteger("max") - 1);
-        }
-
-        if (getSaveData().getDataMap().isRemoved(blockStart)) {
-            prepareSkillsList();
+            getSaveData().getDataMap().intField("max").set(getVariableValueInteger("max") - 1);
         }
     }
 
     public void reclaimMasteryPoints(PlayerSkill sb) {
         int blockStart = sb.getBlockStart();
-        Skill mastery = db.skills().getSkill(sb.getSkillName(), false);
+        Skill mastery = resolveSkill(sb);
         if (!mastery.isMastery()) {
             throw new IllegalStateException("Error reclaiming points. Not a mastery.");
         }
@@ -318,32 +490,33 @@ public class Player {
         int currentSkillPoints = getVariableValueInteger(Constants.Save.SKILL_POINTS);
         int currentSkillLevel = getVariableValueInteger(blockStart, Constants.Save.SKILL_LEVEL);
         if (currentSkillLevel > 1) {
-            getSaveData().getDataMap().setInt(Constants.Save.SKILL_POINTS, currentSkillPoints + (currentSkillLevel - 1));
+            getSaveData().getDataMap().intField(Constants.Save.SKILL_POINTS).set(currentSkillPoints + (currentSkillLevel - 1));
             getSaveData().getDataMap().setInt(blockStart, Constants.Save.SKILL_LEVEL, 1);
-            prepareSkillsList();
         }
     }
 
-    public List<Skill> getPlayerMasteries() {
-        List<Skill> ret = new ArrayList<>();
-        for (PlayerSkill sb : getPlayerSkills().values()) {
-            Skill skill = db.skills().getSkill(sb.getSkillName(), false);
-            if (skill != null && skill.isMastery()) {
-                ret.add(skill);
-            }
+    /**
+     * @return the skills of the character resolved against the game database, kept current after every edit
+     */
+    public SkillGraph getSkillGraph() {
+        getPlayerSkills();
+        return getSaveData().getSkillGraph();
+    }
+
+    private Skill resolveSkill(PlayerSkill sb) {
+        SkillGraph.Node node = getSkillGraph().getNode(Database.normalizeRecordPath(sb.getSkillName()));
+        if (node != null) {
+            return node.getSkill();
         }
-        return ret;
+        return db.skills().getSkill(sb.getSkillName(), false);
+    }
+
+    public List<Skill> getPlayerMasteries() {
+        return getSkillGraph().getMasteries();
     }
 
     public List<Skill> getPlayerSkillsFromMastery(Skill mastery) {
-        List<Skill> ret = new ArrayList<>();
-        for (PlayerSkill sb : getPlayerSkills().values()) {
-            Skill skill = db.skills().getSkill(sb.getSkillName(), false);
-            if (skill != null && !skill.isMastery() && mastery.getRecordPath().equals(skill.getParentPath())) {
-                ret.add(skill);
-            }
-        }
-        return ret;
+        return getSkillGraph().getSkills(mastery).stream().map(SkillGraph.Node::getSkill).collect(Collectors.toList());
     }
 
     public int getStr() {
@@ -391,7 +564,7 @@ public class Player {
     }
 
     public void setModifierPoints(int val) {
-        getSaveData().getDataMap().setInt("modifierPoints", val);
+        getSaveData().getDataMap().intField("modifierPoints").set(val);
     }
 
     public int getXp() {
@@ -411,9 +584,12 @@ public class Player {
     }
 
     public String getStatGreatestMonsterKilledName() {
-        List<String> monsters = getSaveData().getDataMap().getStringValuesFromBlock(
-                (PlayerFileVariable.valueOf(getSaveData().getPlatform(), "greatestMonsterKilledName").var()))
-                .stream().filter(v -> v != null && !v.isEmpty()).collect(Collectors.toList());
+        return lastGreatestMonsterName(getSaveData().getDataMap().getStringValuesFromBlock(
+                (PlayerFileVariable.valueOf(getSaveData().getPlatform(), "greatestMonsterKilledName").var())));
+    }
+
+    private static String lastGreatestMonsterName(List<String> values) {
+        List<String> monsters = values.stream().filter(v -> v != null && !v.isEmpty()).collect(Collectors.toList());
         if (monsters.isEmpty()) {
             return null;
         }
@@ -421,9 +597,12 @@ public class Player {
     }
 
     public int getStatGreatestMonsterKilledLevel() {
-        List<Integer> monsterLevels = getSaveData().getDataMap().getIntValuesFromBlock(
-                PlayerFileVariable.valueOf(getSaveData().getPlatform(), "greatestMonsterKilledLevel").var())
-                .stream().filter(v -> v != 0).collect(Collectors.toList());
+        return lastGreatestMonsterLevel(getSaveData().getDataMap().getIntValuesFromBlock(
+                PlayerFileVariable.valueOf(getSaveData().getPlatform(), "greatestMonsterKilledLevel").var()));
+    }
+
+    private static int lastGreatestMonsterLevel(List<Integer> values) {
+        List<Integer> monsterLevels = values.stream().filter(v -> v != 0).collect(Collectors.toList());
         if (monsterLevels.isEmpty()) {
             return -1;
         }
@@ -471,7 +650,7 @@ public class Player {
     }
 
     private int getVariableValueInteger(String variable) {
-        return getSaveData().getDataMap().getInt(variable);
+        return getSaveData().getDataMap().intField(variable).get();
     }
 
     private int getVariableValueInteger(int blockStart, String variable) {
@@ -479,7 +658,7 @@ public class Player {
     }
 
     private float getVariableValueFloat(String variable) {
-        return getSaveData().getDataMap().getFloat(variable);
+        return getSaveData().getDataMap().floatField(variable).get();
     }
 
     public String getPlayerClassName() {
@@ -509,11 +688,11 @@ public class Player {
         Pc pc;
 
         if (gender.equals(Gender.FEMALE)) {
-            getSaveData().getDataMap().setString(Constants.Save.PLAYER_CHARACTER_CLASS, Constants.Save.VALUE_PC_CLASS_FEMALE);
+            getSaveData().getDataMap().stringField(Constants.Save.PLAYER_CHARACTER_CLASS).set(Constants.Save.VALUE_PC_CLASS_FEMALE);
             pc = db.player().getPc(Pc.Gender.FEMALE);
             newTexture = Constants.Save.FEMALE_DEFAULT_TEXTURE;
         } else {
-            getSaveData().getDataMap().setString(Constants.Save.PLAYER_CHARACTER_CLASS, Constants.Save.VALUE_PC_CLASS_MALE);
+            getSaveData().getDataMap().stringField(Constants.Save.PLAYER_CHARACTER_CLASS).set(Constants.Save.VALUE_PC_CLASS_MALE);
             pc = db.player().getPc(Pc.Gender.MALE);
             newTexture = Constants.Save.MALE_DEFAULT_TEXTURE;
         }
@@ -522,7 +701,7 @@ public class Player {
             newTexture = pc.getPlayerTextures().get(0);
         }
 
-        String currentTexture = getSaveData().getDataMap().getString(Constants.Save.PLAYER_TEXTURE);
+        String currentTexture = getSaveData().getDataMap().stringField(Constants.Save.PLAYER_TEXTURE).get();
 
         //try to match new gender with old texture color
         Matcher matcher = Pattern.compile("(?i).*_([^.]+)\\.tex$").matcher(currentTexture);
@@ -535,7 +714,7 @@ public class Player {
             }
         }
 
-        getSaveData().getDataMap().setString(Constants.Save.PLAYER_TEXTURE, newTexture);
+        getSaveData().getDataMap().stringField(Constants.Save.PLAYER_TEXTURE).set(newTexture);
     }
 
     public int getDifficulty() {
@@ -543,19 +722,23 @@ public class Player {
     }
 
     public List<MapTeleport> getDefaultMapTeleports(int difficulty) {
+        List<TeleportDifficulty> teleports = getTeleports();
+        if (teleports.size() >= difficulty + 1) {
+            return resolveTeleports(teleports.get(difficulty));
+        }
+        return new ArrayList<>();
+    }
+
+    private List<MapTeleport> resolveTeleports(TeleportDifficulty teleports) {
         List<MapTeleport> ret = new ArrayList<>();
-        if (getTeleports().size() >= difficulty + 1) {
-            for (VariableInfo t : getTeleports().get(difficulty).getTeleportList()) {
-                UID tpUid = new UID((byte[]) t.getValue());
-                MapTeleport mapTeleport = DefaultMapTeleport.get(tpUid);
-                if (mapTeleport == null) {
-                    logger.log(System.Logger.Level.WARNING, String.format("teleport not found with uid = '%s' character=(%s) difficulty=%d", tpUid, getPlayerSavegameName(), difficulty));
-                    continue;
-                }
-                Teleport teleport = db.teleports().getTeleport(mapTeleport.getRecordId());
-                mapTeleport.setName(teleport.getDescription());
-                ret.add(mapTeleport);
+        for (VariableInfo t : teleports.getTeleportList()) {
+            UID tpUid = t.getUidValue();
+            MapTeleport mapTeleport = teleportRegistry.get(tpUid);
+            if (mapTeleport == null) {
+                logger.log(System.Logger.Level.WARNING, String.format("teleport not found with uid = '%s' character=(%s) difficulty=%d", tpUid, getPlayerSavegameName(), teleports.getDifficulty()));
+                continue;
             }
+            ret.add(mapTeleport);
         }
         ret.sort(Comparator.comparingInt(MapTeleport::getOrder));
         return ret;
@@ -590,7 +773,7 @@ public class Player {
         List<VariableInfo> toRemove = new ArrayList<>();
         for (VariableInfo stagingVar : teleportDifficulty.getBlockInfo().getStagingVariables().values()) {
             if (stagingVar.getVariableType().equals(VariableType.UID) && stagingVar.getName().equals(Constants.Save.VAR_TELEPORTUID)
-                    && (new UID((byte[]) stagingVar.getValue())).equals(uid)) {
+                    && stagingVar.getUidValue().equals(uid)) {
                 logger.log(System.Logger.Level.ERROR, "------------- removing portal " + uid + ".");
                 toRemove.add(stagingVar);
             }
@@ -618,7 +801,7 @@ public class Player {
         int offset = teleportDifficulty.getOffset() + (teleportUIDsSizeKeyLength + 4);
         for (VariableInfo stagingVar : teleportDifficulty.getBlockInfo().getStagingVariables().values()) {
             if (stagingVar.getVariableType().equals(VariableType.UID) && stagingVar.getName().equals(Constants.Save.VAR_TELEPORTUID)
-                    && (new UID((byte[]) stagingVar.getValue())).equals(uid)) {
+                    && stagingVar.getUidValue().equals(uid)) {
                 logger.log(System.Logger.Level.ERROR, "------------- portal " + uid + "already exists");
                 break;
             }
@@ -626,7 +809,7 @@ public class Player {
 
         for (VariableInfo vi : teleportDifficulty.getTeleportList()) {
             if (vi.getVariableType().equals(VariableType.UID) && vi.getName().equals(Constants.Save.VAR_TELEPORTUID)) {
-                MapTeleport currentTeleport = DefaultMapTeleport.get(new UID((byte[]) vi.getValue()));
+                MapTeleport currentTeleport = DefaultMapTeleport.get(vi.getUidValue());
                 if (currentTeleport != null && currentTeleport.getUid().equals(uid)) {
                     logger.log(System.Logger.Level.ERROR, "------------- portal " + uid + "already exists");
                     return;
@@ -643,7 +826,7 @@ public class Player {
         newVi.setBlockOffset(uidSize.getBlockOffset());
         newVi.setVariableType(VariableType.UID);
         newVi.setName(Constants.Save.VAR_TELEPORTUID);
-        newVi.setValue(uid.getBytes());
+        newVi.setValue(uid);
         newVi.setKeyOffset(offset);
         newVi.setValOffset(offset + teleportUIDKeyLength);
         newVi.setValSize(VariableType.UID.dataTypeSize());
@@ -652,17 +835,14 @@ public class Player {
     }
 
     private TeleportDifficulty getTeleportUidFromDifficulty(int difficulty) {
-        Optional<BlockInfo> first = getSaveData().getDataMap().getBlockInfo().values().stream().filter(
-                f -> f.getBlockType() == PlayerBlockType.PLAYER_MAIN).findFirst();
-
-        BlockInfo block;
-
-        if (first.isPresent()) {
-            block = first.get();
-        } else {
+        BlockInfo block = getSaveData().getDataMap().firstBlockOfType(PlayerBlockType.PLAYER_MAIN);
+        if (block == null) {
             return null;
         }
+        return teleportsOfDifficulty(block, difficulty);
+    }
 
+    private static TeleportDifficulty teleportsOfDifficulty(BlockInfo block, int difficulty) {
         List<VariableInfo> teleportUidsSizeVars = new ArrayList<>(Objects.requireNonNull(block).getVariables().get(Constants.Save.VAR_TELEPORTUIDSSIZE));
         teleportUidsSizeVars.sort(Comparator.comparingInt(VariableInfo::getValOffset));
         int offsetStart = teleportUidsSizeVars.get(difficulty).getKeyOffset();
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.core.WorkerThread;
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.save.Platform;
+import br.com.pinter.tqrespec.save.exporter.Exporter;
+import br.com.pinter.tqrespec.tqdata.Db;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
+import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs an operation over many saves without the GUI, used by the command line. Every save is parsed by its own
+ * {@link PlayerLoader} on a fixed pool of worker threads. Everything reading the game database, the skills of the save
+ * and the summary and respec operations, runs one save at a time holding {@link Db#getAccessLock()}. Writes to the
+ * save directories are serialized, the writers share the save-in-progress state of the application. Conversions only
+ * create zips and run in parallel.
+ */
+public class PlayerBatch {
+    private static final System.Logger logger = Log.getLogger(PlayerBatch.class.getName());
+    private static final String ZIP_NAME_FORMAT = "%s-%s-%s.zip";
+    private static final String BACKUP = "BACKUP";
+
+    @Inject
+    private Provider<PlayerLoader> playerLoaderProvider;
+
+    @Inject
+    private Provider<PlayerWriter> playerWriterProvider;
+
+    @Inject
+    private Db db;
+
+    private final Object writeLock = new Object();
+    private final Set<Path> claimedZips = ConcurrentHashMap.newKeySet();
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Work done on a loaded save.
+     *
+     * @param <T> type of the result
+     */
+    @FunctionalInterface
+    public interface Operation<T> {
+        T apply(PlayerLoader player) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Read<T> {
+        T get() throws IOException;
+    }
+
+    /**
+     * Outcome of an operation on one save.
+     *
+     * @param <T> type of the result
+     */
+    public static final class Result<T> {
+        private final Path save;
+        private final T value;
+        private final Exception error;
+
+        private Result(Path save, T value, Exception error) {
+            this.save = save;
+            this.value = value;
+            this.error = error;
+        }
+
+        public Path getSave() {
+            return save;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * @return the failure, null if the operation succeeded
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isOk() {
+            return error == null;
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("invalid number of threads: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Finds the saves in a directory.
+     *
+     * @param path a save directory, or a directory holding save directories, like SaveData/Main
+     * @return the save directories found, sorted by name
+     */
+    public static List<Path> findSaves(Path path) throws IOException {
+        if (Files.isRegularFile(path.resolve(Constants.PLAYERCHR))) {
+            return List.of(path);
+        }
+        try (Stream<Path> dirs = Files.list(path)) {
+            return dirs.filter(d -> d.getFileName().toString().startsWith("_")
+                            && Files.isRegularFile(d.resolve(Constants.PLAYERCHR)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Loads every save and runs the operation on it. A save that fails is logged and reported in its result, the
+     * others are not affected.
+     *
+     * @param saves     save directories
+     * @param operation work to do on each save
+     * @return the results, in the same order of the list received
+     */
+    public <T> List<Result<T>> run(List<Path> saves, Operation<T> operation) {
+        List<Result<T>> ret = new ArrayList<>();
+        if (saves.isEmpty()) {
+            return ret;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(saves.size(), threads), r -> {
+            WorkerThread t = new WorkerThread(r);
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<CompletableFuture<Result<T>>> futures = new ArrayList<>();
+            for (Path save : saves) {
+                futures.add(CompletableFuture.supplyAsync(() -> runOne(save, operation), executor));
+            }
+            for (CompletableFuture<Result<T>> f : futures) {
+                ret.add(f.join());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return ret;
+    }
+
+    private <T> Result<T> runOne(Path save, Operation<T> operation) {
+        try {
+            PlayerLoader loader = playerLoaderProvider.get();
+            loader.parsePlayer(save);
+            read(loader::resolveSkills);
+            return new Result<>(save, operation.apply(loader), null);
+        } catch (IOException | RuntimeException e) {
+            logger.log(System.Logger.Level.ERROR, String.format("Error processing '%s'", save), e);
+            return new Result<>(save, null, e);
+        }
+    }
+
+    /**
+     * Reads the character summary, needs the game database.
+     */
+    public Operation<PlayerCharacter> summarize() {
+        return p -> read(p::getCharacter);
+    }
+
+    /**
+     * Parses the save and checks its data, without the game database.
+     *
+     * @return the platform of each save
+     */
+    public Operation<Platform> validate() {
+        return p -> p.getSaveData().getPlatform();
+    }
+
+    /**
+     * Writes the data of each save as json, named after the save directory.
+     */
+    public Operation<Path> exportJson(Path outDir) {
+        return p -> {
+            Path json = outDir.resolve(p.getSaveData().getPlayerPath().getFileName() + ".json");
+            new Exporter(json.toFile(), p.getSaveData().getDataMap()).writeJson();
+            return json;
+        };
+    }
+
+    /**
+     * Copies each save directory to a zip, like the backup target of the copy character form.
+     */
+    public Operation<Path> backup(Path outDir) {
+        return p -> {
+            Path zip = zipPath(outDir, p.getCharacterName(), BACKUP);
+            claim(zip);
+            write(() -> writer(p).copyCurrentSave(p.getSaveData().getPlayerName(), Platform.UNDEFINED, zip));
+            return zip;
+        };
+    }
+
+    /**
+     * Converts each save to another platform, writing the converted save to a zip. Every worker runs load, convert,
+     * render and zip on its own save, see {@link PlayerWriter#convertToZip(Platform, Path)}.
+     */
+    public Operation<Path> convert(Platform target, Path outDir) {
+        return p -> {
+            if (target.equals(p.getSaveData().getPlatform())) {
+                throw new IllegalArgumentException("save is already " + target);
+            }
+            Path zip = zipPath(outDir, p.getCharacterName(), target.name());
+            claim(zip);
+            writer(p).convertToZip(target, zip);
+            return zip;
+        };
+    }
+
+    /**
+     * Converts the saves to another platform, like {@link #convert(Platform, Path)}.
+     *
+     * @param saves  save directories
+     * @param target platform of the converted saves
+     * @param outDir directory of the zips
+     * @return the zip of each save, in the same order of the list received
+     */
+    public List<Result<Path>> convertAll(List<Path> saves, Platform target, Path outDir) {
+        return run(saves, convert(target, outDir));
+    }
+
+    /**
+     * Respecs each save, needs the game database. Saves changed are backed up first.
+     *
+     * @param respec    what to reset
+     * @param backupDir directory of the backups, or null to only preview the changes
+     * @return the plan of each save
+     */
+    public Operation<Respec.Plan> respec(Respec respec, Path backupDir) {
+        return p -> {
+            Respec.Plan plan = read(() -> p.previewRespec(respec));
+            if (backupDir == null || plan.isEmpty()) {
+                return plan;
+            }
+            backup(backupDir).apply(p);
+            Respec.Plan applied = read(() -> p.respec(respec));
+            write(() -> {
+                if (!writer(p).save()) {
+                    throw new IOException("Another save is in progress");
+                }
+            });
+            return applied;
+        };
+    }
+
+    private PlayerWriter writer(PlayerLoader player) {
+        return playerWriterProvider.get().withSaveData(player.getSaveData());
+    }
+
+    private void write(Write write) throws IOException {
+        synchronized (writeLock) {
+            write.run();
+        }
+    }
+
+    private <T> T read(Read<T> read) throws IOException {
+        synchronized (db.getAccessLock()) {
+            return read.get();
+        }
+    }
+
+    private static Path zipPath(Path outDir, String name, String target) {
+        return outDir.resolve(String.format(ZIP_NAME_FORMAT,
+                name, new SimpleDateFormat("yyyyMMdd").format(new Date()), target));
+    }
+
+    //two saves of characters with the same name must not write to the same zip
+    private void claim(Path zip) throws FileAlreadyExistsException {
+        if (!claimedZips.add(zip.toAbsolutePath()) || Files.exists(zip)) {
+            throw new FileAlreadyExistsException(zip.toString());
+        }
+    }
+}
@@ -32,4 +32,12 @@ public class PlayerLoader extends Player {
     public CurrentPlayerData getSaveData() {
         return saveDataPrivate;
     }
+
+    @Override
+    public void reset() {
+        //private data only, the global save state belongs to the main player
+        if (saveDataPrivate != null) {
+            saveDataPrivate.reset();
+        }
+    }
 }
\ No newline at end of file
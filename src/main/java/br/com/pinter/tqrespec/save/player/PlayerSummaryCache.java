@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqdatabase.models.Skill;
+import br.com.pinter.tqrespec.core.State;
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.tqdata.*;
+import br.com.pinter.tqrespec.util.Build;
+import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk cache of the character summaries shown in the characters window. Entries are keyed by the Player.chr path
+ * and validated against its size, modification time and a hash of the first and last bytes of the file, so a save
+ * changed by the game is parsed again automatically.
+ */
+@Singleton
+public class PlayerSummaryCache {
+    private static final System.Logger logger = Log.getLogger(PlayerSummaryCache.class.getName());
+    /**
+     * Identifies the layout of the cache file, it changes with the application version and with the fields of the
+     * classes cached, so a cache written by another build is never read back.
+     */
+    static final String FORMAT = format(Entry.class, Fingerprint.class, PlayerCharacter.class);
+    private static final String CACHE_FILE = "characters.cache";
+    private static final int HASH_CHUNK_SIZE = 4096;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private boolean loaded = false;
+
+    @Inject
+    private GameInfo gameInfo;
+
+    @Inject
+    private Db db;
+
+    @Inject
+    private TeleportRegistry teleportRegistry;
+
+    public PlayerCharacter get(Path playerChr, Fingerprint fingerprint) {
+        loadIfNeeded();
+        Entry entry = entries.get(playerChr.toAbsolutePath().toString());
+        if (entry == null || fingerprint == null || !fingerprint.equals(entry.fingerprint)) {
+            return null;
+        }
+        return entry.toPlayerCharacter(db, teleportRegistry);
+    }
+
+    public void put(Path playerChr, Fingerprint fingerprint, PlayerCharacter playerCharacter) {
+        if (fingerprint == null) {
+            return;
+        }
+        loadIfNeeded();
+        entries.put(playerChr.toAbsolutePath().toString(), new Entry(fingerprint, playerCharacter));
+    }
+
+    /**
+     * Writes the cache to disk, dropping the entries of saves that are not in the list.
+     *
+     * @param playerChrList Player.chr of every character found
+     */
+    public void save(Collection<Path> playerChrList) {
+        Path cacheFile = getCacheFile();
+        if (cacheFile == null) {
+            return;
+        }
+        Set<String> live = new HashSet<>();
+        playerChrList.forEach(p -> live.add(p.toAbsolutePath().toString()));
+        entries.keySet().retainAll(live);
+
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path tmp = cacheFile.resolveSibling(CACHE_FILE + ".tmp");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeUTF(FORMAT);
+                out.writeUTF(State.get().getLocale().toLanguageTag());
+                out.writeObject(new HashMap<>(entries));
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to write characters cache", e);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        Path cacheFile = getCacheFile();
+        try {
+            if (cacheFile != null) {
+                Files.deleteIfExists(cacheFile);
+            }
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to remove characters cache", e);
+        }
+    }
+
+    private synchronized void loadIfNeeded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        Path cacheFile = getCacheFile();
+        if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+            return;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            in.setObjectInputFilter(ObjectInputFilter.Config.createFilter(
+                    "java.lang.*;java.util.*;" + PlayerSummaryCache.class.getName() + "$*;!*"));
+            if (!FORMAT.equals(in.readUTF()) || !State.get().getLocale().toLanguageTag().equals(in.readUTF())) {
+                logger.log(System.Logger.Level.DEBUG, "characters cache is outdated, ignoring");
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Entry> stored = (Map<String, Entry>) in.readObject();
+            entries.putAll(stored);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to read characters cache, ignoring", e);
+        }
+    }
+
+    private Path getCacheFile() {
+        String savePath = gameInfo.getSavePath();
+        if (StringUtils.isEmpty(savePath)) {
+            return null;
+        }
+        return Paths.get(savePath, Constants.CACHE_DIRECTORY, CACHE_FILE);
+    }
+
+    static String format(Class<?>... classes) {
+        CRC32 crc = new CRC32();
+        for (Class<?> c : classes) {
+            Arrays.stream(c.getDeclaredFields())
+                    .filter(f -> !Modifier.isStatic(f.getModifiers()))
+                    .map(f -> c.getName() + "." + f.getName() + ":" + f.getGenericType().getTypeName() + ";")
+                    .sorted()
+                    .forEach(f -> crc.update(f.getBytes(StandardCharsets.UTF_8)));
+        }
+        return String.format("%s-%08x", Build.version(), crc.getValue());
+    }
+
+    public static Fingerprint fingerprint(Path playerChr) {
+        try (FileChannel channel = FileChannel.open(playerChr, StandardOpenOption.READ)) {
+            BasicFileAttributes attrs = Files.readAttributes(playerChr, BasicFileAttributes.class);
+            long size = channel.size();
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_CHUNK_SIZE);
+            channel.read(buffer, 0);
+            crc.update(buffer.flip());
+            if (size > HASH_CHUNK_SIZE) {
+                buffer.clear();
+                channel.read(buffer, Math.max(HASH_CHUNK_SIZE, size - HASH_CHUNK_SIZE));
+                crc.update(buffer.flip());
+            }
+            return new Fingerprint(size, attrs.lastModifiedTime().toMillis(), crc.getValue());
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.DEBUG, "unable to read ''{0}'': {1}", playerChr, e.getMessage());
+            return null;
+        }
+    }
+
+    public static class Fingerprint implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long size;
+        private final long lastModified;
+        private final long hash;
+
+        Fingerprint(long size, long lastModified, long hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Fingerprint that = (Fingerprint) o;
+            return size == that.size && lastModified == that.lastModified && hash == that.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, hash);
+        }
+    }
+
+    private static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Fingerprint fingerprint;
+        private final String name;
+        private final String location;
+        private final String gender;
+        private final String characterClass;
+        private final String greatestMonsterKilledName;
+        private final int level;
+        private final int difficulty;
+        private final int experience;
+        private final int gold;
+        private final int statLife;
+        private final int statMana;
+        private final int statStr;
+        private final int statInt;
+        private final int statDex;
+        private final int statAvailableAttrPoints;
+        private final int statAvailableSkillPoints;
+        private final int playTimeInSeconds;
+        private final int numberOfDeaths;
+        private final int numberOfKills;
+        private final int experienceFromKills;
+        private final int healthPotionsUsed;
+        private final int manaPotionsUsed;
+        private final int numHitsReceived;
+        private final int numHitsInflicted;
+        private final int greatestDamageInflicted;
+        private final int greatestMonsterKilledLevel;
+        private final int greatestMonsterKilledLifeAndMana;
+        private final int criticalHitsInflicted;
+        private final List<String> masteryRecords = new ArrayList<>();
+        private final List<Integer> masteryLevels = new ArrayList<>();
+        private final Map<Integer, List<String>> teleportRecords = new HashMap<>();
+
+        Entry(Fingerprint fingerprint, PlayerCharacter p) {
+            this.fingerprint = fingerprint;
+            this.name = p.getName();
+            this.location = p.getLocation().name();
+            this.gender = p.getGender().name();
+            this.characterClass = p.getCharacterClass();
+            this.greatestMonsterKilledName = p.getGreatestMonsterKilledName();
+            this.level = p.getLevel();
+            this.difficulty = p.getDifficulty();
+            this.experience = p.getExperience();
+            this.gold = p.getGold();
+            this.statLife = p.getStatLife();
+            this.statMana = p.getStatMana();
+            this.statStr = p.getStatStr();
+            this.statInt = p.getStatInt();
+            this.statDex = p.getStatDex();
+            this.statAvailableAttrPoints = p.getStatAvailableAttrPoints();
+            this.statAvailableSkillPoints = p.getStatAvailableSkillPoints();
+            this.playTimeInSeconds = p.getPlayTimeInSeconds();
+            this.numberOfDeaths = p.getNumberOfDeaths();
+            this.numberOfKills = p.getNumberOfKills();
+            this.experienceFromKills = p.getExperienceFromKills();
+            this.healthPotionsUsed = p.getHealthPotionsUsed();
+            this.manaPotionsUsed = p.getManaPotionsUsed();
+            this.numHitsReceived = p.getNumHitsReceived();
+            this.numHitsInflicted = p.getNumHitsInflicted();
+            this.greatestDamageInflicted = p.getGreatestDamageInflicted();
+            this.greatestMonsterKilledLevel = p.getGreatestMonsterKilledLevel();
+            this.greatestMonsterKilledLifeAndMana = p.getGreatestMonsterKilledLifeAndMana();
+            this.criticalHitsInflicted = p.getCriticalHitsInflicted();
+            for (Mastery m : p.getMasteries()) {
+                masteryRecords.add(m.getSkill().getRecordPath());
+                masteryLevels.add(m.getLevel());
+            }
+            for (Map.Entry<Integer, List<MapTeleport>> e : p.getDefaultMapTeleports().entrySet()) {
+                List<String> records = new ArrayList<>();
+                e.getValue().forEach(t -> records.add(t.getRecordId()));
+                teleportRecords.put(e.getKey(), records);
+            }
+        }
+
+        PlayerCharacter toPlayerCharacter(Db db, TeleportRegistry teleportRegistry) {
+            PlayerCharacter p = new PlayerCharacter();
+            p.setName(name);
+            p.setLocation(SaveLocation.valueOf(location));
+            p.setGender(Gender.valueOf(gender));
+            p.setCharacterClass(characterClass);
+            p.setGreatestMonsterKilledName(greatestMonsterKilledName);
+            p.setLevel(level);
+            p.setDifficulty(difficulty);
+            p.setExperience(experience);
+            p.setGold(gold);
+            p.setStatLife(statLife);
+            p.setStatMana(statMana);
+            p.setStatStr(statStr);
+            p.setStatInt(statInt);
+            p.setStatDex(statDex);
+            p.setStatAvailableAttrPoints(statAvailableAttrPoints);
+            p.setStatAvailableSkillPoints(statAvailableSkillPoints);
+            p.setPlayTimeInSeconds(playTimeInSeconds);
+            p.setNumberOfDeaths(numberOfDeaths);
+            p.setNumberOfKills(numberOfKills);
+            p.setExperienceFromKills(experienceFromKills);
+            p.setHealthPotionsUsed(healthPotionsUsed);
+            p.setManaPotionsUsed(manaPotionsUsed);
+            p.setNumHitsReceived(numHitsReceived);
+            p.setNumHitsInflicted(numHitsInflicted);
+            p.setGreatestDamageInflicted(greatestDamageInflicted);
+            p.setGreatestMonsterKilledLevel(greatestMonsterKilledLevel);
+            p.setGreatestMonsterKilledLifeAndMana(greatestMonsterKilledLifeAndMana);
+            p.setCriticalHitsInflicted(criticalHitsInflicted);
+
+            p.setMasteries(new ArrayList<>());
+            for (int i = 0; i < masteryRecords.size(); i++) {
+                Skill skill = db.skills().getSkill(masteryRecords.get(i), false);
+                if (skill == null) {
+                    //game database changed, the entry can't be trusted anymore
+                    return null;
+                }
+                Mastery mastery = new Mastery();
+                mastery.setSkill(skill);
+                mastery.setLevel(masteryLevels.get(i));
+                mastery.setDisplayName(skill.getSkillDisplayName());
+                p.getMasteries().add(mastery);
+            }
+
+            for (Map.Entry<Integer, List<String>> e : teleportRecords.entrySet()) {
+                List<MapTeleport> teleports = new ArrayList<>();
+                for (String recordId : e.getValue()) {
+                    MapTeleport mapTeleport = teleportRegistry.get(recordId);
+                    if (mapTeleport != null) {
+                        teleports.add(mapTeleport);
+                    }
+                }
+                p.getDefaultMapTeleports().put(e.getKey(), teleports);
+            }
+            return p;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.core.WorkerThread;
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.tqdata.Db;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacterFile;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Loads character summaries without touching the shared {@link CurrentPlayerData}. Every save is parsed by its own
+ * {@link PlayerLoader}, so several saves can be parsed at the same time. The summary is resolved against the game
+ * database one save at a time, holding {@link Db#getAccessLock()}. Unchanged saves are served from the
+ * {@link PlayerSummaryCache}.
+ */
+@Singleton
+public class PlayerSummaryLoader {
+    private static final System.Logger logger = Log.getLogger(PlayerSummaryLoader.class.getName());
+
+    @Inject
+    private Provider<PlayerLoader> playerLoaderProvider;
+
+    @Inject
+    private PlayerSummaryCache summaryCache;
+
+    @Inject
+    private GameInfo gameInfo;
+
+    @Inject
+    private Db db;
+
+    public PlayerCharacter load(PlayerCharacterFile playerCharacterFile) {
+        Path playerChr = gameInfo.playerChr(playerCharacterFile.getPlayerName(), playerCharacterFile.getLocation());
+        PlayerSummaryCache.Fingerprint fingerprint = null;
+        if (playerChr != null) {
+            fingerprint = PlayerSummaryCache.fingerprint(playerChr);
+            PlayerCharacter cached;
+            synchronized (db.getAccessLock()) {
+                cached = summaryCache.get(playerChr, fingerprint);
+            }
+            if (cached != null) {
+                cached.setPath(playerChr.getParent());
+                cached.setLocation(playerCharacterFile.getLocation());
+                return cached;
+            }
+        }
+
+        PlayerLoader loader = playerLoaderProvider.get();
+        if (!loader.parsePlayer(playerCharacterFile.getPlayerName(), playerCharacterFile.getLocation())) {
+            return null;
+        }
+        PlayerCharacter playerCharacter;
+        synchronized (db.getAccessLock()) {
+            loader.resolveSkills();
+            playerCharacter = loader.getCharacter();
+        }
+        if (playerChr != null) {
+            summaryCache.put(playerChr, fingerprint, playerCharacter);
+        }
+        return playerCharacter;
+    }
+
+    /**
+     * Loads all characters using a pool bounded by the number of available processors.
+     * Characters that fail to load are logged and left out of the result.
+     *
+     * @param playerCharacterFiles characters to load
+     * @return the summaries, in the same order of the list received
+     */
+    public List<PlayerCharacter> loadAll(List<PlayerCharacterFile> playerCharacterFiles) {
+        return loadAll(playerCharacterFiles, null);
+    }
+
+    /**
+     * Loads all characters like {@link #loadAll(List)}, handing each summary to a listener as soon as it is ready.
+     *
+     * @param playerCharacterFiles characters to load
+     * @param onLoaded             called from the loader threads for every character loaded, in completion order
+     * @return the summaries, in the same order of the list received
+     */
+    public List<PlayerCharacter> loadAll(List<PlayerCharacterFile> playerCharacterFiles, Consumer<PlayerCharacter> onLoaded) {
+        List<PlayerCharacter> ret = new ArrayList<>();
+        if (playerCharacterFiles.isEmpty()) {
+            return ret;
+        }
+
+        int threads = Math.min(playerCharacterFiles.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            WorkerThread t = new WorkerThread(r);
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<CompletableFuture<PlayerCharacter>> futures = new ArrayList<>();
+            for (PlayerCharacterFile p : playerCharacterFiles) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    PlayerCharacter pc = loadQuietly(p);
+                    if (pc != null && onLoaded != null) {
+                        onLoaded.accept(pc);
+                    }
+                    return pc;
+                }, executor));
+            }
+            for (CompletableFuture<PlayerCharacter> f : futures) {
+                PlayerCharacter pc = f.join();
+                if (pc != null) {
+                    ret.add(pc);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        summaryCache.save(playerCharacterFiles.stream()
+                .map(p -> gameInfo.playerChr(p.getPlayerName(), p.getLocation()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        return ret;
+    }
+
+    private PlayerCharacter loadQuietly(PlayerCharacterFile playerCharacterFile) {
+        try {
+            return load(playerCharacterFile);
+        } catch (RuntimeException e) {
+            logger.log(System.Logger.Level.ERROR, String.format("Error loading character '%s'", playerCharacterFile), e);
+            return null;
+        }
+    }
+}
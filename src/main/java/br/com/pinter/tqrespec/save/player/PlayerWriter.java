@@ -50,6 +50,7 @@ import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 public class PlayerWriter extends FileWriter {
     private static final System.Logger logger = Log.getLogger(PlayerWriter.class.getName());
+    private static final String MOB_SAVE_PREFIX = "/__save";
     @Inject
     private CurrentPlayerData saveData;
 
@@ -71,6 +72,17 @@ public class PlayerWriter extends FileWriter {
         return saveData;
     }
 
+    /**
+     * Makes this writer save the data of a {@link PlayerLoader} instead of the loaded character.
+     *
+     * @param saveData data of the character to write
+     * @return this writer
+     */
+    public PlayerWriter withSaveData(CurrentPlayerData saveData) {
+        this.saveData = saveData;
+        return this;
+    }
+
     @SuppressWarnings("SameParameterValue")
     private boolean backupSaveGame(String fileName, String playerName) throws IOException {
         File backupDirectory = new File(gameInfo.getSavePath(), Constants.BACKUP_DIRECTORY);
@@ -220,7 +232,6 @@ public class PlayerWriter extends FileWriter {
     }
 
     public void copyCurrentSave(String toPlayerName, Platform conversionTarget, Path zipOutputPath) throws IOException {
-        String mobSavePrefix = "/__save";
         if (StringUtils.isBlank(toPlayerName)) {
             throw new IllegalArgumentException("character name can't be empty");
         }
@@ -256,17 +267,17 @@ public class PlayerWriter extends FileWriter {
                 if (fileDataMap.getPlatform().equals(Platform.MOBILE) && conversionTarget.equals(Platform.UNDEFINED)) {
                     //use new saveid
                     fileDataMap.setString("mySaveId", saveId);
-                    toZipPath = mobSavePrefix + saveId;
+                    toZipPath = MOB_SAVE_PREFIX + saveId;
                 }
             } else if (saveData.getPlatform().equals(Platform.MOBILE) && conversionTarget.equals(Platform.UNDEFINED)) {
                 //use current saveid for directory name
                 String currentSaveId = saveData.getDataMap().getString("mySaveId");
-                toZipPath = mobSavePrefix + currentSaveId;
+                toZipPath = MOB_SAVE_PREFIX + currentSaveId;
             }
 
             if (!conversionTarget.equals(Platform.UNDEFINED)) {
                 if (conversionTarget.equals(Platform.MOBILE)) {
-                    toZipPath = mobSavePrefix + saveId;
+                    toZipPath = MOB_SAVE_PREFIX + saveId;
                 }
                 fileDataMap.convertTo(conversionTarget, saveId);
             }
@@ -275,18 +286,8 @@ public class PlayerWriter extends FileWriter {
                 if (toPlayerName.equals(fromPlayerName) && conversionTarget.equals(Platform.UNDEFINED)) {
                     backupOnly = true;
                 }
-                try (FileSystem zipfs = FileSystems.newFileSystem(URI.create("jar:" + zipOutputPath.toUri()), Map.of("create", "true"))) {
-                    Path dir = zipfs.getPath(toZipPath);
-                    String excludeCopyRegex = null;
-                    if (conversionTarget.equals(Platform.MOBILE)) {
-                        excludeCopyRegex = "(?i)(?:^backup.*|^winsys.dxg$|^winsys.dxb$|^settings.txt$)";
-                    }
-                    copyDirectoryRecurse(playerSaveDirSource, dir, false, zipfs, excludeCopyRegex);
-                    if (!backupOnly) {
-                        Files.deleteIfExists(zipfs.getPath(dir.toString(), Constants.PLAYERCHR));
-                        writeBuffer(dir.toString(), Constants.PLAYERCHR, fileDataMap, zipfs);
-                    }
-                }
+                writeZip(playerSaveDirSource, zipOutputPath, toZipPath, conversionTarget,
+                        backupOnly ? null : render(fileDataMap));
             } else {
                 String excludeCopyRegex = "(?i)(?:^backup.*)";
                 if (!conversionTarget.equals(Platform.UNDEFINED) && oldPlatform.equals(Platform.MOBILE)) {
@@ -308,6 +309,51 @@ public class PlayerWriter extends FileWriter {
         }
     }
 
+    /**
+     * Converts the character to another platform and writes it to a new zip, like the copy to mobile. Unlike
+     * {@link #copyCurrentSave(String, Platform, Path)}, the save-in-progress state is not used, nothing is written to
+     * the save directories. Conversions of different characters can run at the same time, each one with its own
+     * loader and writer: the data map is converted on a copy, rendered from a duplicate of the buffer and zipped.
+     *
+     * @param conversionTarget platform of the converted save
+     * @param zipOutputPath    zip to create
+     */
+    public void convertToZip(Platform conversionTarget, Path zipOutputPath) throws IOException {
+        if (conversionTarget.equals(Platform.UNDEFINED) || conversionTarget.equals(saveData.getPlatform())) {
+            throw new IllegalArgumentException("can't convert to " + conversionTarget);
+        }
+
+        String saveId = RandomStringUtils.randomNumeric(10);
+        FileDataMap fileDataMap = (FileDataMap) saveData.getDataMap().deepClone();
+        fileDataMap.convertTo(conversionTarget, saveId);
+        byte[] playerChr = render(fileDataMap);
+
+        String toZipPath = conversionTarget.equals(Platform.MOBILE) ? MOB_SAVE_PREFIX + saveId
+                : "/_" + saveData.getDataMap().getCharacterName();
+        writeZip(saveData.getPlayerPath(), zipOutputPath, toZipPath, conversionTarget, playerChr);
+    }
+
+    /**
+     * Copies the save directory to a zip, replacing the Player.chr by the rendered one.
+     *
+     * @param playerChr rendered Player.chr, or null to keep the original file
+     */
+    private void writeZip(Path source, Path zipOutputPath, String toZipPath, Platform conversionTarget, byte[] playerChr) throws IOException {
+        try (FileSystem zipfs = FileSystems.newFileSystem(URI.create("jar:" + zipOutputPath.toUri()), Map.of("create", "true"))) {
+            Path dir = zipfs.getPath(toZipPath);
+            String excludeCopyRegex = null;
+            if (conversionTarget.equals(Platform.MOBILE)) {
+                excludeCopyRegex = "(?i)(?:^backup.*|^winsys.dxg$|^winsys.dxb$|^settings.txt$)";
+            }
+            copyDirectoryRecurse(source, dir, false, zipfs, excludeCopyRegex);
+            if (playerChr != null) {
+                Path chr = zipfs.getPath(dir.toString(), Constants.PLAYERCHR);
+                Files.deleteIfExists(chr);
+                Files.write(chr, playerChr);
+            }
+        }
+    }
+
     private void copyDirectoryRecurse(Path source, Path target, boolean replace, String excludeRegex) throws FileAlreadyExistsException {
         copyDirectoryRecurse(source, target, replace, FileSystems.getDefault(), excludeRegex);
     }
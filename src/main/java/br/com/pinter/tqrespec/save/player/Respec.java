@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a respec resets: skills, masteries and attributes. {@link Player#previewRespec(Respec)} computes the refunds
+ * and the blocks to remove without changing the character, {@link Player#respec(Respec)} also applies them as one
+ * transaction. Both return the {@link Plan}, which lists every value changed.
+ */
+public final class Respec {
+    private final boolean skills;
+    private final Masteries masteries;
+    private final boolean attributes;
+
+    public enum Masteries {
+        /**
+         * Masteries are left as they are.
+         */
+        KEEP,
+        /**
+         * Masteries are reset to level 1, like {@link Player#reclaimMasteryPoints(PlayerSkill)}.
+         */
+        RECLAIM,
+        /**
+         * Masteries are removed, like {@link Player#removeMastery(PlayerSkill)}. The mastery must have no skills left
+         * after the respec.
+         */
+        REMOVE
+    }
+
+    private Respec(Builder builder) {
+        this.skills = builder.skills;
+        this.masteries = builder.masteries;
+        this.attributes = builder.attributes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isSkills() {
+        return skills;
+    }
+
+    public Masteries getMasteries() {
+        return masteries;
+    }
+
+    public boolean isAttributes() {
+        return attributes;
+    }
+
+    public static final class Builder {
+        private boolean skills = false;
+        private Masteries masteries = Masteries.KEEP;
+        private boolean attributes = false;
+
+        /**
+         * Removes the skills of every mastery, refunding their levels.
+         */
+        public Builder skills() {
+            this.skills = true;
+            return this;
+        }
+
+        public Builder masteries(Masteries masteries) {
+            this.masteries = masteries;
+            return this;
+        }
+
+        /**
+         * Resets the attributes to the base values of the character class, refunding the increments.
+         */
+        public Builder attributes() {
+            this.attributes = true;
+            return this;
+        }
+
+        public Respec build() {
+            return new Respec(this);
+        }
+    }
+
+    /**
+     * A value changed by the respec.
+     */
+    public static final class Change {
+        public enum Kind {
+            SKILL_REMOVED,
+            MASTERY_LEVEL,
+            MASTERY_REMOVED,
+            ATTRIBUTE,
+            POINTS
+        }
+
+        private final Kind kind;
+        private final String name;
+        private final int before;
+        private final int after;
+
+        Change(Kind kind, String name, int before, int after) {
+            this.kind = kind;
+            this.name = name;
+            this.before = before;
+            this.after = after;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return record path of the skill, or the name of the variable
+         */
+        public String getName() {
+            return name;
+        }
+
+        public int getBefore() {
+            return before;
+        }
+
+        /**
+         * @return the new value, zero for removed skills and masteries
+         */
+        public int getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + name + ": " + before + " -> " + after;
+        }
+    }
+
+    /**
+     * The changes computed for a respec.
+     */
+    public static final class Plan {
+        private final List<Change> changes = new ArrayList<>();
+        final List<Integer> removedBlocks = new ArrayList<>();
+        final List<Integer> reclaimedMasteryBlocks = new ArrayList<>();
+        int skillPointsRefund = 0;
+        int attributePointsRefund = 0;
+
+        void add(Change change) {
+            changes.add(change);
+        }
+
+        public List<Change> getChanges() {
+            return Collections.unmodifiableList(changes);
+        }
+
+        public int getSkillPointsRefund() {
+            return skillPointsRefund;
+        }
+
+        public int getAttributePointsRefund() {
+            return attributePointsRefund;
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqdatabase.models.Skill;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Skills of the loaded character resolved against the game database, grouped by mastery. Records are resolved once
+ * per path and kept across updates, so a rebuild only looks up skills not seen before. Removed skills are dropped
+ * individually, and levels are read from the {@link PlayerSkill}, which is updated in place.
+ */
+public class SkillGraph {
+    private final Map<String, Skill> records = new HashMap<>();
+    private final Map<String, Skill> redirects = new HashMap<>();
+    private volatile List<Skill> masteries = Collections.emptyList();
+    private volatile Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Node>> children = Collections.emptyMap();
+
+    /**
+     * A skill of the character with its database record.
+     */
+    public static class Node {
+        private final PlayerSkill playerSkill;
+        private final Skill skill;
+        private final Skill displaySkill;
+
+        Node(PlayerSkill playerSkill, Skill skill, Skill displaySkill) {
+            this.playerSkill = playerSkill;
+            this.skill = skill;
+            this.displaySkill = displaySkill;
+        }
+
+        public PlayerSkill getPlayerSkill() {
+            return playerSkill;
+        }
+
+        public Skill getSkill() {
+            return skill;
+        }
+
+        /**
+         * @return the skill shown to the user, the pet or buff when the skill points to one
+         */
+        public Skill getDisplaySkill() {
+            return displaySkill;
+        }
+
+        public int getLevel() {
+            return playerSkill.getSkillLevel() == null ? 0 : playerSkill.getSkillLevel();
+        }
+    }
+
+    /**
+     * Rebuilds the graph from the skills found in the save.
+     *
+     * @param playerSkills skills of the character, by normalized record path
+     * @param lookup       resolves a record path, the boolean asks to follow pet and buff redirections
+     */
+    synchronized void update(Map<String, PlayerSkill> playerSkills, BiFunction<String, Boolean, Skill> lookup) {
+        List<Skill> newMasteries = new ArrayList<>();
+        Map<String, Node> newNodes = new ConcurrentHashMap<>();
+        Map<String, List<Node>> newChildren = new HashMap<>();
+
+        List<Map.Entry<String, PlayerSkill>> entries;
+        synchronized (playerSkills) {
+            entries = new ArrayList<>(playerSkills.entrySet());
+        }
+
+        for (Map.Entry<String, PlayerSkill> e : entries) {
+            String path = e.getKey();
+            Skill skill = records.computeIfAbsent(path, p -> lookup.apply(e.getValue().getSkillName(), false));
+            if (skill == null) {
+                continue;
+            }
+
+            Skill displaySkill = skill;
+            if (skill.isPointsToPet() || skill.isPointsToBuff()) {
+                displaySkill = redirects.computeIfAbsent(path, p -> lookup.apply(skill.getRecordPath(), true));
+            }
+
+            Node node = new Node(e.getValue(), skill, displaySkill);
+            newNodes.put(path, node);
+            if (skill.isMastery()) {
+                newMasteries.add(skill);
+            } else if (skill.getParentPath() != null) {
+                newChildren.computeIfAbsent(skill.getParentPath(), k -> new ArrayList<>()).add(node);
+            }
+        }
+
+        newChildren.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        masteries = Collections.unmodifiableList(newMasteries);
+        nodes = newNodes;
+        children = Collections.unmodifiableMap(newChildren);
+    }
+
+    /**
+     * Drops a skill removed from the save, without walking the other skills.
+     */
+    synchronized void remove(String path) {
+        Node node = nodes.remove(path);
+        if (node == null) {
+            return;
+        }
+
+        Skill skill = node.getSkill();
+        if (skill.isMastery()) {
+            List<Skill> newMasteries = new ArrayList<>(masteries);
+            newMasteries.remove(skill);
+            masteries = Collections.unmodifiableList(newMasteries);
+        } else if (skill.getParentPath() != null && children.containsKey(skill.getParentPath())) {
+            List<Node> siblings = new ArrayList<>(children.get(skill.getParentPath()));
+            siblings.remove(node);
+            Map<String, List<Node>> newChildren = new HashMap<>(children);
+            newChildren.put(skill.getParentPath(), Collections.unmodifiableList(siblings));
+            children = Collections.unmodifiableMap(newChildren);
+        }
+    }
+
+    synchronized void clear() {
+        records.clear();
+        redirects.clear();
+        masteries = Collections.emptyList();
+        nodes = new ConcurrentHashMap<>();
+        children = Collections.emptyMap();
+    }
+
+    public List<Skill> getMasteries() {
+        return masteries;
+    }
+
+    public Node getNode(String recordPath) {
+        return nodes.get(recordPath);
+    }
+
+    /**
+     * @param mastery mastery record
+     * @return the skills of the character that belong to the mastery
+     */
+    public List<Node> getSkills(Skill mastery) {
+        if (mastery == null) {
+            return Collections.emptyList();
+        }
+        return children.getOrDefault(mastery.getRecordPath(), Collections.emptyList());
+    }
+}
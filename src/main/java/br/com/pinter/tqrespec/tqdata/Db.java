@@ -32,10 +32,17 @@ import com.google.inject.Singleton;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Singleton
 public class Db {
     private static final System.Logger logger = Log.getLogger(Db.class.getName());
+    //the database is opened once and never replaced, the answers are valid for the whole run
+    private final Map<String, Boolean> recordIndex = new ConcurrentHashMap<>();
+    private final Object accessLock = new Object();
     private Database database;
     private Db.Platform platform = Db.Platform.WINDOWS;
     @Inject
@@ -45,7 +52,15 @@ public class Db {
         return platform;
     }
 
-    public void initialize() {
+    /**
+     * Lock held by code reading the database and the texts from several threads at the same time, tqdatabase doesn't
+     * document its classes as thread safe.
+     */
+    public Object getAccessLock() {
+        return accessLock;
+    }
+
+    public synchronized void initialize() {
         try {
             if (database == null) {
                 database = new Database(gameInfo.getDatabasePath());
@@ -83,8 +98,32 @@ public class Db {
         database.preloadAll();
     }
 
+    /**
+     * Checks a record in the database. The answer is kept by normalized path, the database is asked only once for
+     * each record.
+     */
     public boolean recordExists(String recordId) {
-        return database.recordExists(recordId);
+        String path = Database.normalizeRecordPath(recordId);
+        if (path == null) {
+            return database.recordExists(recordId);
+        }
+        return recordIndex.computeIfAbsent(path, p -> database.recordExists(recordId));
+    }
+
+    /**
+     * Checks several records, calling {@link #recordExists(String)} for each one in a plain loop. Records already
+     * checked are answered from the index.
+     *
+     * @param recordIds records to check
+     * @return whether each record exists, in the order received
+     */
+    public Map<String, Boolean> recordsExist(Collection<String> recordIds) {
+        initialize();
+        Map<String, Boolean> ret = new LinkedHashMap<>();
+        for (String recordId : recordIds) {
+            ret.computeIfAbsent(recordId, this::recordExists);
+        }
+        return ret;
     }
 
     public enum Platform {
@@ -22,11 +22,14 @@ package br.com.pinter.tqrespec.tqdata;
 
 import br.com.pinter.tqrespec.save.UID;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 
-public class DefaultMapTeleport extends MapTeleport {
-    private static List<DefaultMapTeleport> tp = new ArrayList<>();
+public final class DefaultMapTeleport extends MapTeleport {
+    private static final List<DefaultMapTeleport> tp = new ArrayList<>();
+    private static final Map<UID, DefaultMapTeleport> byUid = new HashMap<>();
+    private static final Map<Integer, DefaultMapTeleport> byOrder = new HashMap<>();
+    private static final Map<String, DefaultMapTeleport> byRecordId = new HashMap<>();
 
     static {
         /* Greece */
@@ -133,18 +136,42 @@ public class DefaultMapTeleport extends MapTeleport {
     }
 
     public DefaultMapTeleport(int order, UID uid, DefaultAct act, String recordId) {
-        super(order, uid, DefaultAct.get(act), recordId);
+        super(order, uid, DefaultAct.get(act), recordId, null);
+    }
+
+    private DefaultMapTeleport(DefaultMapTeleport teleport, String name) {
+        super(teleport.getOrder(), teleport.getUid(), teleport.getAct(), teleport.getRecordId(), name);
+    }
+
+    static {
+        for (DefaultMapTeleport t : tp) {
+            byUid.put(t.getUid(), t);
+            byOrder.put(t.getOrder(), t);
+            byRecordId.put(t.getRecordId(), t);
+        }
     }
 
     public static MapTeleport get(int order) {
-        return tp.stream().filter(f -> f.getOrder() == order).findFirst().orElse(null);
+        return byOrder.get(order);
     }
 
     public static MapTeleport get(UID uid) {
-        return tp.stream().filter(f -> f.getUid().equals(uid)).findFirst().orElse(null);
+        return byUid.get(uid);
     }
 
     public static MapTeleport get(String recordId) {
-        return tp.stream().filter(f -> f.getRecordId().equals(recordId)).findFirst().orElse(null);
+        return byRecordId.get(recordId);
+    }
+
+    /**
+     * @param names resolves the name tag of a teleport record
+     * @return a copy of every default teleport with its name, in the order of the definitions
+     */
+    static List<MapTeleport> named(Function<String, String> names) {
+        List<MapTeleport> ret = new ArrayList<>();
+        for (DefaultMapTeleport t : tp) {
+            ret.add(new DefaultMapTeleport(t, names.apply(t.getRecordId())));
+        }
+        return Collections.unmodifiableList(ret);
     }
 }
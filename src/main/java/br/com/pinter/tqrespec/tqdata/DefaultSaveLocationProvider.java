@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.util.Constants;
+import com.sun.jna.platform.win32.ShlObj;
+import com.sun.jna.platform.win32.Shell32Util;
+import org.apache.commons.lang3.SystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class DefaultSaveLocationProvider implements SaveLocationProvider {
+    private static final System.Logger logger = Log.getLogger(DefaultSaveLocationProvider.class.getName());
+
+    @Override
+    public Path getSavePath() {
+        String userHome = System.getProperty("user.home");
+        logger.log(System.Logger.Level.DEBUG, "SavePath: user.home is ''{0}''", userHome);
+
+        if (!SystemUtils.IS_OS_WINDOWS) {
+            return Paths.get(Constants.DEV_GAMEDATA);
+        }
+
+        String saveDirectory;
+        try {
+            saveDirectory = Shell32Util.getFolderPath(ShlObj.CSIDL_MYDOCUMENTS);
+        } catch (Exception e) {
+            saveDirectory = userHome;
+        }
+
+        Path savePath = Paths.get(saveDirectory, Constants.SAVEGAME_SUBDIR);
+        if (Files.exists(savePath)) {
+            logger.log(System.Logger.Level.DEBUG, "SavePath: found");
+            return savePath.toAbsolutePath();
+        }
+        return null;
+    }
+
+    @Override
+    public Path getExternalSavePath() {
+        Path external = Paths.get(Constants.EXT_SAVEDATA);
+        if (external.toFile().isDirectory()) {
+            logger.log(System.Logger.Level.DEBUG, "External save path found: " + external);
+            return external;
+        }
+        return null;
+    }
+}
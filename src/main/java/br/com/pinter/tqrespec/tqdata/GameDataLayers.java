@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The archives of the installation, as layers from the lowest to the highest precedence: base game, expansion and,
+ * eventually, mods. A record or text tag found in a layer overrides the same one from the layers before it. The
+ * database and text readers receive the archives in this order, and the snapshot key is computed from the same list.
+ * The layers only order the archives: skills, teleports and player records are still read by tqdatabase, which probes
+ * the archives of every layer, so a lookup costs more as layers are added. Only the record checks of
+ * {@link Db#recordExists(String)} and the strings of {@link Txt} are cached.
+ */
+public final class GameDataLayers {
+    public static final GameDataLayers EMPTY = new GameDataLayers(Collections.emptyList());
+
+    private final List<Layer> layers;
+    private final List<Path> databases;
+    private final List<Path> textPaths;
+
+    public enum Kind {
+        BASE,
+        EXPANSION,
+        MOD
+    }
+
+    public static final class Layer {
+        private final Kind kind;
+        private final Path database;
+        private final List<Path> textPaths;
+
+        /**
+         * @param kind      kind of layer, layers are kept sorted by kind
+         * @param database  database.arz of the layer, or null if it only adds text
+         * @param textPaths text directories of the layer
+         */
+        public Layer(Kind kind, Path database, Path... textPaths) {
+            this.kind = Objects.requireNonNull(kind);
+            this.database = database;
+            this.textPaths = List.of(textPaths);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public Path getDatabase() {
+            return database;
+        }
+
+        public List<Path> getTextPaths() {
+            return textPaths;
+        }
+
+        @Override
+        public String toString() {
+            return kind + "{database=" + database + ", text=" + textPaths + '}';
+        }
+    }
+
+    private GameDataLayers(List<Layer> layers) {
+        this.layers = Collections.unmodifiableList(layers);
+
+        List<Path> allDatabases = new ArrayList<>();
+        List<Path> allText = new ArrayList<>();
+        for (Layer layer : layers) {
+            if (layer.database != null && !allDatabases.contains(layer.database)) {
+                allDatabases.add(layer.database);
+            }
+            for (Path p : layer.textPaths) {
+                if (!allText.contains(p)) {
+                    allText.add(p);
+                }
+            }
+        }
+        this.databases = Collections.unmodifiableList(allDatabases);
+        this.textPaths = Collections.unmodifiableList(allText);
+    }
+
+    public static GameDataLayers of(Layer... layers) {
+        return EMPTY.with(layers);
+    }
+
+    /**
+     * @param added layers to add, they take precedence over the existing layers of the same kind
+     * @return a new instance with the layers added
+     */
+    public GameDataLayers with(Layer... added) {
+        List<Layer> newLayers = new ArrayList<>(layers);
+        for (Layer layer : added) {
+            int i = 0;
+            while (i < newLayers.size() && newLayers.get(i).kind.compareTo(layer.kind) <= 0) {
+                i++;
+            }
+            newLayers.add(i, layer);
+        }
+        return new GameDataLayers(newLayers);
+    }
+
+    public List<Layer> getLayers() {
+        return layers;
+    }
+
+    /**
+     * @return database archives, from the lowest to the highest precedence
+     */
+    public List<Path> getDatabases() {
+        return databases;
+    }
+
+    /**
+     * @return text directories, from the lowest to the highest precedence
+     */
+    public List<Path> getTextPaths() {
+        return textPaths;
+    }
+
+    public boolean isEmpty() {
+        return layers.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return layers.toString();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * On-disk snapshot of the localized strings resolved from the game text archives. The snapshot is keyed by the
+ * path, size and modification time of every database and text archive, and by the text language; when it matches,
+ * the strings are read from the snapshot and the text archives don't need to be preloaded. The file is read at once
+ * and closed, so it can be replaced when the application exits.
+ */
+@Singleton
+public class GameDataSnapshot {
+    private static final System.Logger logger = Log.getLogger(GameDataSnapshot.class.getName());
+    private static final String SNAPSHOT_FILE = "gamedata.snapshot";
+    private static final int MAGIC = 0x54515253;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private volatile boolean opened = false;
+    private volatile boolean hit = false;
+    private boolean saveOnExit = false;
+    private String key;
+
+    @Inject
+    private GameInfo gameInfo;
+
+    /**
+     * Loads the snapshot of the current game files. Strings recorded before this call are kept.
+     *
+     * @param language language of the text archives
+     * @return true if a snapshot matching the game files was found
+     */
+    public synchronized boolean open(String language) {
+        if (opened) {
+            return hit;
+        }
+        opened = true;
+
+        try {
+            key = snapshotKey(gameInfo.getDatabasePath(), gameInfo.getTextPath(), language);
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to build game data snapshot key", e);
+            return false;
+        }
+        if (!saveOnExit) {
+            saveOnExit = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(this::save, "GameDataSnapshot"));
+        }
+
+        Path snapshotFile = getSnapshotFile();
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return false;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || !key.equals(readString(buffer))) {
+                logger.log(System.Logger.Level.DEBUG, "game data snapshot is outdated, ignoring");
+                dirty.set(true);
+                return false;
+            }
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                strings.putIfAbsent(readString(buffer), readString(buffer));
+            }
+            hit = true;
+            logger.log(System.Logger.Level.DEBUG, "game data snapshot loaded, {0} strings", count);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to read game data snapshot, ignoring", e);
+            strings.clear();
+            dirty.set(true);
+        }
+        return hit;
+    }
+
+    public boolean isHit() {
+        return hit;
+    }
+
+    public String getString(String tag) {
+        return strings.get(tag);
+    }
+
+    public void putString(String tag, String value) {
+        if (tag != null && value != null && !value.equals(strings.put(tag, value))) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Drops the strings, used when they no longer match the text archives in use.
+     */
+    public synchronized void invalidate() {
+        strings.clear();
+        hit = false;
+        opened = false;
+        dirty.set(false);
+    }
+
+    /**
+     * Writes the snapshot if strings were added since it was read.
+     */
+    public synchronized void save() {
+        Path snapshotFile = getSnapshotFile();
+        if (key == null || snapshotFile == null || !dirty.compareAndSet(true, false)) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            Path tmp = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+            Map<String, String> copy = new HashMap<>(strings);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, key);
+                out.writeInt(copy.size());
+                for (Map.Entry<String, String> e : copy.entrySet()) {
+                    writeString(out, e.getKey());
+                    writeString(out, e.getValue());
+                }
+            }
+            try {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Unable to write game data snapshot", e);
+        }
+    }
+
+    private Path getSnapshotFile() {
+        String savePath = gameInfo.getSavePath();
+        if (StringUtils.isEmpty(savePath)) {
+            return null;
+        }
+        return Paths.get(savePath, Constants.CACHE_DIRECTORY, SNAPSHOT_FILE);
+    }
+
+    static String snapshotKey(String[] databasePaths, String[] textPaths, String language) {
+        StringBuilder sb = new StringBuilder(String.valueOf(language));
+        List<File> files = new ArrayList<>();
+        for (String p : databasePaths) {
+            files.add(new File(p));
+        }
+        for (String p : textPaths) {
+            File f = new File(p);
+            File[] archives = f.isDirectory() ? f.listFiles((dir, name) -> name.toLowerCase().endsWith(".arc")) : null;
+            if (archives != null) {
+                Arrays.sort(archives);
+                files.addAll(Arrays.asList(archives));
+            } else {
+                files.add(f);
+            }
+        }
+        for (File f : files) {
+            sb.append('|').append(f.getAbsolutePath()).append(':').append(f.length()).append(':').append(f.lastModified());
+        }
+        return sb.toString();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
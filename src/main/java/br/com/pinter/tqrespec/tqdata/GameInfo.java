@@ -26,8 +26,8 @@ import br.com.pinter.tqrespec.gui.ResourceHelper;
 import br.com.pinter.tqrespec.logging.Log;
 import br.com.pinter.tqrespec.save.SaveLocation;
 import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.sun.jna.platform.win32.*;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 
@@ -42,8 +42,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Singleton
 public class GameInfo {
@@ -52,10 +50,8 @@ public class GameInfo {
     private static final String DATABASE_FILE = "database.arz";
     private static final String TEXT_FILE = "Text_EN.arc";
     private static final String RESOURCES_DIR = "Resources";
-    private static final String REG_KEY_VALVE_STEAM = "SOFTWARE\\Valve\\Steam";
     private final System.Logger logger = Log.getLogger(GameInfo.class.getName());
-    private final List<Path> resourcesText = new ArrayList<>();
-    private final List<Path> databases = new ArrayList<>();
+    private volatile GameDataLayers dataLayers = GameDataLayers.EMPTY;
     private String gamePath = null;
     private InstallType installType = InstallType.UNKNOWN;
     private Path tqBasePath = null;
@@ -64,6 +60,23 @@ public class GameInfo {
     private boolean dlcRagnarok = false;
     private boolean dlcAtlantis = false;
 
+    private String detectedProbe = null;
+
+    @Inject
+    private SaveLocationResolver saveLocationResolver;
+
+    private final InstallProbeContext probeContext = new InstallProbeContext() {
+        @Override
+        public boolean isValidGamePath(Path path) {
+            return GameInfo.this.isValidGamePath(path);
+        }
+
+        @Override
+        public GameVersion getGameVersion(Path path) {
+            return GameInfo.this.getGameVersion(path);
+        }
+    };
+
     private boolean isValidGamePath(Path path) {
         if (path == null) {
             return false;
@@ -108,317 +121,34 @@ public class GameInfo {
         return gamePathFileExists(basePath, RESOURCES_DIR, "XPack3");
     }
 
-    private Path getGameSteamPath() {
-        Path steamLibraryPath = getSteamLibraryPath();
-        logger.log(System.Logger.Level.DEBUG, "LibraryPathFound -- ''{0}''", steamLibraryPath);
-        if (steamLibraryPath != null) {
-            Path steamGamePath = Paths.get(steamLibraryPath.toString(), Constants.GAME_DIRECTORY_STEAM).toAbsolutePath();
-            if (isValidGamePath(steamGamePath)) {
-                return steamGamePath;
-            }
-        }
-        return null;
-    }
-
-    private Path getSteamLibraryPath() {
-        String steamPath = null;
-        try {
-            steamPath = Advapi32Util.registryGetStringValue(
-                    WinReg.HKEY_CURRENT_USER, REG_KEY_VALVE_STEAM, "SteamPath");
-        } catch (Win32Exception e) {
-            logger.log(System.Logger.Level.ERROR, "", e);
-        }
-
-        try {
-            if (steamPath == null) {
-                steamPath = Advapi32Util.registryGetStringValue(
-                        WinReg.HKEY_LOCAL_MACHINE, REG_KEY_VALVE_STEAM, "InstallPath",
-                        WinNT.KEY_WOW64_32KEY);
-            }
-        } catch (Win32Exception e) {
-            logger.log(System.Logger.Level.ERROR, "", e);
-            return null;
-        }
-
-        try {
-            Path steamLibraryFolderVdf = Paths.get(steamPath, "SteamApps", "libraryfolders.vdf").toAbsolutePath();
-
-            List<String> libraryPaths = getLibraryPathsFromSteam(steamLibraryFolderVdf.toString());
-
-            logger.log(System.Logger.Level.DEBUG, "libraryFolderList -- ''{0}''", libraryPaths);
-
-            for (String directory : libraryPaths) {
-                logger.log(System.Logger.Level.DEBUG, "Trying library -- ''{0}''", directory);
-
-                Path libraryPath = Paths.get(directory, "SteamApps").toAbsolutePath();
-                Path libraryGamePath = Paths.get(libraryPath.toString(), Constants.GAME_DIRECTORY_STEAM).toAbsolutePath();
-                if (isValidGamePath(libraryGamePath)) {
-                    logger.log(System.Logger.Level.DEBUG, "VALID PATH FOUND!! -- ''{0}''", libraryGamePath);
-                    return libraryPath;
-                }
-            }
-        } catch (Exception e) {
-            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
-        }
-        return null;
-    }
-
-    private List<String> getLibraryPathsFromSteam(String configPath) {
-        Pattern regexLibraryFolders = Pattern.compile("\"LibraryFolders\"\\s*[\\n\\s.]*\\{(.*)}[\\n\\s\\W]*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
-
-        Pattern regexAppsLibraries = Pattern.compile("\\s*(?<=\"\\d{1,10}\")[\\n\\s]*\\{([^}]*(?:(?<=\\{).*(?=})){0,100}[^}]+})[\\n\\s]*}[\\n\\s\\W]*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
-
-        Pattern regexLibraryPath = Pattern.compile("\"path\"\\s*\"([^\"]*)\"[\\n\\W]*", Pattern.CASE_INSENSITIVE);
-
-        Pattern regexAppId = Pattern.compile("\"(\\d{1,10})\"\\s*\"([^\"]*)\"[\\n\\W]*");
-
-        Pattern regexApps = Pattern.compile("(?<=\"apps\")[\\n\\s]*\\{((?:(?<=\\{).*(?=})){0,100}[^}]+)}[\\n\\s\\W]*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
-
-        Pattern regexInner = Pattern.compile("\"\\d{1,10}\"[\\n\\s]*(?<!\\{)\"([^\"]+)\"");
-
-        String steamConfig;
-        try {
-            steamConfig = Files.readString(Paths.get(configPath));
-        } catch (IOException e) {
-            return Collections.emptyList();
-        }
-
-        List<String> librariesPath = new ArrayList<>();
-        Matcher matcherFile = regexLibraryFolders.matcher(steamConfig);
-        if (matcherFile.find()) {
-            String libraryFoldersContent = matcherFile.group(1);
-            Matcher matcherLibrary = regexAppsLibraries.matcher(libraryFoldersContent);
-            if (matcherLibrary.find()) {
-                matcherLibrary.results().forEach(l -> {
-                    Matcher matcherApp = regexApps.matcher(l.group(1));
-                    matcherApp.results().forEach(a -> {
-                        Matcher matcherAppId = regexAppId.matcher(a.group(1));
-                        matcherAppId.results().forEach(id -> {
-                            if (StringUtils.equals(id.group(1), "475150")) {
-                                logger.log(System.Logger.Level.DEBUG, "Steam AppId found ''{0}''", id.group(1));
-                            }
-                        });
-                    });
-                    Matcher matcherPath = regexLibraryPath.matcher(l.group(1));
-                    if (matcherPath.find() && Files.isDirectory(Path.of(matcherPath.group(1)))) {
-                        librariesPath.add(matcherPath.group(1));
-                    }
-                });
-            }
-
-            if (librariesPath.isEmpty()) {
-                Matcher inner = regexInner.matcher(libraryFoldersContent);
-                while (inner.find()) {
-                    if (inner.group(1) != null && !inner.group(1).isEmpty()) {
-                        librariesPath.add(inner.group(1));
-                    }
-                }
-            }
-        }
-        return librariesPath;
-    }
-
-    private Path getGameGogPath() {
-        try {
-            //TQAE GOG 1196955511
-            String gog = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE,
-                    "SOFTWARE\\GOG.com\\Games\\1196955511", "PATH", WinNT.KEY_WOW64_32KEY);
-            if (StringUtils.isNotEmpty(gog)) {
-                Path gogPath = Paths.get(gog).toAbsolutePath();
-                if (isValidGamePath(gogPath)) {
-                    return gogPath;
-                }
-            }
-        } catch (Exception e) {
-            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
-        }
-        return null;
-    }
-
-    private Path getGameDiscTqitPath() {
-        return getGameDiscPath("SOFTWARE\\Iron Lore\\Titan Quest Immortal Throne");
-    }
-
     private Path getGameDiscTqPath() {
-        return getGameDiscPath("SOFTWARE\\Iron Lore\\Titan Quest");
-    }
-
-    private Path getGameDiscPath(String reg) {
-        try {
-            String disc = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE, reg, "Install Location", WinNT.KEY_WOW64_32KEY);
-            if (StringUtils.isNotBlank(disc)) {
-                Path discPath = Paths.get(disc).toAbsolutePath();
-                if (isValidGamePath(discPath)) {
-                    return discPath;
-                }
-            }
-        } catch (Win32Exception e) {
-            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
-        }
-
-        return null;
-    }
-
-    private Path getGameInstalledPath(String regexGameName) {
-        String[] installedApps = new String[0];
-        try {
-            installedApps = Advapi32Util.registryGetKeys(WinReg.HKEY_LOCAL_MACHINE,
-                    "SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\Uninstall");
-        } catch (Exception e) {
-            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
-        }
-
-        for (String app : installedApps)
-            try {
-                String appDisplayName = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE,
-                        "SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\" + app, "DisplayName");
-                if (appDisplayName.matches(regexGameName)) {
-                    logger.log(System.Logger.Level.DEBUG, "Installed: displayname found -- ''{0}''", regexGameName);
-                    String installed = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE,
-                            "SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\" + app, "InstallLocation");
-                    Path installedPath = Paths.get(installed).toAbsolutePath();
-                    if (isValidGamePath(installedPath)) {
-                        return installedPath;
-                    }
-                } else {
-                    logger.log(System.Logger.Level.DEBUG, "Installed: displayname not found --- ''{0}'' -- ''{1}''", regexGameName, appDisplayName);
-                }
-            } catch (Exception e) {
-                logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
-            }
-        return null;
+        return InstallProbes.getGameDiscPath(probeContext, "SOFTWARE\\Iron Lore\\Titan Quest");
     }
 
-    private Path getGameMicrosoftStorePath() {
-        String regexGameName = Constants.REGEX_REGISTRY_PACKAGE;
-        String[] pkgList;
-        String pkgKeyPath = "Software\\Classes\\Local Settings\\Software\\Microsoft\\Windows\\CurrentVersion\\" +
-                "AppModel\\Repository\\Packages";
-        try {
-            pkgList = Advapi32Util.registryGetKeys(WinReg.HKEY_CURRENT_USER,
-                    pkgKeyPath);
-        } catch (Win32Exception e) {
-            logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, e);
+    private Path detectInstallation() throws GameNotFoundException {
+        InstallProbeResult result = new InstallProbeRunner(InstallProbes.defaults(), Constants.INSTALL_PROBE_TIMEOUT_MS)
+                .run(probeContext);
+        if (result == null) {
             return null;
         }
 
-        for (String pkg : pkgList) {
-            try {
-                String pkgDisplayName = Advapi32Util.registryGetStringValue(WinReg.HKEY_CURRENT_USER,
-                        String.format("%s\\%s", pkgKeyPath, pkg), "DisplayName");
-                if (pkgDisplayName.matches(regexGameName)) {
-                    logger.log(System.Logger.Level.DEBUG, "Package: displayname found -- ", regexGameName);
-                    String pkgInstalled = Advapi32Util.registryGetStringValue(WinReg.HKEY_CURRENT_USER,
-                            String.format("%s\\%s", pkgKeyPath, pkg), "PackageRootFolder");
-                    Path pkgInstalledPath = Paths.get(pkgInstalled).toAbsolutePath();
-                    if (isValidGamePath(pkgInstalledPath)) {
-                        return pkgInstalledPath;
-                    }
-                } else {
-                    logger.log(System.Logger.Level.DEBUG, "Package: displayname not found --- ''{0}'' -- ''{1}''", regexGameName, pkgDisplayName);
-                }
-            } catch (Win32Exception e) {
-                logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, e);
-            }
+        logger.log(System.Logger.Level.DEBUG, "Installation found: ''{0}''", result);
+        installedVersion = result.getVersion();
+        installType = result.getInstallType();
+        detectedProbe = result.getProbe();
+        if (GameVersion.TQIT.equals(installedVersion) && InstallType.UNKNOWN.equals(installType)) {
+            detectTqBasePath(result.getPath());
         }
-
-        return null;
+        return result.getPath();
     }
 
-    private Path getGameSteamApiBasedPath() {
-        try {
-            String steamPath = Advapi32Util.registryGetStringValue(
-                    WinReg.HKEY_CURRENT_USER, REG_KEY_VALVE_STEAM, "SteamPath");
-
-            Path steamGamePath = Paths.get(steamPath).toAbsolutePath();
-            if (isValidGamePath(steamGamePath)) {
-                return steamGamePath;
-            } else {
-                logger.log(System.Logger.Level.DEBUG, "GameSteamApiBasedPath: not found at ''{0}''", steamGamePath);
-            }
-
-            Path steamGameParentPath = Paths.get(steamPath).getParent().toAbsolutePath();
-            if (isValidGamePath(steamGameParentPath)) {
-                return steamGameParentPath;
-            } else {
-                logger.log(System.Logger.Level.DEBUG, "GameSteamApiBasedPath: not found at ''{0}''", steamGameParentPath);
-            }
-        } catch (Exception e) {
-            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
-        }
-        return null;
-    }
-
-    private Path detectInstallation() throws GameNotFoundException {
-        //search AE in Windows registry
-        Path installedPath = getGameInstalledPath(Constants.REGEX_REGISTRY_INSTALL);
-        if (isValidGamePath(installedPath)) {
-            logger.log(System.Logger.Level.DEBUG, "Installed: found");
-            installedVersion = GameVersion.TQAE;
-            installType = InstallType.WINDOWS;
-            return installedPath;
-        }
-
-        //search AE in Steam
-        Path gameSteam = getGameSteamPath();
-        if (isValidGamePath(gameSteam)) {
-            logger.log(System.Logger.Level.DEBUG, "SteamLibrary: found");
-            installedVersion = GameVersion.TQAE;
-            installType = InstallType.STEAM;
-            return gameSteam;
-        }
-
-        //search AE in GOG
-        Path gogPath = getGameGogPath();
-        if (isValidGamePath(gogPath)) {
-            logger.log(System.Logger.Level.DEBUG, "Gog: found");
-            installedVersion = GameVersion.TQAE;
-            installType = InstallType.GOG;
-            return gogPath;
-        }
-
-        //try Windows registry with more generic name, and guess the version
-        Path installedPathFallback = getGameInstalledPath(Constants.REGEX_REGISTRY_INSTALL_FALLBACK);
-        if (isValidGamePath(installedPathFallback)) {
-            logger.log(System.Logger.Level.DEBUG, "Installed: found");
-            installType = InstallType.WINDOWS;
-            installedVersion = getGameVersion(installedPathFallback);
-            if (!GameVersion.UNKNOWN.equals(installedVersion)) {
-                return installedPathFallback;
-            }
-        }
-
-        //search AE in MS Store
-        Path microsoftStorePath = getGameMicrosoftStorePath();
-        if (isValidGamePath(microsoftStorePath)) {
-            logger.log(System.Logger.Level.DEBUG, "Package: found");
-            installedVersion = GameVersion.TQAE;
-            installType = InstallType.MICROSOFT_STORE;
-            return microsoftStorePath;
-        }
-
-        //Anniversary Edition not found, search for TQIT
-        Path discPath = getGameDiscTqitPath();
-        if (isValidGamePath(discPath)) {
-            logger.log(System.Logger.Level.DEBUG, "Disc: found");
-            installedVersion = GameVersion.TQIT;
-            detectTqBasePath(discPath);
-            return discPath;
-        }
-
-        //Search versions that incorrectly uses SteamPath registry
-        Path alternativeSteamBasedPath = getGameSteamApiBasedPath();
-        if (isValidGamePath(alternativeSteamBasedPath)) {
-            logger.log(System.Logger.Level.DEBUG, "'Alternative' (modified dll) installation: found");
-            installedVersion = getGameVersion(alternativeSteamBasedPath);
-            installType = InstallType.ALTERNATIVE_STEAM_API;
-            return alternativeSteamBasedPath;
-        }
-
-        return null;
+    /**
+     * Identifies the installation found, so the next start can tell if the game was updated or replaced without
+     * running the probes again.
+     */
+    private String installFingerprint(Path path) {
+        File database = Paths.get(path.toString(), DATABASE_DIR, DATABASE_FILE).toFile();
+        return String.format("%s|%d|%d", path.toAbsolutePath(), database.length(), database.lastModified());
     }
 
     private void detectTqBasePath(Path discPath) throws GameNotFoundException {
@@ -450,6 +180,8 @@ public class GameInfo {
             Settings.setLastDetectedGamePath(gamePath);
             Settings.setLastDetectedGameVersion(installedVersion);
             Settings.setLastDetectedInstallType(installType);
+            Settings.setLastDetectedProbe(detectedProbe);
+            Settings.setLastDetectedFingerprint(installFingerprint(Paths.get(gamePath)));
             if (tqBasePath != null) {
                 Settings.setLastDetectedTqBasePath(tqBasePath.toString());
             } else {
@@ -466,6 +198,7 @@ public class GameInfo {
         Path manualPath = Paths.get(path);
         if (isValidGamePath(manualPath) && (isTqAe(manualPath) || isTqitDisc(manualPath) || isTqitSteam(manualPath))) {
             installedVersion = getGameVersion(manualPath);
+            detectedProbe = null;
             if (GameVersion.TQIT.equals(installedVersion)) {
                 detectTqBasePath(manualPath);
             }
@@ -486,6 +219,7 @@ public class GameInfo {
         if (isValidGamePath(manualTqPath) && isTqPath(manualTqPath)) {
             tqBasePath = manualTqPath;
             installedVersion = GameVersion.TQIT;
+            detectedProbe = null;
             installType = detectTqItInstallType(manualTqItPath);
             setGamePath(tqItPath);
             logger.log(System.Logger.Level.INFO, "Path manually set: path:{0};version:{1}:type:{2}", manualTqItPath, installedVersion, installType);
@@ -506,8 +240,7 @@ public class GameInfo {
                 throw new GameNotFoundException("Game path not found", e);
             }
             saveDetectedGame();
-            logger.log(System.Logger.Level.INFO, "Using databases ''{0}''", databases.toString());
-            logger.log(System.Logger.Level.INFO, "Using text ''{0}''", resourcesText.toString());
+            logger.log(System.Logger.Level.INFO, "Using data layers ''{0}''", dataLayers);
             logger.log(System.Logger.Level.INFO, "GameVersion:''{0}'';InstallType:''{1}''", installedVersion, installType);
             return gamePath;
         } else {
@@ -517,13 +250,12 @@ public class GameInfo {
 
     private String setDevGamePath(String path) {
         if (Paths.get(path, DATABASE_DIR).toFile().isDirectory() && Paths.get(path, TEXT_DIR).toFile().isDirectory()) {
-            addDatabasePath(Paths.get(path, DATABASE_DIR, DATABASE_FILE));
-            addTextPath(Paths.get(path, TEXT_DIR));
+            dataLayers = GameDataLayers.of(new GameDataLayers.Layer(GameDataLayers.Kind.BASE,
+                    Paths.get(path, DATABASE_DIR, DATABASE_FILE), Paths.get(path, TEXT_DIR)));
             dlcRagnarok = true;
             dlcAtlantis = true;
             gamePath = path;
-            logger.log(System.Logger.Level.INFO, "Using databases ''{0}''", databases.toString());
-            logger.log(System.Logger.Level.INFO, "Using text ''{0}''", resourcesText.toString());
+            logger.log(System.Logger.Level.INFO, "Using data layers ''{0}''", dataLayers);
             logger.log(System.Logger.Level.INFO, "GameVersion:''{0}'';InstallType:''{1}''", installedVersion, installType);
             return gamePath;
         }
@@ -553,12 +285,39 @@ public class GameInfo {
                     throw new GameNotFoundException("TQ base game not found for steam-version of TQIT: " + gamePath);
                 }
             }
+            String lastUsedProbe = Settings.getLastDetectedProbe();
+            String fingerprint = Settings.getLastDetectedFingerprint();
+            if (fingerprint != null && !fingerprint.equals(installFingerprint(Paths.get(lastUsedPath)))
+                    && !isStillInstalled(Paths.get(lastUsedPath), lastUsedVersion, lastUsedProbe)) {
+                //the installation changed since the last start, detect it again
+                logger.log(System.Logger.Level.INFO, "Last-used game path changed, detecting again.");
+                removeSavedDetectedGame();
+                return null;
+            }
+            detectedProbe = lastUsedProbe;
             logger.log(System.Logger.Level.DEBUG, "Last-used game path found.");
+            //saves the fingerprint of the installation found, an updated game is checked only once
             return setGamePath(lastUsedPath);
         }
         return null;
     }
 
+    /**
+     * Checks an installation changed since the last start, running only the probe that found it.
+     */
+    private boolean isStillInstalled(Path path, GameVersion version, String probeName) {
+        InstallProbe probe = InstallProbes.find(probeName);
+        if (probe == null) {
+            //path set manually, or saved by an older version
+            return version.equals(getGameVersion(path));
+        }
+
+        InstallProbeResult result = new InstallProbeRunner(List.of(probe), Constants.INSTALL_PROBE_TIMEOUT_MS)
+                .run(probeContext);
+        return result != null && version.equals(result.getVersion())
+                && path.toAbsolutePath().normalize().equals(result.getPath().toAbsolutePath().normalize());
+    }
+
     public String getGamePath() throws GameNotFoundException {
         if (StringUtils.isEmpty(gamePath) && !SystemUtils.IS_OS_WINDOWS) {
             logger.log(System.Logger.Level.DEBUG, "OS is not windows, using dev game path");
@@ -637,16 +396,11 @@ public class GameInfo {
         return GameVersion.UNKNOWN;
     }
 
-    private void addDatabasePath(Path path) {
-        if (!databases.contains(path)) {
-            databases.add(path);
-        }
-    }
-
-    private void addTextPath(Path path) {
-        if (!resourcesText.contains(path)) {
-            resourcesText.add(path);
-        }
+    /**
+     * @return the archives of the installation in use, ordered by precedence
+     */
+    public GameDataLayers getDataLayers() {
+        return dataLayers;
     }
 
     private void searchGamepathResources() throws GameNotFoundException {
@@ -655,20 +409,21 @@ public class GameInfo {
         }
 
         if (GameVersion.TQIT.equals(installedVersion) && InstallType.STEAM.equals(installType)) {
-            addDatabasePath(Paths.get(tqBasePath.toString(), DATABASE_DIR, DATABASE_FILE));
-            addDatabasePath(Paths.get(gamePath, DATABASE_DIR, DATABASE_FILE));
-            addTextPath(Paths.get(gamePath, TEXT_DIR));
-            addTextPath(Paths.get(gamePath, RESOURCES_DIR));
+            dataLayers = GameDataLayers.of(
+                    new GameDataLayers.Layer(GameDataLayers.Kind.BASE, Paths.get(tqBasePath.toString(), DATABASE_DIR, DATABASE_FILE)),
+                    new GameDataLayers.Layer(GameDataLayers.Kind.EXPANSION, Paths.get(gamePath, DATABASE_DIR, DATABASE_FILE),
+                            Paths.get(gamePath, TEXT_DIR), Paths.get(gamePath, RESOURCES_DIR)));
             logger.log(System.Logger.Level.DEBUG, "steam tqit");
         } else if (GameVersion.TQIT.equals(installedVersion) && InstallType.LEGACY_DISC.equals(installType)) {
-            addDatabasePath(Paths.get(tqBasePath.toString(), DATABASE_DIR, DATABASE_FILE));
-            addDatabasePath(Paths.get(gamePath, DATABASE_DIR, DATABASE_FILE));
-            addTextPath(Paths.get(tqBasePath.toString(), TEXT_DIR));
-            addTextPath(Paths.get(gamePath, RESOURCES_DIR));
+            dataLayers = GameDataLayers.of(
+                    new GameDataLayers.Layer(GameDataLayers.Kind.BASE, Paths.get(tqBasePath.toString(), DATABASE_DIR, DATABASE_FILE),
+                            Paths.get(tqBasePath.toString(), TEXT_DIR)),
+                    new GameDataLayers.Layer(GameDataLayers.Kind.EXPANSION, Paths.get(gamePath, DATABASE_DIR, DATABASE_FILE),
+                            Paths.get(gamePath, RESOURCES_DIR)));
             logger.log(System.Logger.Level.DEBUG, "legacy disc");
         } else if (GameVersion.TQAE.equals(installedVersion)) {
-            addDatabasePath(Paths.get(gamePath, DATABASE_DIR, DATABASE_FILE));
-            addTextPath(Paths.get(gamePath, TEXT_DIR));
+            dataLayers = GameDataLayers.of(new GameDataLayers.Layer(GameDataLayers.Kind.BASE,
+                    Paths.get(gamePath, DATABASE_DIR, DATABASE_FILE), Paths.get(gamePath, TEXT_DIR)));
             if (existsXpack2(Paths.get(gamePath))) {
                 dlcRagnarok = true;
             }
@@ -682,69 +437,34 @@ public class GameInfo {
     }
 
     public String getSavePath() {
-        String userHome = System.getProperty("user.home");
-        logger.log(System.Logger.Level.DEBUG, "SavePath: user.home is ''{0}''", userHome);
-
-        if (!SystemUtils.IS_OS_WINDOWS) {
-            return Constants.DEV_GAMEDATA;
-        }
-
-        String saveDirectory;
-        try {
-            saveDirectory = Shell32Util.getFolderPath(ShlObj.CSIDL_MYDOCUMENTS);
-        } catch (Exception e) {
-            saveDirectory = userHome;
-        }
+        return pathToString(saveLocationResolver.getLayout().getSavePath());
+    }
 
-        Path savePath = Paths.get(saveDirectory, Constants.SAVEGAME_SUBDIR);
-        if (Files.exists(savePath)) {
-            logger.log(System.Logger.Level.DEBUG, "SavePath: found");
-            return savePath.toAbsolutePath().toString();
-        }
-        return null;
+    /**
+     * Discards the cached save directories, they will be resolved again on the next request.
+     */
+    public void invalidateSaveLocations() {
+        saveLocationResolver.invalidate();
     }
 
     public String getSaveDataMainArchivedPath() {
-        String archived = getSaveDataMainPath();
-        if(archived == null) {
-            return null;
-        }
-        return Paths.get(archived, Constants.ARCHIVE_DIR).toString();
+        return locationPath(SaveLocation.ARCHIVEMAIN);
     }
 
     public String getSaveDataUserArchivedPath() {
-        String archived = getSaveDataUserPath();
-        if(archived == null) {
-            return null;
-        }
-        return Paths.get(archived, Constants.ARCHIVE_DIR).toString();
+        return locationPath(SaveLocation.ARCHIVEUSER);
     }
 
     public String getSaveDataMainPath() {
-        if (!SystemUtils.IS_OS_WINDOWS) return Paths.get(Constants.DEV_GAMEDATA, Constants.SAVEDATA, "Main").toString();
-        String savePath = getSavePath();
-        if (StringUtils.isNotEmpty(savePath)) {
-            return Paths.get(savePath, Constants.SAVEDATA, "Main").toString();
-        }
-        return null;
+        return locationPath(SaveLocation.MAIN);
     }
 
     public String getSaveDataUserPath() {
-        if (!SystemUtils.IS_OS_WINDOWS) return Paths.get(Constants.DEV_GAMEDATA, Constants.SAVEDATA, "User").toString();
-        String savePath = getSavePath();
-        if (StringUtils.isNotEmpty(savePath)) {
-            return Paths.get(savePath, Constants.SAVEDATA, "User").toString();
-        }
-        return null;
+        return locationPath(SaveLocation.USER);
     }
 
     public String getSaveSetingsPath() {
-        if (!SystemUtils.IS_OS_WINDOWS) return Paths.get(Constants.DEV_GAMEDATA, Constants.SETTINGS).toString();
-        String savePath = getSavePath();
-        if (StringUtils.isNotEmpty(savePath)) {
-            return Paths.get(savePath, Constants.SETTINGS).toString();
-        }
-        return null;
+        return pathToString(saveLocationResolver.getLayout().getSettings());
     }
 
     public List<PlayerCharacterFile> getPlayerCharacterList() {
@@ -784,35 +504,20 @@ public class GameInfo {
         return playerList;
     }
 
-    private String getExternalSaveDataPath() {
-        if (Paths.get(Constants.EXT_SAVEDATA).toFile().isDirectory()) {
-            logger.log(System.Logger.Level.DEBUG, "External save path found: " + Paths.get(Constants.EXT_SAVEDATA));
-            return Constants.EXT_SAVEDATA;
-        }
-
-        return null;
+    private String pathToString(Path path) {
+        return path == null ? null : path.toString();
     }
 
     public Path playerPath(String playerName, SaveLocation saveLocation) {
         return Paths.get(locationPath(saveLocation), "_" + playerName);
     }
 
-    private String locationPath(SaveLocation saveLocation) {
-        if(saveLocation == null) {
-            saveLocation = SaveLocation.MAIN;
-        }
-
-        switch (saveLocation) {
-            case USER -> { return getSaveDataUserPath();  }
-            case EXTERNAL -> { return getExternalSaveDataPath(); }
-            case ARCHIVEMAIN -> { return getSaveDataMainArchivedPath(); }
-            case ARCHIVEUSER -> { return getSaveDataUserArchivedPath(); }
-            default -> { return getSaveDataMainPath(); }
-        }
+    public String locationPath(SaveLocation saveLocation) {
+        return pathToString(saveLocationResolver.getLayout().getLocation(saveLocation));
     }
 
     public Path playerChr(String playerName, SaveLocation saveLocation) {
-        if(SaveLocation.EXTERNAL.equals(saveLocation) && getExternalSaveDataPath() == null) {
+        if(SaveLocation.EXTERNAL.equals(saveLocation) && locationPath(saveLocation) == null) {
             return null;
         }
         return Paths.get(playerPath(playerName, saveLocation).toString(), Constants.PLAYERCHR);
@@ -877,7 +582,7 @@ public class GameInfo {
             if (gamePath == null) {
                 getGamePath();
             }
-            databasePaths = pathsListToArray(databases);
+            databasePaths = pathsListToArray(dataLayers.getDatabases());
         } catch (GameNotFoundException | FileNotFoundException e) {
             removeSavedDetectedGame();
             logger.log(System.Logger.Level.ERROR, "", e);
@@ -892,7 +597,7 @@ public class GameInfo {
             if (gamePath == null) {
                 getGamePath();
             }
-            textPaths = pathsListToArray(resourcesText);
+            textPaths = pathsListToArray(dataLayers.getTextPaths());
         } catch (GameNotFoundException | FileNotFoundException e) {
             removeSavedDetectedGame();
             logger.log(System.Logger.Level.ERROR, "", e);
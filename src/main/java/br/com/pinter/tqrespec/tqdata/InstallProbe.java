@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+/**
+ * Source of a game installation, like the Windows registry or a store client. Probes are executed concurrently by
+ * the {@link InstallProbeRunner}, a valid result from the probe with the lowest priority number wins.
+ */
+public interface InstallProbe {
+    /**
+     * @return unique name of the probe, stored with the detected game
+     */
+    String getName();
+
+    /**
+     * @return lower numbers are preferred when more than one probe finds the game
+     */
+    int getPriority();
+
+    /**
+     * @param context validation helpers for the candidate paths
+     * @return the installation found, or null
+     * @throws Exception any failure is logged and handled as not found
+     */
+    InstallProbeResult probe(InstallProbeContext context) throws Exception;
+}
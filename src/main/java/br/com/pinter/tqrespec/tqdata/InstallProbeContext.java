@@ -0,0 +1,13 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import java.nio.file.Path;
+
+public interface InstallProbeContext {
+    boolean isValidGamePath(Path path);
+
+    GameVersion getGameVersion(Path path);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import java.nio.file.Path;
+
+public class InstallProbeResult {
+    private final Path path;
+    private final GameVersion version;
+    private final InstallType installType;
+    private String probe;
+
+    /**
+     * @param path        game directory
+     * @param version     detected version
+     * @param installType detected install type, {@link InstallType#UNKNOWN} when it depends on the TQ base game
+     */
+    public InstallProbeResult(Path path, GameVersion version, InstallType installType) {
+        this.path = path;
+        this.version = version;
+        this.installType = installType;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public GameVersion getVersion() {
+        return version;
+    }
+
+    public InstallType getInstallType() {
+        return installType;
+    }
+
+    public String getProbe() {
+        return probe;
+    }
+
+    void setProbe(String probe) {
+        this.probe = probe;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%s:%s:%s", probe, path, version, installType);
+    }
+}
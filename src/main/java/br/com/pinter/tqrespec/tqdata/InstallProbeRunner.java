@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqrespec.core.WorkerThread;
+import br.com.pinter.tqrespec.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs every {@link InstallProbe} at the same time and returns the valid result with the best priority. The
+ * detection takes as long as the slowest probe that could still win, instead of the sum of all probes.
+ */
+public class InstallProbeRunner {
+    private static final System.Logger logger = Log.getLogger(InstallProbeRunner.class.getName());
+
+    private final List<InstallProbe> probes;
+    private final long timeoutMs;
+
+    /**
+     * @param probes    probes to run
+     * @param timeoutMs time limit for the whole detection, probes still running after that are ignored
+     */
+    public InstallProbeRunner(List<InstallProbe> probes, long timeoutMs) {
+        this.probes = new ArrayList<>(probes);
+        this.probes.sort(Comparator.comparingInt(InstallProbe::getPriority));
+        this.timeoutMs = timeoutMs;
+    }
+
+    public InstallProbeResult run(InstallProbeContext context) {
+        if (probes.isEmpty()) {
+            return null;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(probes.size(), r -> {
+            WorkerThread t = new WorkerThread(r);
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<InstallProbeResult>> futures = new ArrayList<>();
+            for (InstallProbe probe : probes) {
+                futures.add(executor.submit(() -> probe(probe, context)));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            //wait in priority order, a result is only returned when every preferred probe failed
+            for (int i = 0; i < probes.size(); i++) {
+                InstallProbe probe = probes.get(i);
+                try {
+                    InstallProbeResult result = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (result != null) {
+                        logger.log(System.Logger.Level.DEBUG, "InstallProbe: ''{0}'' selected", result);
+                        return result;
+                    }
+                } catch (TimeoutException e) {
+                    logger.log(System.Logger.Level.WARNING, "InstallProbe: ''{0}'' timed out", probe.getName());
+                } catch (ExecutionException e) {
+                    logger.log(System.Logger.Level.DEBUG, "InstallProbe: ''{0}'' failed", probe.getName());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            return null;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private InstallProbeResult probe(InstallProbe probe, InstallProbeContext context) {
+        try {
+            InstallProbeResult result = probe.probe(context);
+            //a probe that can't accept an unknown version filters it itself, see InstallProbes
+            if (result == null || !context.isValidGamePath(result.getPath()) || result.getVersion() == null) {
+                logger.log(System.Logger.Level.DEBUG, "InstallProbe: ''{0}'' not found", probe.getName());
+                return null;
+            }
+            result.setProbe(probe.getName());
+            return result;
+        } catch (Exception e) {
+            logger.log(System.Logger.Level.DEBUG, String.format("InstallProbe: '%s' error", probe.getName()), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqrespec.logging.Log;
+import br.com.pinter.tqrespec.util.Constants;
+import com.sun.jna.platform.win32.*;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Installation probes for the Windows registry and store clients, in the order they were historically tried.
+ */
+final class InstallProbes {
+    private static final System.Logger logger = Log.getLogger(InstallProbes.class.getName());
+    private static final String REG_KEY_VALVE_STEAM = "SOFTWARE\\Valve\\Steam";
+
+    private InstallProbes() {
+    }
+
+    @FunctionalInterface
+    private interface ProbeFunction {
+        InstallProbeResult probe(InstallProbeContext context) throws Exception;
+    }
+
+    private static InstallProbe probe(String name, int priority, ProbeFunction function) {
+        return new InstallProbe() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public int getPriority() {
+                return priority;
+            }
+
+            @Override
+            public InstallProbeResult probe(InstallProbeContext context) throws Exception {
+                return function.probe(context);
+            }
+        };
+    }
+
+    private static InstallProbeResult found(Path path, GameVersion version, InstallType installType) {
+        return path == null ? null : new InstallProbeResult(path, version, installType);
+    }
+
+    static List<InstallProbe> defaults() {
+        List<InstallProbe> probes = new ArrayList<>();
+        //search AE in Windows registry
+        probes.add(probe("installed", 10, c -> found(getGameInstalledPath(c, Constants.REGEX_REGISTRY_INSTALL),
+                GameVersion.TQAE, InstallType.WINDOWS)));
+        //search AE in Steam
+        probes.add(probe("steam", 20, c -> found(getGameSteamPath(c), GameVersion.TQAE, InstallType.STEAM)));
+        //search AE in GOG
+        probes.add(probe("gog", 30, c -> found(getGameGogPath(c), GameVersion.TQAE, InstallType.GOG)));
+        //try Windows registry with more generic name, and guess the version
+        probes.add(probe("installed-fallback", 40, c -> {
+            Path path = getGameInstalledPath(c, Constants.REGEX_REGISTRY_INSTALL_FALLBACK);
+            GameVersion version = path == null ? null : c.getGameVersion(path);
+            return GameVersion.UNKNOWN.equals(version) ? null : found(path, version, InstallType.WINDOWS);
+        }));
+        //search AE in MS Store
+        probes.add(probe("microsoft-store", 50, c -> found(getGameMicrosoftStorePath(c),
+                GameVersion.TQAE, InstallType.MICROSOFT_STORE)));
+        //Anniversary Edition not found, search for TQIT, install type depends on the base game
+        probes.add(probe("disc-tqit", 60, c -> found(getGameDiscTqitPath(c), GameVersion.TQIT, InstallType.UNKNOWN)));
+        //Search versions that incorrectly uses SteamPath registry, accepted even if the version is unknown
+        probes.add(probe("steam-api", 70, c -> {
+            Path path = getGameSteamApiBasedPath(c);
+            return path == null ? null : found(path, c.getGameVersion(path), InstallType.ALTERNATIVE_STEAM_API);
+        }));
+        return probes;
+    }
+
+    /**
+     * @param name name of the probe, like stored with the detected game
+     * @return the default probe with that name, or null
+     */
+    static InstallProbe find(String name) {
+        return defaults().stream().filter(p -> p.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    private static Path getGameSteamPath(InstallProbeContext context) {
+        Path steamLibraryPath = getSteamLibraryPath(context);
+        logger.log(System.Logger.Level.DEBUG, "LibraryPathFound -- ''{0}''", steamLibraryPath);
+        if (steamLibraryPath != null) {
+            Path steamGamePath = Paths.get(steamLibraryPath.toString(), Constants.GAME_DIRECTORY_STEAM).toAbsolutePath();
+            if (context.isValidGamePath(steamGamePath)) {
+                return steamGamePath;
+            }
+        }
+        return null;
+    }
+
+    private static Path getSteamLibraryPath(InstallProbeContext context) {
+        String steamPath = null;
+        try {
+            steamPath = Advapi32Util.registryGetStringValue(
+                    WinReg.HKEY_CURRENT_USER, REG_KEY_VALVE_STEAM, "SteamPath");
+        } catch (Win32Exception e) {
+            logger.log(System.Logger.Level.ERROR, "", e);
+        }
+
+        try {
+            if (steamPath == null) {
+                steamPath = Advapi32Util.registryGetStringValue(
+                        WinReg.HKEY_LOCAL_MACHINE, REG_KEY_VALVE_STEAM, "InstallPath",
+                        WinNT.KEY_WOW64_32KEY);
+            }
+        } catch (Win32Exception e) {
+            logger.log(System.Logger.Level.ERROR, "", e);
+            return null;
+        }
+
+        try {
+            Path steamLibraryFolderVdf = Paths.get(steamPath, "SteamApps", "libraryfolders.vdf").toAbsolutePath();
+
+            List<String> libraryPaths = getLibraryPathsFromSteam(steamLibraryFolderVdf.toString());
+
+            logger.log(System.Logger.Level.DEBUG, "libraryFolderList -- ''{0}''", libraryPaths);
+
+            for (String directory : libraryPaths) {
+                logger.log(System.Logger.Level.DEBUG, "Trying library -- ''{0}''", directory);
+
+                Path libraryPath = Paths.get(directory, "SteamApps").toAbsolutePath();
+                Path libraryGamePath = Paths.get(libraryPath.toString(), Constants.GAME_DIRECTORY_STEAM).toAbsolutePath();
+                if (context.isValidGamePath(libraryGamePath)) {
+                    logger.log(System.Logger.Level.DEBUG, "VALID PATH FOUND!! -- ''{0}''", libraryGamePath);
+                    return libraryPath;
+                }
+            }
+        } catch (Exception e) {
+            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
+        }
+        return null;
+    }
+
+    private static List<String> getLibraryPathsFromSteam(String configPath) {
+        SteamLibraryFolders libraryFolders;
+        try {
+            libraryFolders = SteamLibraryFolders.read(Paths.get(configPath));
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
+            return Collections.emptyList();
+        }
+
+        List<String> librariesPath = new ArrayList<>();
+        //the library declaring the game is tried first
+        SteamLibraryFolders.Library gameLibrary = libraryFolders.findApp(Constants.STEAM_APPID_TQAE);
+        if (gameLibrary != null) {
+            logger.log(System.Logger.Level.DEBUG, "Steam AppId found in library ''{0}''", gameLibrary);
+            librariesPath.add(gameLibrary.getPath());
+        }
+        for (SteamLibraryFolders.Library library : libraryFolders.getLibraries()) {
+            if (!librariesPath.contains(library.getPath())) {
+                librariesPath.add(library.getPath());
+            }
+        }
+        return librariesPath;
+    }
+
+    private static Path getGameGogPath(InstallProbeContext context) {
+        try {
+            //TQAE GOG 1196955511
+            String gog = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE,
+                    "SOFTWARE\\GOG.com\\Games\\1196955511", "PATH", WinNT.KEY_WOW64_32KEY);
+            if (StringUtils.isNotEmpty(gog)) {
+                Path gogPath = Paths.get(gog).toAbsolutePath();
+                if (context.isValidGamePath(gogPath)) {
+                    return gogPath;
+                }
+            }
+        } catch (Exception e) {
+            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
+        }
+        return null;
+    }
+
+    private static Path getGameDiscTqitPath(InstallProbeContext context) {
+        return getGameDiscPath(context, "SOFTWARE\\Iron Lore\\Titan Quest Immortal Throne");
+    }
+
+    static Path getGameDiscPath(InstallProbeContext context, String reg) {
+        try {
+            String disc = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE, reg, "Install Location", WinNT.KEY_WOW64_32KEY);
+            if (StringUtils.isNotBlank(disc)) {
+                Path discPath = Paths.get(disc).toAbsolutePath();
+                if (context.isValidGamePath(discPath)) {
+                    return discPath;
+                }
+            }
+        } catch (Win32Exception e) {
+            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
+        }
+
+        return null;
+    }
+
+    private static Path getGameInstalledPath(InstallProbeContext context, String regexGameName) {
+        String[] installedApps = new String[0];
+        try {
+            installedApps = Advapi32Util.registryGetKeys(WinReg.HKEY_LOCAL_MACHINE,
+                    "SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\Uninstall");
+        } catch (Exception e) {
+            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
+        }
+
+        for (String app : installedApps)
+            try {
+                String appDisplayName = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE,
+                        "SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\" + app, "DisplayName");
+                if (appDisplayName.matches(regexGameName)) {
+                    logger.log(System.Logger.Level.DEBUG, "Installed: displayname found -- ''{0}''", regexGameName);
+                    String installed = Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE,
+                            "SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\" + app, "InstallLocation");
+                    Path installedPath = Paths.get(installed).toAbsolutePath();
+                    if (context.isValidGamePath(installedPath)) {
+                        return installedPath;
+                    }
+                } else {
+                    logger.log(System.Logger.Level.DEBUG, "Installed: displayname not found --- ''{0}'' -- ''{1}''", regexGameName, appDisplayName);
+                }
+            } catch (Exception e) {
+                logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
+            }
+        return null;
+    }
+
+    private static Path getGameMicrosoftStorePath(InstallProbeContext context) {
+        String regexGameName = Constants.REGEX_REGISTRY_PACKAGE;
+        String[] pkgList;
+        String pkgKeyPath = "Software\\Classes\\Local Settings\\Software\\Microsoft\\Windows\\CurrentVersion\\" +
+                "AppModel\\Repository\\Packages";
+        try {
+            pkgList = Advapi32Util.registryGetKeys(WinReg.HKEY_CURRENT_USER,
+                    pkgKeyPath);
+        } catch (Win32Exception e) {
+            logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, e);
+            return null;
+        }
+
+        for (String pkg : pkgList) {
+            try {
+                String pkgDisplayName = Advapi32Util.registryGetStringValue(WinReg.HKEY_CURRENT_USER,
+                        String.format("%s\\%s", pkgKeyPath, pkg), "DisplayName");
+                if (pkgDisplayName.matches(regexGameName)) {
+                    logger.log(System.Logger.Level.DEBUG, "Package: displayname found -- ", regexGameName);
+                    String pkgInstalled = Advapi32Util.registryGetStringValue(WinReg.HKEY_CURRENT_USER,
+                            String.format("%s\\%s", pkgKeyPath, pkg), "PackageRootFolder");
+                    Path pkgInstalledPath = Paths.get(pkgInstalled).toAbsolutePath();
+                    if (context.isValidGamePath(pkgInstalledPath)) {
+                        return pkgInstalledPath;
+                    }
+                } else {
+                    logger.log(System.Logger.Level.DEBUG, "Package: displayname not found --- ''{0}'' -- ''{1}''", regexGameName, pkgDisplayName);
+                }
+            } catch (Win32Exception e) {
+                logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, e);
+            }
+        }
+
+        return null;
+    }
+
+    private static Path getGameSteamApiBasedPath(InstallProbeContext context) {
+        try {
+            String steamPath = Advapi32Util.registryGetStringValue(
+                    WinReg.HKEY_CURRENT_USER, REG_KEY_VALVE_STEAM, "SteamPath");
+
+            Path steamGamePath = Paths.get(steamPath).toAbsolutePath();
+            if (context.isValidGamePath(steamGamePath)) {
+                return steamGamePath;
+            } else {
+                logger.log(System.Logger.Level.DEBUG, "GameSteamApiBasedPath: not found at ''{0}''", steamGamePath);
+            }
+
+            Path steamGameParentPath = Paths.get(steamPath).getParent().toAbsolutePath();
+            if (context.isValidGamePath(steamGameParentPath)) {
+                return steamGameParentPath;
+            } else {
+                logger.log(System.Logger.Level.DEBUG, "GameSteamApiBasedPath: not found at ''{0}''", steamGameParentPath);
+            }
+        } catch (Exception e) {
+            logger.log(System.Logger.Level.DEBUG, Constants.ERROR_MSG_EXCEPTION, e);
+        }
+        return null;
+    }
+}
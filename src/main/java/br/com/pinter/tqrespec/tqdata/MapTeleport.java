@@ -27,13 +27,14 @@ public abstract class MapTeleport {
     private final UID uid;
     private final String recordId;
     private final int act;
-    private String name;
+    private final String name;
 
-    protected MapTeleport(int order, UID uid, int act, String recordId) {
+    protected MapTeleport(int order, UID uid, int act, String recordId, String name) {
         this.order = order;
         this.uid = uid;
         this.recordId = recordId;
         this.act = act;
+        this.name = name;
     }
 
     public int getOrder() {
@@ -56,10 +57,6 @@ public abstract class MapTeleport {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     @Override
     public String toString() {
         return "MapTeleport{" +
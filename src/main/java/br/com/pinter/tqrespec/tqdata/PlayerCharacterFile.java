@@ -6,6 +6,8 @@ package br.com.pinter.tqrespec.tqdata;
 
 import br.com.pinter.tqrespec.save.SaveLocation;
 
+import java.util.Objects;
+
 public class PlayerCharacterFile {
     private final String playerName;
     private final SaveLocation location;
@@ -23,6 +25,19 @@ public class PlayerCharacterFile {
         return location;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PlayerCharacterFile that = (PlayerCharacterFile) o;
+        return Objects.equals(playerName, that.playerName) && location == that.location;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(playerName, location);
+    }
+
     @Override
     public String toString() {
         return playerName;
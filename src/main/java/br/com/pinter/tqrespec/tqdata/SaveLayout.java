@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.util.Constants;
+
+import java.nio.file.Path;
+
+/**
+ * Immutable set of directories where savegames and settings are stored. Paths are null when the base directory
+ * wasn't found.
+ */
+public class SaveLayout {
+    private final Path savePath;
+    private final Path main;
+    private final Path user;
+    private final Path mainArchived;
+    private final Path userArchived;
+    private final Path settings;
+    private final Path external;
+
+    SaveLayout(Path savePath, Path external) {
+        this.savePath = savePath;
+        this.external = external;
+        if (savePath != null) {
+            main = savePath.resolve(Constants.SAVEDATA).resolve("Main");
+            user = savePath.resolve(Constants.SAVEDATA).resolve("User");
+            mainArchived = main.resolve(Constants.ARCHIVE_DIR);
+            userArchived = user.resolve(Constants.ARCHIVE_DIR);
+            settings = savePath.resolve(Constants.SETTINGS);
+        } else {
+            main = null;
+            user = null;
+            mainArchived = null;
+            userArchived = null;
+            settings = null;
+        }
+    }
+
+    public Path getSavePath() {
+        return savePath;
+    }
+
+    public Path getSettings() {
+        return settings;
+    }
+
+    public Path getLocation(SaveLocation saveLocation) {
+        if (saveLocation == null) {
+            saveLocation = SaveLocation.MAIN;
+        }
+
+        switch (saveLocation) {
+            case USER -> { return user; }
+            case EXTERNAL -> { return external; }
+            case ARCHIVEMAIN -> { return mainArchived; }
+            case ARCHIVEUSER -> { return userArchived; }
+            default -> { return main; }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import java.nio.file.Path;
+
+/**
+ * Source of the base directories used to build the {@link SaveLayout}.
+ */
+public interface SaveLocationProvider {
+    /**
+     * @return the game directory under the user documents, or null if it doesn't exist
+     */
+    Path getSavePath();
+
+    /**
+     * @return the directory with the external savegames, or null if it doesn't exist
+     */
+    Path getExternalSavePath();
+}
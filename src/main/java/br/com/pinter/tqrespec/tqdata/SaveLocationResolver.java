@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqrespec.logging.Log;
+import com.google.inject.Singleton;
+
+/**
+ * Resolves the {@link SaveLayout} once and keeps it until {@link #invalidate()} is called, so the native lookup of
+ * the documents directory and the filesystem probes aren't repeated on every path request. A layout without save
+ * path is not kept, the directory may be created later by the game.
+ */
+@Singleton
+public class SaveLocationResolver {
+    private static final System.Logger logger = Log.getLogger(SaveLocationResolver.class.getName());
+
+    private volatile SaveLocationProvider provider = new DefaultSaveLocationProvider();
+    private volatile SaveLayout layout;
+
+    public SaveLayout getLayout() {
+        SaveLayout current = layout;
+        if (current == null) {
+            synchronized (this) {
+                current = layout;
+                if (current == null) {
+                    current = new SaveLayout(provider.getSavePath(), provider.getExternalSavePath());
+                    if (current.getSavePath() == null) {
+                        logger.log(System.Logger.Level.DEBUG, "save path not found");
+                        return current;
+                    }
+                    logger.log(System.Logger.Level.DEBUG, "save path resolved: ''{0}''", current.getSavePath());
+                    layout = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public synchronized void invalidate() {
+        layout = null;
+    }
+
+    public void setProvider(SaveLocationProvider provider) {
+        this.provider = provider;
+        invalidate();
+    }
+}
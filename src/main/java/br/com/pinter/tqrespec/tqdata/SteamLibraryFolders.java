@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Steam libraries listed in libraryfolders.vdf. Both the current layout, with a block per library holding the path
+ * and the installed apps, and the legacy layout, with only numbered paths, are supported.
+ */
+class SteamLibraryFolders {
+    private static final String KEY_LIBRARYFOLDERS = "libraryfolders";
+    private static final String KEY_PATH = "path";
+    private static final String KEY_APPS = "apps";
+
+    private final List<Library> libraries;
+
+    static class Library {
+        private final String path;
+        private final Set<String> apps;
+
+        Library(String path, Set<String> apps) {
+            this.path = path;
+            this.apps = apps;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        /**
+         * @return app ids installed in the library, empty for the legacy layout
+         */
+        Set<String> getApps() {
+            return apps;
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+    }
+
+    private SteamLibraryFolders(List<Library> libraries) {
+        this.libraries = libraries;
+    }
+
+    static SteamLibraryFolders read(Path vdf) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(vdf, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static SteamLibraryFolders read(Reader reader) throws IOException {
+        Map<String, Object> root = VdfParser.parse(reader);
+        List<Library> libraries = new ArrayList<>();
+        if (!(root.get(KEY_LIBRARYFOLDERS) instanceof Map)) {
+            return new SteamLibraryFolders(libraries);
+        }
+
+        Map<String, Object> folders = (Map<String, Object>) root.get(KEY_LIBRARYFOLDERS);
+        for (Map.Entry<String, Object> e : folders.entrySet()) {
+            //other keys are metadata like contentstatsid
+            if (!e.getKey().chars().allMatch(Character::isDigit)) {
+                continue;
+            }
+
+            if (e.getValue() instanceof String legacyPath) {
+                libraries.add(new Library(legacyPath, Collections.emptySet()));
+            } else if (e.getValue() instanceof Map) {
+                Map<String, Object> folder = (Map<String, Object>) e.getValue();
+                if (!(folder.get(KEY_PATH) instanceof String path)) {
+                    continue;
+                }
+                Set<String> apps = new LinkedHashSet<>();
+                if (folder.get(KEY_APPS) instanceof Map) {
+                    apps.addAll(((Map<String, Object>) folder.get(KEY_APPS)).keySet());
+                }
+                libraries.add(new Library(path, apps));
+            }
+        }
+        return new SteamLibraryFolders(libraries);
+    }
+
+    List<Library> getLibraries() {
+        return libraries;
+    }
+
+    /**
+     * @param appId steam app id
+     * @return the library where the app is installed, or null if none declares it
+     */
+    Library findApp(String appId) {
+        return libraries.stream().filter(l -> l.getApps().contains(appId)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqdatabase.models.Teleport;
+import br.com.pinter.tqrespec.save.UID;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The default teleports with their names resolved from the game database, indexed by uid, order and record. The
+ * instances are immutable and shared by every character.
+ */
+@Singleton
+public class TeleportRegistry {
+    @Inject
+    private Db db;
+
+    private volatile Index index;
+
+    private static class Index {
+        private final List<MapTeleport> teleports;
+        private final Map<UID, MapTeleport> byUid = new HashMap<>();
+        private final Map<Integer, MapTeleport> byOrder = new HashMap<>();
+        private final Map<String, MapTeleport> byRecordId = new HashMap<>();
+
+        Index(List<MapTeleport> teleports) {
+            this.teleports = teleports;
+            for (MapTeleport t : teleports) {
+                byUid.put(t.getUid(), t);
+                byOrder.put(t.getOrder(), t);
+                byRecordId.put(t.getRecordId(), t);
+            }
+        }
+    }
+
+    /**
+     * Resolves the teleport names, called by the startup preload after the teleport records are loaded.
+     */
+    public void preload() {
+        getIndex();
+    }
+
+    private Index getIndex() {
+        Index i = index;
+        if (i == null) {
+            synchronized (this) {
+                i = index;
+                if (i == null) {
+                    i = new Index(DefaultMapTeleport.named(recordId -> {
+                        Teleport teleport = db.teleports().getTeleport(recordId);
+                        return teleport != null ? teleport.getDescription() : null;
+                    }));
+                    index = i;
+                }
+            }
+        }
+        return i;
+    }
+
+    public List<MapTeleport> getAll() {
+        return Collections.unmodifiableList(getIndex().teleports);
+    }
+
+    public MapTeleport get(UID uid) {
+        return getIndex().byUid.get(uid);
+    }
+
+    public MapTeleport get(int order) {
+        return getIndex().byOrder.get(order);
+    }
+
+    public MapTeleport get(String recordId) {
+        return getIndex().byRecordId.get(recordId);
+    }
+}
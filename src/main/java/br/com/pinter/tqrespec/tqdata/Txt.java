@@ -32,20 +32,52 @@ import org.apache.commons.text.WordUtils;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Singleton
 public class Txt {
     private static final System.Logger logger = Log.getLogger(Txt.class.getName());
+    private static final CachedString NO_STRING = new CachedString(null);
+
+    private final Map<String, CachedString> cache = new ConcurrentHashMap<>();
+    private final AtomicInteger generation = new AtomicInteger();
 
     @Inject
     private GameInfo gameInfo;
 
+    @Inject
+    private GameDataSnapshot snapshot;
+
     private Text text;
 
-    public void initialize() {
+    /**
+     * A string resolved from the text archives, with the variants used by the UI computed once.
+     */
+    private static class CachedString {
+        private final String value;
+        private final String capitalized;
+        private final String clean;
+
+        CachedString(String value) {
+            this.value = value;
+            this.capitalized = WordUtils.capitalize(value);
+            this.clean = cleanTagString(value);
+        }
+    }
+
+    public Txt() {
+        State.get().addLocaleListener(l -> invalidate());
+    }
+
+    public synchronized void initialize() {
         try {
             if (text == null) {
-                text = new Text(gameInfo.getTextPath(), Constants.LOCALE_TEXT.get(State.get().getLocale()));
+                String language = Constants.LOCALE_TEXT.get(State.get().getLocale());
+                text = openText(gameInfo.getTextPath(), language);
+                snapshot.open(language);
             }
         } catch (FileNotFoundException e) {
             logger.log(System.Logger.Level.ERROR, Constants.ERROR_MSG_EXCEPTION, e);
@@ -53,17 +85,79 @@ public class Txt {
         }
     }
 
-    public String getString(String str) {
+    Text openText(String[] textPath, String language) throws FileNotFoundException {
+        return new Text(textPath, language);
+    }
+
+    /**
+     * Drops the strings resolved so far, the text archives are opened again for the current locale.
+     */
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        cache.clear();
+        snapshot.invalidate();
+        text = null;
+    }
+
+    /**
+     * Resolves a set of tags at once, so the UI can render them from the cache. The tags are resolved holding the
+     * lock of the text archives, like every other read of them.
+     *
+     * @param tags tags to resolve
+     */
+    public synchronized void prefetch(Collection<String> tags) {
+        initialize();
+        for (String tag : tags) {
+            lookup(tag);
+        }
+    }
+
+    private CachedString lookup(String tag) {
+        if (tag == null) {
+            return NO_STRING;
+        }
+        CachedString cached = cache.get(tag);
+        if (cached != null) {
+            return cached;
+        }
+
+        int gen = generation.get();
+        cached = new CachedString(resolve(tag));
+        if (gen == generation.get()) {
+            cache.putIfAbsent(tag, cached);
+        }
+        return cached;
+    }
+
+    public String getString(String tag) {
+        return lookup(tag).value;
+    }
+
+    /**
+     * Reads a string missing in the cache. The archives are closed by {@link #invalidate()} and their thread safety
+     * isn't documented, reads are serialized with it.
+     */
+    private synchronized String resolve(String str) {
         initialize();
+        String value = snapshot.getString(str);
+        if (value != null) {
+            return value;
+        }
         try {
-            return text.getString(str);
+            value = text.getString(str);
+            snapshot.putString(str, value);
+            return value;
         } catch (IOException ignore) {
             return null;
         }
     }
 
-    public void preload() {
+    public synchronized void preload() {
         initialize();
+        if (snapshot.isHit()) {
+            //strings come from the snapshot, the archives are only read for tags missing in it
+            return;
+        }
         try {
             text.preload();
         } catch (IOException e) {
@@ -72,7 +166,15 @@ public class Txt {
     }
 
     public String getCapitalizedString(String tag) {
-        return WordUtils.capitalize(getString(tag));
+        return lookup(tag).capitalized;
+    }
+
+    /**
+     * @param tag tag to resolve
+     * @return the string without formatting codes and colons, like used in labels
+     */
+    public String getCleanString(String tag) {
+        return lookup(tag).clean;
     }
 
     public boolean isTagStringValid(String tag) {
@@ -80,4 +182,14 @@ public class Txt {
         return !StringUtils.isBlank(tag) && !StringUtils.isBlank(str) && !tag.equals(str);
     }
 
+    public static String cleanTagString(String value) {
+        if (StringUtils.isBlank(value)) {
+            return value;
+        }
+
+        return value.replaceAll("(?:\\{[^}]+\\})*([^{}:]*)(?:\\{[^}]+\\})*", "$1")
+                .replace(":", "")
+                .trim();
+    }
+
 }
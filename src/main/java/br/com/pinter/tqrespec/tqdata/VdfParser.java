@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single pass parser for Valve KeyValues (VDF) text files. Every key maps to a {@link String} or to a nested
+ * {@code Map<String, Object>}; keys are stored in lower case, as Steam compares them ignoring case.
+ */
+final class VdfParser {
+    private static final int MAX_DEPTH = 64;
+
+    private final Reader reader;
+    private int pushback = -2;
+    private int line = 1;
+
+    private enum TokenType {
+        STRING,
+        OPEN,
+        CLOSE,
+        EOF
+    }
+
+    private VdfParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @param reader source, read up to the end and not closed
+     * @return the root keys of the document
+     * @throws IOException if the reader fails or the document is malformed
+     */
+    static Map<String, Object> parse(Reader reader) throws IOException {
+        VdfParser parser = new VdfParser(reader);
+        return parser.readObject(0, true);
+    }
+
+    private Map<String, Object> readObject(int depth, boolean root) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("VDF nested too deep at line " + line);
+        }
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+        StringBuilder token = new StringBuilder();
+        while (true) {
+            TokenType type = next(token);
+            if (type == TokenType.EOF) {
+                if (!root) {
+                    throw new IOException("VDF unexpected end of file");
+                }
+                return ret;
+            }
+            if (type == TokenType.CLOSE) {
+                if (root) {
+                    throw new IOException("VDF unexpected '}' at line " + line);
+                }
+                return ret;
+            }
+            if (type == TokenType.OPEN) {
+                throw new IOException("VDF unexpected '{' at line " + line);
+            }
+
+            String key = token.toString().toLowerCase();
+            type = next(token);
+            if (type == TokenType.STRING) {
+                ret.put(key, token.toString());
+            } else if (type == TokenType.OPEN) {
+                ret.put(key, readObject(depth + 1, false));
+            } else {
+                throw new IOException(String.format("VDF value expected for '%s' at line %d", key, line));
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushback != -2) {
+            c = pushback;
+            pushback = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') {
+            line--;
+        }
+        pushback = c;
+    }
+
+    private TokenType next(StringBuilder token) throws IOException {
+        token.setLength(0);
+        int c;
+        while (true) {
+            c = read();
+            if (c == -1) {
+                return TokenType.EOF;
+            } else if (c == '/') {
+                int n = read();
+                if (n == '/') {
+                    //comment until end of line
+                    while ((c = read()) != -1 && c != '\n') {
+                        //skip
+                    }
+                    continue;
+                }
+                unread(n);
+                break;
+            } else if (!Character.isWhitespace(c)) {
+                break;
+            }
+        }
+
+        if (c == '{') {
+            return TokenType.OPEN;
+        } else if (c == '}') {
+            return TokenType.CLOSE;
+        } else if (c == '"') {
+            readQuoted(token);
+            return TokenType.STRING;
+        }
+
+        token.append((char) c);
+        while ((c = read()) != -1) {
+            if (Character.isWhitespace(c) || c == '"' || c == '{' || c == '}') {
+                unread(c);
+                break;
+            }
+            token.append((char) c);
+        }
+        return TokenType.STRING;
+    }
+
+    private void readQuoted(StringBuilder token) throws IOException {
+        int c;
+        while ((c = read()) != '"') {
+            if (c == -1) {
+                throw new IOException("VDF unterminated string at line " + line);
+            }
+            if (c == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case 'n' -> token.append('\n');
+                    case 't' -> token.append('\t');
+                    case '\\', '"' -> token.append((char) escaped);
+                    case -1 -> throw new IOException("VDF unterminated string at line " + line);
+                    default -> token.append('\\').append((char) escaped);
+                }
+            } else {
+                token.append((char) c);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec;
+
+import br.com.pinter.tqrespec.save.Platform;
+import br.com.pinter.tqrespec.save.player.Respec;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CliTest {
+    @Test
+    void parse_Should_readOptionsCommandAndPaths() {
+        Cli.Options options = Cli.parse("--game", "/games/tq", "--threads", "3", "export-csv", "--out", "out",
+                "Main", "User");
+
+        assertEquals(Cli.Command.EXPORT_CSV, options.command);
+        assertEquals("/games/tq", options.gamePath);
+        assertEquals(3, options.threads);
+        assertEquals(Paths.get("out"), options.outDir);
+        assertEquals(List.of(Path.of("Main"), Path.of("User")), options.paths);
+        assertFalse(options.apply);
+    }
+
+    @Test
+    void parse_Should_readCommandOptions() {
+        Cli.Options convert = Cli.parse("convert", "--to", "Mobile", "Main");
+        assertEquals(Cli.Command.CONVERT, convert.command);
+        assertEquals(Platform.MOBILE, convert.target);
+        assertNull(convert.threads);
+        assertEquals(Paths.get(""), convert.outDir);
+
+        Cli.Options respec = Cli.parse("respec", "--skills", "--masteries", "reclaim", "--apply", "Main");
+        Respec r = respec.respec.build();
+        assertEquals(Cli.Command.RESPEC, respec.command);
+        assertTrue(r.isSkills());
+        assertEquals(Respec.Masteries.RECLAIM, r.getMasteries());
+        assertFalse(r.isAttributes());
+        assertTrue(respec.apply);
+    }
+
+    @Test
+    void parse_Should_readRetentionWithoutSaves() {
+        Cli.Options options = Cli.parse("retention", "--enable", "--keep-recent", "5", "--max-size", "512");
+
+        assertEquals(Cli.Command.RETENTION, options.command);
+        assertEquals(Boolean.TRUE, options.retention);
+        assertEquals(5, options.keepRecent);
+        assertNull(options.keepDailyDays);
+        assertEquals(512, options.maxSizeMb);
+        assertEquals(Boolean.FALSE, Cli.parse("retention", "--disable").retention);
+        assertNull(Cli.parse("retention").retention);
+    }
+
+    @Test
+    void parse_Should_reject_When_argumentsAreInvalid() {
+        assertThrows(IllegalArgumentException.class, Cli::parse);
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("summarize"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("unknown", "Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("--verbose", "summarize", "Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("summarize", "Main", "--threads"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("summarize", "--threads", "many", "Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("convert", "Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("convert", "--to", "ps4", "Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("respec", "--masteries", "all", "Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("retention", "Main"));
+        assertThrows(IllegalArgumentException.class, () -> Cli.parse("retention", "--keep-daily", "-1"));
+    }
+}
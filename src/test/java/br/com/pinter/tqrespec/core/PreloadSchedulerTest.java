@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreloadSchedulerTest {
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("units didn't run concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void start_Should_runUnitsAfterDependenciesAndIndependentUnitsConcurrently() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        PreloadScheduler scheduler = new PreloadScheduler()
+                .add("database", 1, () -> {
+                    bothRunning.countDown();
+                    await(bothRunning);
+                    order.add("database");
+                })
+                .add("text", 1, () -> {
+                    bothRunning.countDown();
+                    await(bothRunning);
+                    order.add("text");
+                })
+                .add("skills", 1, () -> order.add("skills"), "database")
+                .add("player", 1, () -> order.add("player"), "skills", "text");
+
+        scheduler.start(null).get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf("skills") > order.indexOf("database"));
+        assertTrue(order.indexOf("player") > order.indexOf("skills"));
+        assertTrue(order.indexOf("player") > order.indexOf("text"));
+        assertTrue(scheduler.whenDone("database", "player").isDone());
+    }
+
+    @Test
+    void start_Should_reportProgressByWeight() throws Exception {
+        List<Double> progress = Collections.synchronizedList(new ArrayList<>());
+        PreloadScheduler scheduler = new PreloadScheduler()
+                .add("light", 1, () -> {
+                })
+                .add("heavy", 3, () -> {
+                }, "light");
+
+        scheduler.start(progress::add).get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(0.25, 1.0), progress);
+    }
+
+    @Test
+    void start_Should_failAndSkipDependents_When_unitFails() {
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        IllegalStateException failure = new IllegalStateException("database error");
+        PreloadScheduler scheduler = new PreloadScheduler()
+                .add("database", 1, () -> {
+                    throw failure;
+                })
+                .add("text", 1, () -> ran.add("text"))
+                .add("skills", 1, () -> ran.add("skills"), "database");
+
+        CompletableFuture<Void> completion = scheduler.start(null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> completion.get(10, TimeUnit.SECONDS));
+        assertSame(failure, e.getCause());
+        assertThrows(ExecutionException.class, () -> scheduler.whenDone("skills").get(10, TimeUnit.SECONDS));
+        assertEquals(List.of("text"), ran);
+        UnhandledRuntimeException awaited = assertThrows(UnhandledRuntimeException.class, scheduler::awaitCompletion);
+        assertSame(failure, awaited.getCause());
+    }
+
+    @Test
+    void add_Should_rejectInvalidUnits() {
+        PreloadScheduler scheduler = new PreloadScheduler().add("database", 1, () -> {
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> scheduler.add("database", 1, () -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.add("skills", 1, () -> {
+        }, "missing"));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.whenDone("missing"));
+
+        scheduler.start(null).join();
+        assertThrows(IllegalStateException.class, () -> scheduler.add("text", 1, () -> {
+        }));
+        assertThrows(IllegalStateException.class, () -> scheduler.start(null));
+    }
+
+    @Test
+    void awaitCompletion_Should_return_When_notStarted() {
+        assertDoesNotThrow(() -> new PreloadScheduler().add("database", 1, () -> {
+        }).awaitCompletion());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.gui;
+
+import br.com.pinter.tqrespec.save.DataMapEvent;
+import br.com.pinter.tqrespec.save.player.CurrentPlayerData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataChangeBusTest {
+    @Mock
+    private CurrentPlayerData saveData;
+
+    @InjectMocks
+    private TestBus bus;
+
+    private final List<List<DataMapEvent>> delivered = new ArrayList<>();
+
+    //runs the delivery when the test asks, instead of on the FX thread
+    private static class TestBus extends DataChangeBus {
+        private final List<Runnable> scheduled = new ArrayList<>();
+
+        @Override
+        void schedule(Runnable delivery) {
+            scheduled.add(delivery);
+        }
+
+        void pulse() {
+            List<Runnable> runs = new ArrayList<>(scheduled);
+            scheduled.clear();
+            runs.forEach(Runnable::run);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        bus.subscribe(delivered::add);
+    }
+
+    private static List<String> names(List<DataMapEvent> events) {
+        return events.stream().map(e -> e.getType() + ":" + e.getBlockStart() + ":" + e.getVariable())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void subscribe_Should_listenToTheDataMapOnce() {
+        bus.subscribe(delivered::add);
+        Mockito.verify(saveData).addDataMapListener(bus);
+    }
+
+    @Test
+    void offer_Should_coalesceChangesOfAPulse() {
+        bus.variableChanged(10, "money");
+        bus.variableChanged(20, "str");
+        bus.variableChanged(10, "money");
+        assertEquals(1, bus.scheduled.size());
+        bus.pulse();
+
+        assertEquals(1, delivered.size());
+        assertEquals(List.of("VARIABLE_CHANGED:20:str", "VARIABLE_CHANGED:10:money"), names(delivered.get(0)));
+
+        bus.variableChanged(10, "money");
+        assertEquals(1, bus.scheduled.size());
+        bus.pulse();
+        assertEquals(List.of("VARIABLE_CHANGED:10:money"), names(delivered.get(1)));
+    }
+
+    @Test
+    void offer_Should_deliverRepeatedChangeAfterRevert() {
+        bus.variableChanged(10, "money");
+        bus.changesReverted();
+        bus.variableChanged(10, "money");
+        bus.pulse();
+
+        assertEquals(List.of("CHANGES_REVERTED:-1:null", "VARIABLE_CHANGED:10:money"), names(delivered.get(0)));
+    }
+
+    @Test
+    void offer_Should_dropChangesOfRemovedBlock() {
+        bus.variableChanged(10, "skillLevel");
+        bus.variableChanged(20, "money");
+        bus.variableChanged(10, "skillName");
+        bus.blockRemoved(10);
+        bus.pulse();
+
+        assertEquals(List.of("VARIABLE_CHANGED:20:money", "BLOCK_REMOVED:10:null"), names(delivered.get(0)));
+    }
+
+    @Test
+    void deliver_Should_notCallSubscribers_When_nothingIsPending() {
+        bus.deliver();
+        assertTrue(delivered.isEmpty());
+    }
+}
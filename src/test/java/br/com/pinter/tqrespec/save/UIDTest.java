@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UIDTest {
+    private static final String UID_STRING = "4136144580-999965812-3093316465-1160239764";
+
+    @Test
+    void uid_Should_roundTripBetweenStringAndBytes() {
+        UID fromString = new UID(UID_STRING);
+        byte[] bytes = fromString.getBytes();
+        assertEquals(16, bytes.length);
+
+        UID fromBytes = new UID(bytes);
+        assertEquals(fromString, fromBytes);
+        assertEquals(fromString.hashCode(), fromBytes.hashCode());
+        assertEquals(UID_STRING, fromBytes.getUid());
+        assertArrayEquals(bytes, UID.convertUidStringToByte(UID.convertUidByteToString(bytes)));
+    }
+
+    @Test
+    void uid_Should_readAndWriteAtOffset() {
+        byte[] buffer = new byte[24];
+        new UID(UID_STRING).writeTo(buffer, 5);
+        assertEquals(new UID(UID_STRING), new UID(buffer, 5));
+    }
+
+    @Test
+    void uid_Should_treatZeroAsEmpty() {
+        UID zero = new UID(new byte[16]);
+        assertTrue(zero.isZero());
+        assertNull(zero.getUid());
+        assertEquals(0, zero.getBytes().length);
+        assertEquals(zero, new UID((String) null));
+    }
+}
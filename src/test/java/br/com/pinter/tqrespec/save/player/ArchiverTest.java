@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
+import br.com.pinter.tqrespec.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@ExtendWith(MockitoExtension.class)
+class ArchiverTest {
+    @TempDir
+    Path saveDir;
+
+    @Mock
+    private GameInfo gameInfo;
+
+    @Mock
+    private CharacterIndex characterIndex;
+
+    @InjectMocks
+    private Archiver archiver;
+
+    private Map<SaveLocation, Path> locations;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path main = Files.createDirectories(saveDir.resolve("Main"));
+        Path user = Files.createDirectories(saveDir.resolve("User"));
+        locations = Map.of(SaveLocation.MAIN, main,
+                SaveLocation.USER, user,
+                SaveLocation.ARCHIVEMAIN, main.resolve(Constants.ARCHIVE_DIR),
+                SaveLocation.ARCHIVEUSER, user.resolve(Constants.ARCHIVE_DIR));
+        Mockito.lenient().when(gameInfo.getSavePath()).thenReturn(saveDir.toString());
+        Mockito.lenient().when(gameInfo.getSaveDataMainPath()).thenReturn(main.toString());
+        Mockito.lenient().when(gameInfo.getSaveDataUserPath()).thenReturn(user.toString());
+        Mockito.lenient().when(gameInfo.getSaveDataMainArchivedPath())
+                .thenReturn(locations.get(SaveLocation.ARCHIVEMAIN).toString());
+        Mockito.lenient().when(gameInfo.getSaveDataUserArchivedPath())
+                .thenReturn(locations.get(SaveLocation.ARCHIVEUSER).toString());
+        Mockito.lenient().when(gameInfo.playerPath(anyString(), any())).thenAnswer(i ->
+                locations.get(i.<SaveLocation>getArgument(1)).resolve("_" + i.getArgument(0)));
+    }
+
+    private PlayerCharacter character(String name, SaveLocation location, boolean create) throws IOException {
+        Path path = locations.get(location).resolve("_" + name);
+        if (create) {
+            Files.write(Files.createDirectories(path).resolve(Constants.PLAYERCHR), new byte[]{1});
+        }
+        PlayerCharacter pc = new PlayerCharacter();
+        pc.setName(name);
+        pc.setLocation(location);
+        pc.setPath(path);
+        return pc;
+    }
+
+    @Test
+    void archive_Should_moveEveryCharacterAndKeepOrder() throws IOException {
+        List<PlayerCharacter> characters = List.of(character("a", SaveLocation.MAIN, true),
+                character("b", SaveLocation.USER, true), character("c", SaveLocation.MAIN, true));
+
+        List<ArchiveResult> results = archiver.archive(characters);
+
+        assertEquals(characters, results.stream().map(ArchiveResult::getPlayerCharacter).collect(Collectors.toList()));
+        assertTrue(results.stream().allMatch(ArchiveResult::isSuccess));
+        assertEquals(List.of(SaveLocation.ARCHIVEMAIN, SaveLocation.ARCHIVEUSER, SaveLocation.ARCHIVEMAIN),
+                results.stream().map(ArchiveResult::getTargetLocation).collect(Collectors.toList()));
+        for (ArchiveResult r : results) {
+            assertTrue(Files.isRegularFile(r.getTarget().resolve(Constants.PLAYERCHR)));
+            assertFalse(Files.exists(r.getPlayerCharacter().getPath()));
+        }
+    }
+
+    @Test
+    void archive_Should_reportCollisionsAndFailuresInOrder() throws IOException {
+        //already archived, the target exists
+        character("a", SaveLocation.ARCHIVEMAIN, true);
+        PlayerCharacter collision = character("a", SaveLocation.MAIN, true);
+        PlayerCharacter moved = character("b", SaveLocation.MAIN, true);
+        PlayerCharacter duplicated = character("b", SaveLocation.MAIN, false);
+        PlayerCharacter missing = character("c", SaveLocation.MAIN, false);
+        PlayerCharacter last = character("d", SaveLocation.USER, true);
+
+        List<ArchiveResult> results = archiver.archive(List.of(collision, moved, duplicated, missing, last));
+
+        assertEquals(List.of(collision, moved, duplicated, missing, last),
+                results.stream().map(ArchiveResult::getPlayerCharacter).collect(Collectors.toList()));
+        assertEquals(List.of(false, true, false, false, true),
+                results.stream().map(ArchiveResult::isSuccess).collect(Collectors.toList()));
+        assertInstanceOf(FileAlreadyExistsException.class, results.get(0).getError());
+        assertInstanceOf(FileAlreadyExistsException.class, results.get(2).getError());
+        assertInstanceOf(IOException.class, results.get(3).getError());
+        assertNull(results.get(3).getTarget());
+        assertTrue(Files.isDirectory(collision.getPath()));
+        assertTrue(Files.isDirectory(results.get(1).getTarget()));
+        assertTrue(Files.isDirectory(results.get(4).getTarget()));
+
+        //the watch handles are released only for the moves tried, and restored when the move fails
+        Mockito.verify(characterIndex).releaseCharacter(moved.getPath());
+        Mockito.verify(characterIndex).releaseCharacter(missing.getPath());
+        Mockito.verify(characterIndex).releaseCharacter(last.getPath());
+        Mockito.verify(characterIndex).rewatchCharacter(missing.getPath());
+        Mockito.verifyNoMoreInteractions(characterIndex);
+    }
+
+    @Test
+    void unarchive_Should_rejectCharacterNotArchived() throws IOException {
+        PlayerCharacter archived = character("a", SaveLocation.ARCHIVEMAIN, true);
+        PlayerCharacter notArchived = character("b", SaveLocation.MAIN, true);
+        Files.createDirectories(locations.get(SaveLocation.ARCHIVEMAIN));
+
+        List<ArchiveResult> results = archiver.unarchive(List.of(notArchived, archived));
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(SaveLocation.MAIN, results.get(1).getTargetLocation());
+        assertTrue(Files.isDirectory(locations.get(SaveLocation.MAIN).resolve("_a")));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackupRetentionTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 6, 30, 12, 0);
+
+    private BackupRetention.Backup backup(String fileName) {
+        return BackupRetention.Backup.parse(Paths.get(fileName), 100);
+    }
+
+    @Test
+    void parse_Should_readBackupFileNames() {
+        BackupRetention.Backup hourly = backup("my_char_20220630_11.zip");
+        assertNotNull(hourly);
+        assertEquals("my_char", hourly.getPlayerName());
+        assertFalse(hourly.isFullBackup());
+        assertFalse(hourly.isCompacted());
+        assertEquals(LocalDateTime.of(2022, 6, 30, 11, 0), hourly.getTimestamp());
+
+        BackupRetention.Backup full = backup("char-fullbackup_20220630_11.zip");
+        assertNotNull(full);
+        assertEquals("char", full.getPlayerName());
+        assertTrue(full.isFullBackup());
+
+        BackupRetention.Backup compacted = backup("char_202205-compacted.zip");
+        assertNotNull(compacted);
+        assertTrue(compacted.isCompacted());
+        assertEquals(LocalDateTime.of(2022, 5, 1, 0, 0), compacted.getTimestamp());
+        assertEquals("char_202205-compacted.zip", backup("char_20220517_08.zip").compactedFileName());
+
+        assertNull(backup("readme.txt"));
+        assertNull(backup("char_20221399_11.zip"));
+    }
+
+    @Test
+    void plan_Should_thinBackupsByDayAndWeek() {
+        List<BackupRetention.Backup> backups = new ArrayList<>();
+        for (int h = 8; h <= 11; h++) {
+            backups.add(backup(String.format("char_20220630_%02d.zip", h)));
+        }
+        backups.add(backup("char_20220629_10.zip"));
+        backups.add(backup("char_20220629_09.zip"));
+        backups.add(backup("char_20220601_10.zip"));
+        backups.add(backup("char_20220531_10.zip"));
+        backups.add(backup("char_20220101_10.zip"));
+        backups.add(backup("other_20220101_10.zip"));
+
+        Map<BackupRetention.Backup, BackupRetention.Action> plan = BackupRetention.plan(backups,
+                new BackupRetention.Policy(2, 7, 8, 0), NOW);
+
+        assertEquals(BackupRetention.Action.KEEP, plan.get(backup("char_20220630_11.zip")));
+        assertEquals(BackupRetention.Action.KEEP, plan.get(backup("char_20220630_10.zip")));
+        assertEquals(BackupRetention.Action.DELETE, plan.get(backup("char_20220630_09.zip")));
+        assertEquals(BackupRetention.Action.KEEP, plan.get(backup("char_20220629_10.zip")));
+        assertEquals(BackupRetention.Action.DELETE, plan.get(backup("char_20220629_09.zip")));
+        // same iso week, only the newest is merged
+        assertEquals(BackupRetention.Action.COMPACT, plan.get(backup("char_20220601_10.zip")));
+        assertEquals(BackupRetention.Action.DELETE, plan.get(backup("char_20220531_10.zip")));
+        assertEquals(BackupRetention.Action.DELETE, plan.get(backup("char_20220101_10.zip")));
+        // keep recent is applied per character
+        assertEquals(BackupRetention.Action.KEEP, plan.get(backup("other_20220101_10.zip")));
+    }
+
+    @Test
+    void plan_Should_notMergeWeeksAlreadyCompacted() {
+        BackupRetention.Backup compacted = backup("char_202206-compacted.zip");
+        compacted.getCompactedDays().add(LocalDate.of(2022, 6, 2));
+        List<BackupRetention.Backup> backups = List.of(
+                backup("char_20220630_11.zip"),
+                compacted,
+                backup("char_20220601_10.zip"),
+                backup("char_20220608_10.zip"));
+
+        Map<BackupRetention.Backup, BackupRetention.Action> plan = BackupRetention.plan(backups,
+                new BackupRetention.Policy(1, 7, 8, 0), NOW);
+
+        assertEquals(BackupRetention.Action.KEEP, plan.get(compacted));
+        // the week of 2022-06-01 is already in the compacted zip
+        assertEquals(BackupRetention.Action.DELETE, plan.get(backup("char_20220601_10.zip")));
+        assertEquals(BackupRetention.Action.COMPACT, plan.get(backup("char_20220608_10.zip")));
+    }
+
+    @Test
+    void overBudget_Should_removeOldestFirstAndKeepRecent() {
+        List<BackupRetention.Backup> backups = List.of(
+                backup("char_20220630_11.zip"),
+                backup("char_20220629_10.zip"),
+                backup("char_202205-compacted.zip"),
+                backup("other_20220101_10.zip"));
+
+        List<BackupRetention.Backup> remove = BackupRetention.overBudget(backups, new BackupRetention.Policy(1, 0, 0, 200));
+        assertEquals(List.of(backup("char_202205-compacted.zip"), backup("char_20220629_10.zip")), remove);
+
+        assertTrue(BackupRetention.overBudget(backups, new BackupRetention.Policy(1, 0, 0, 0)).isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacterFile;
+import br.com.pinter.tqrespec.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+class CharacterIndexTest {
+    @TempDir
+    Path saveDir;
+
+    @Mock
+    private GameInfo gameInfo;
+
+    @InjectMocks
+    private CharacterIndex characterIndex;
+
+    private final BlockingQueue<CharacterEvent> events = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Mockito.when(gameInfo.locationPath(any())).thenAnswer(i ->
+                SaveLocation.MAIN.equals(i.getArgument(0)) ? saveDir.toString() : null);
+        Files.write(Files.createDirectories(saveDir.resolve("_alice")).resolve(Constants.PLAYERCHR), new byte[]{1, 2, 3});
+        characterIndex.addListener(events::add);
+        characterIndex.start();
+    }
+
+    private CharacterEvent nextEvent() throws InterruptedException {
+        CharacterEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "no event received");
+        return event;
+    }
+
+    @Test
+    void start_Should_indexCharactersFound() {
+        List<String> names = characterIndex.getCharacters(SaveLocation.MAIN).stream()
+                .map(PlayerCharacterFile::getPlayerName).toList();
+        assertEquals(List.of("alice"), names);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void watch_Should_fireModified_When_saveIsRewrittenInPlace() throws Exception {
+        Files.write(saveDir.resolve("_alice").resolve(Constants.PLAYERCHR), new byte[]{4, 5, 6});
+
+        CharacterEvent event = nextEvent();
+        assertEquals(CharacterEvent.Type.MODIFIED, event.getType());
+        assertEquals("alice", event.getCharacter().getPlayerName());
+        assertEquals(SaveLocation.MAIN, event.getCharacter().getLocation());
+    }
+
+    @Test
+    void releaseCharacter_Should_stopWatchingUntilRewatched() throws Exception {
+        Path alice = saveDir.resolve("_alice");
+        characterIndex.releaseCharacter(alice);
+        Files.write(alice.resolve(Constants.PLAYERCHR), new byte[]{4, 5, 6});
+        assertNull(events.poll(1, TimeUnit.SECONDS));
+
+        characterIndex.rewatchCharacter(alice);
+        Files.write(alice.resolve(Constants.PLAYERCHR), new byte[]{7, 8, 9});
+        assertEquals(CharacterEvent.Type.MODIFIED, nextEvent().getType());
+    }
+
+    @Test
+    void watch_Should_fireAddedAndRemoved() throws Exception {
+        Path bob = Files.createDirectories(saveDir.resolve("_bob"));
+        Files.write(bob.resolve(Constants.PLAYERCHR), new byte[]{1});
+
+        CharacterEvent added = nextEvent();
+        assertEquals(CharacterEvent.Type.ADDED, added.getType());
+        assertEquals("bob", added.getCharacter().getPlayerName());
+        //the save written right after the directory may be reported on its own
+        CharacterEvent next;
+        while ((next = events.poll(1, TimeUnit.SECONDS)) != null) {
+            assertEquals(CharacterEvent.Type.MODIFIED, next.getType());
+        }
+
+        Files.delete(bob.resolve(Constants.PLAYERCHR));
+        Files.delete(bob);
+        CharacterEvent removed = nextEvent();
+        assertEquals(CharacterEvent.Type.REMOVED, removed.getType());
+        assertEquals("bob", removed.getCharacter().getPlayerName());
+        assertEquals(List.of("alice"), characterIndex.getCharacters(SaveLocation.MAIN).stream()
+                .map(PlayerCharacterFile::getPlayerName).toList());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqdatabase.Skills;
+import br.com.pinter.tqrespec.tqdata.Db;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
+import br.com.pinter.tqrespec.tqdata.TeleportRegistry;
+import br.com.pinter.tqrespec.tqdata.Txt;
+import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Guice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerBatchTest {
+    private static final Path SAVEGAME = Path.of("src/test/resources/_savegame");
+    private static final Path MOBILE = Path.of("src/test/resources/_mobile");
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private Db db;
+
+    @Mock
+    private Skills skills;
+
+    @Mock
+    private Txt txt;
+
+    @Mock
+    private GameInfo gameInfo;
+
+    @Mock
+    private TeleportRegistry teleportRegistry;
+
+    private PlayerBatch playerBatch;
+
+    @BeforeEach
+    void setUp() {
+        playerBatch = Guice.createInjector(binder -> {
+            binder.bind(Db.class).toInstance(db);
+            binder.bind(Txt.class).toInstance(txt);
+            binder.bind(GameInfo.class).toInstance(gameInfo);
+            binder.bind(TeleportRegistry.class).toInstance(teleportRegistry);
+        }).getInstance(PlayerBatch.class);
+    }
+
+    private Path save(String name, byte[] data) throws IOException {
+        return Files.write(Files.createDirectories(tempDir.resolve(name)).resolve(Constants.PLAYERCHR), data)
+                .getParent();
+    }
+
+    @Test
+    void findSaves_Should_returnSaveDirectoriesSortedByName() throws IOException {
+        Path b = save("_b", new byte[]{1});
+        Path a = save("_a", new byte[]{1});
+        save("notasave", new byte[]{1});
+        Files.createDirectories(tempDir.resolve("_empty"));
+        Files.write(tempDir.resolve("_file"), new byte[]{1});
+
+        assertEquals(List.of(a, b), PlayerBatch.findSaves(tempDir));
+        assertEquals(List.of(a), PlayerBatch.findSaves(a));
+        assertEquals(List.of(), PlayerBatch.findSaves(tempDir.resolve("_empty")));
+    }
+
+    @Test
+    void run_Should_keepOrderAndIsolateFailures() throws IOException {
+        Mockito.when(db.getAccessLock()).thenReturn(new Object());
+        Mockito.when(db.skills()).thenReturn(skills);
+        Path broken = save("_broken", new byte[]{1, 2, 3});
+        Path missing = tempDir.resolve("_missing");
+        List<Path> saves = List.of(SAVEGAME, broken, MOBILE, missing, SAVEGAME, MOBILE);
+
+        playerBatch.setThreads(1);
+        List<PlayerBatch.Result<PlayerCharacter>> sequential = playerBatch.run(saves, playerBatch.summarize());
+        playerBatch.setThreads(4);
+        List<PlayerBatch.Result<PlayerCharacter>> parallel = playerBatch.run(saves, playerBatch.summarize());
+
+        for (List<PlayerBatch.Result<PlayerCharacter>> results : List.of(sequential, parallel)) {
+            assertEquals(saves, results.stream().map(PlayerBatch.Result::getSave).collect(Collectors.toList()));
+            assertEquals(List.of(true, false, true, false, true, true),
+                    results.stream().map(PlayerBatch.Result::isOk).collect(Collectors.toList()));
+            assertNotNull(results.get(1).getError());
+            assertNull(results.get(1).getValue());
+        }
+        List<String> names = parallel.stream().filter(PlayerBatch.Result::isOk)
+                .map(r -> r.getValue().getName()).collect(Collectors.toList());
+        assertEquals(sequential.stream().filter(PlayerBatch.Result::isOk)
+                .map(r -> r.getValue().getName()).collect(Collectors.toList()), names);
+        assertEquals(names.get(0), names.get(2));
+        assertNotEquals(names.get(0), names.get(1));
+    }
+
+    @Test
+    void run_Should_reportOperationFailure_When_otherSavesSucceed() {
+        Mockito.when(db.getAccessLock()).thenReturn(new Object());
+        Mockito.when(db.skills()).thenReturn(skills);
+
+        List<PlayerBatch.Result<String>> results = playerBatch.run(List.of(SAVEGAME, MOBILE), p -> {
+            if (p.getSaveData().getPlayerPath().endsWith(MOBILE.getFileName())) {
+                throw new IOException("failed");
+            }
+            return p.getCharacterName();
+        });
+
+        assertTrue(results.get(0).isOk());
+        assertNotNull(results.get(0).getValue());
+        assertFalse(results.get(1).isOk());
+        assertEquals("failed", results.get(1).getError().getMessage());
+    }
+
+    @Test
+    void setThreads_Should_rejectInvalidNumber() {
+        assertThrows(IllegalArgumentException.class, () -> playerBatch.setThreads(0));
+    }
+}
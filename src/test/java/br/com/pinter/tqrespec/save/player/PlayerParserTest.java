@@ -20,11 +20,26 @@
 
 package br.com.pinter.tqrespec.save.player;
 
+import br.com.pinter.tqdatabase.Database;
+import br.com.pinter.tqdatabase.Skills;
+import br.com.pinter.tqdatabase.models.Pc;
+import br.com.pinter.tqdatabase.models.PlayerLevels;
+import br.com.pinter.tqdatabase.models.Skill;
+import br.com.pinter.tqrespec.save.BlockInfo;
+import br.com.pinter.tqrespec.save.DataProjection;
+import br.com.pinter.tqrespec.save.FileDataMap;
+import br.com.pinter.tqrespec.save.FileDataMapListener;
+import br.com.pinter.tqrespec.save.IntField;
 import br.com.pinter.tqrespec.save.Platform;
 import br.com.pinter.tqrespec.save.UID;
 import br.com.pinter.tqrespec.save.VariableInfo;
+import br.com.pinter.tqrespec.tqdata.Db;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
 import br.com.pinter.tqrespec.tqdata.GameVersion;
+import br.com.pinter.tqrespec.tqdata.TeleportRegistry;
+import br.com.pinter.tqrespec.tqdata.Txt;
 import br.com.pinter.tqrespec.util.Constants;
+import com.google.inject.Guice;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,13 +51,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -167,6 +185,68 @@ class PlayerParserTest {
         }
     }
 
+    @Test
+    void blocksOfType_Should_findBlocksByType() {
+        parse();
+        BlockInfo main = saveData.getDataMap().firstBlockOfType(PlayerBlockType.PLAYER_MAIN);
+        assertNotNull(main);
+        assertEquals(PlayerBlockType.PLAYER_MAIN, main.getBlockType());
+        assertTrue(saveData.getDataMap().blocksOfType(PlayerBlockType.PLAYER_MAIN).contains(main));
+    }
+
+    @Test
+    void intField_Should_readPendingChanges() {
+        parse();
+        IntField money = saveData.getDataMap().intField("money");
+        assertSame(money, saveData.getDataMap().intField("money"));
+        assertEquals((int) saveData.getDataMap().getInt("money"), money.get());
+
+        saveData.getDataMap().setInt("money", money.get() + 10);
+        assertEquals((int) saveData.getDataMap().getInt("money"), money.get());
+
+        money.set(12345);
+        assertEquals(12345, saveData.getDataMap().getInt("money"));
+        assertEquals(12345, money.get());
+    }
+
+    @Test
+    void dataProjection_Should_readFieldsLikeDataMapGetters() {
+        parse();
+        FileDataMap dataMap = saveData.getDataMap();
+        String monsterVar = PlayerFileVariable.valueOf(Platform.WINDOWS, "greatestMonsterKilledName").var();
+        DataProjection<Map<String, Object>> projection = DataProjection.<Map<String, Object>>builder()
+                .intField("money", (m, v) -> m.put("money", v))
+                .tempAttr("str", (m, v) -> m.put("str", v))
+                .stringField("myPlayerName", (m, v) -> m.put("name", v))
+                .stringValues(monsterVar, (m, v) -> m.put("monsters", v))
+                .block(Constants.Save.VAR_TELEPORTUIDSSIZE, (m, v) -> m.put("block", v))
+                .build();
+
+        Map<String, Object> values = projection.apply(dataMap, new HashMap<>());
+        assertEquals(dataMap.getInt("money"), values.get("money"));
+        assertEquals(dataMap.getTempAttr("str"), values.get("str"));
+        assertEquals(dataMap.getString("myPlayerName"), values.get("name"));
+        assertEquals(dataMap.getStringValuesFromBlock(monsterVar), values.get("monsters"));
+        assertSame(dataMap.firstBlockOfType(PlayerBlockType.PLAYER_MAIN), values.get("block"));
+    }
+
+    @Test
+    void transaction_Should_discardChangesOnFailure() {
+        parse();
+        FileDataMap dataMap = saveData.getDataMap();
+        dataMap.setInt("money", 100);
+        int killsBefore = dataMap.getInt("numberOfKills");
+
+        assertThrows(IllegalStateException.class, () -> dataMap.transaction(() -> {
+            dataMap.setInt("money", 200);
+            dataMap.setInt("numberOfKills", killsBefore + 1);
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals(100, dataMap.getInt("money"));
+        assertEquals(killsBefore, dataMap.getInt("numberOfKills"));
+        assertEquals(100, dataMap.intField("money").get());
+    }
+
     @Test
     void parseHeader_Should_parseFileHeader() {
         try {
@@ -299,6 +379,306 @@ class PlayerParserTest {
         assertEquals("{^r}Hades ~ God of the Dead", readStringVar(PlayerFileVariable.valueOf(Platform.WINDOWS, "greatestMonsterKilledName").var()));
     }
 
+    @Test
+    void removeBlock_Should_dropSkillFromIndexAndGraph() {
+        PlayerSkill skill = indexSkills();
+        String path = Database.normalizeRecordPath(skill.getSkillName());
+        int skills = saveData.getPlayerSkills().size();
+        assertNotNull(saveData.getSkillGraph().getNode(path));
+
+        saveData.getDataMap().removeBlock(skill.getBlockStart());
+
+        assertFalse(saveData.getPlayerSkills().containsKey(path));
+        assertEquals(skills - 1, saveData.getPlayerSkills().size());
+        assertNull(saveData.getSkillGraph().getNode(path));
+        assertFalse(saveData.isSkillsStale());
+    }
+
+    @Test
+    void removeBlock_Should_keepSkill_When_anotherBlockHasSamePath() {
+        PlayerSkill skill = indexSkills();
+        String path = Database.normalizeRecordPath(skill.getSkillName());
+        PlayerSkill duplicate = duplicateSkill(skill);
+        assertSame(duplicate, saveData.getPlayerSkills().get(path));
+
+        saveData.getDataMap().removeBlock(skill.getBlockStart());
+
+        assertSame(duplicate, saveData.getPlayerSkills().get(path));
+        assertNotNull(saveData.getSkillGraph().getNode(path));
+        assertFalse(saveData.isSkillsStale());
+    }
+
+    @Test
+    void removeBlock_Should_markSkillsStale_When_indexedBlockOfDuplicatedPathIsRemoved() {
+        PlayerSkill skill = indexSkills();
+        String path = Database.normalizeRecordPath(skill.getSkillName());
+        PlayerSkill duplicate = duplicateSkill(skill);
+        int level = duplicate.getSkillLevel();
+
+        //a change in the block not indexed doesn't touch the skill indexed
+        saveData.getDataMap().setInt(skill.getBlockStart(), Constants.Save.SKILL_LEVEL, level + 5);
+        assertEquals(level, duplicate.getSkillLevel());
+
+        saveData.getDataMap().removeBlock(duplicate.getBlockStart());
+
+        assertTrue(saveData.isSkillsStale());
+        assertNotNull(saveData.getSkillGraph().getNode(path));
+    }
+
+    @Test
+    void setInt_Should_updateIndexedSkillLevel() {
+        PlayerSkill skill = indexSkills();
+        String path = Database.normalizeRecordPath(skill.getSkillName());
+        int level = skill.getSkillLevel() + 1;
+
+        saveData.getDataMap().setInt(skill.getBlockStart(), Constants.Save.SKILL_LEVEL, level);
+
+        assertSame(skill, saveData.getPlayerSkills().get(path));
+        assertEquals(level, skill.getSkillLevel());
+        assertEquals(level, saveData.getSkillGraph().getNode(path).getLevel());
+        assertFalse(saveData.isSkillsStale());
+    }
+
+    @Test
+    void insertVariable_Should_markSkillsStale_When_skillNameIsInserted() {
+        PlayerSkill skill = indexSkills();
+        BlockInfo block = saveData.getDataMap().getBlockInfo().get(skill.getBlockStart());
+
+        saveData.getDataMap().insertVariable(
+                (VariableInfo) block.getVariables().get(Constants.Save.SKILL_LEVEL).get(0).deepClone());
+        assertFalse(saveData.isSkillsStale());
+
+        saveData.getDataMap().insertVariable(
+                (VariableInfo) block.getVariables().get(Constants.Save.SKILL_NAME).get(0).deepClone());
+        assertTrue(saveData.isSkillsStale());
+    }
+
+    /**
+     * Indexes the skills of the savegame like the player loader, without the game database.
+     *
+     * @return a skill that appears only once in the save
+     */
+    private PlayerSkill indexSkills() {
+        parse();
+        FileDataMap dataMap = saveData.getDataMap();
+        Map<String, Integer> count = new HashMap<>();
+        List<PlayerSkill> skills = new ArrayList<>();
+        for (int blockStart : dataMap.getVariableLocation().get(Constants.Save.SKILL_NAME)) {
+            BlockInfo b = dataMap.getBlockInfo().get(blockStart);
+            int parent = b.getParentOffset();
+            if (parent < 0 || !dataMap.getBlockInfo().get(parent).getVariables().containsKey("max")) {
+                continue;
+            }
+            PlayerSkill sb = new PlayerSkill();
+            sb.setSkillName((String) b.getVariables().get(Constants.Save.SKILL_NAME).get(0).getValue());
+            sb.setSkillLevel(dataMap.getInt(blockStart, Constants.Save.SKILL_LEVEL));
+            sb.setBlockStart(blockStart);
+            saveData.indexSkill(Database.normalizeRecordPath(sb.getSkillName()), sb);
+            count.merge(sb.getSkillName(), 1, Integer::sum);
+            skills.add(sb);
+        }
+        saveData.getSkillGraph().update(saveData.getPlayerSkills(), (name, redirect) -> Mockito.mock(Skill.class));
+        saveData.setSkillsStale(false);
+
+        return skills.stream().filter(sb -> count.get(sb.getSkillName()) == 1).findFirst().orElseThrow();
+    }
+
+    /**
+     * Indexes the skill again in the block of another skill, like a save holding the same skill in two blocks. The
+     * copy is indexed last, so it is the block kept by the index.
+     */
+    private PlayerSkill duplicateSkill(PlayerSkill skill) {
+        FileDataMap dataMap = saveData.getDataMap();
+        int otherBlock = dataMap.getVariableLocation().get(Constants.Save.SKILL_NAME).stream()
+                .filter(b -> b != skill.getBlockStart())
+                .filter(b -> saveData.getPlayerSkills().values().stream().anyMatch(s -> s.getBlockStart() == b))
+                .findFirst().orElseThrow();
+        PlayerSkill duplicate = new PlayerSkill();
+        duplicate.setSkillName(skill.getSkillName());
+        duplicate.setSkillLevel(dataMap.getInt(otherBlock, Constants.Save.SKILL_LEVEL));
+        duplicate.setBlockStart(otherBlock);
+        saveData.indexSkill(Database.normalizeRecordPath(skill.getSkillName()), duplicate);
+        return duplicate;
+    }
+
+    @Test
+    void respec_Should_reclaimLikeGui() {
+        Player gui = loadRespecPlayer();
+        Player cli = loadRespecPlayer();
+        int skillPoints = gui.getSaveData().getDataMap().getInt(Constants.Save.SKILL_POINTS);
+        int max = gui.getSaveData().getDataMap().getInt("max");
+        Map<String, Integer> blocks = skillBlocks(gui);
+
+        for (Skill mastery : List.copyOf(gui.getPlayerMasteries())) {
+            for (Skill skill : gui.getPlayerSkillsFromMastery(mastery)) {
+                gui.reclaimSkillPoints(gui.getPlayerSkills().get(skill.getRecordPath()));
+            }
+            gui.reclaimMasteryPoints(gui.getPlayerSkills().get(mastery.getRecordPath()));
+        }
+        Respec.Plan plan = cli.respec(Respec.builder().skills().masteries(Respec.Masteries.RECLAIM).build());
+
+        assertEquals(3 + 2 + 4, plan.getSkillPointsRefund());
+        assertEquals(skillPoints + 9, cli.getSaveData().getDataMap().getInt(Constants.Save.SKILL_POINTS));
+        assertEquals(max - 2, cli.getSaveData().getDataMap().getInt("max"));
+        assertEquals(1, cli.getSaveData().getDataMap().getInt(skillBlock(cli, STORM_MASTERY), Constants.Save.SKILL_LEVEL));
+        assertSameRespec(gui, cli, blocks);
+    }
+
+    @Test
+    void respec_Should_removeLikeGui_When_masteryLevelIsZero() {
+        Player gui = loadRespecPlayer();
+        Player cli = loadRespecPlayer();
+        for (Player p : List.of(gui, cli)) {
+            p.getSaveData().getDataMap().setInt(skillBlock(p, SPIRIT_MASTERY), Constants.Save.SKILL_LEVEL, 0);
+        }
+        int skillPoints = gui.getSaveData().getDataMap().getInt(Constants.Save.SKILL_POINTS);
+        int max = gui.getSaveData().getDataMap().getInt("max");
+        Map<String, Integer> blocks = skillBlocks(gui);
+        int storm = skillBlock(cli, STORM_MASTERY);
+
+        for (Skill mastery : List.copyOf(gui.getPlayerMasteries())) {
+            for (Skill skill : gui.getPlayerSkillsFromMastery(mastery)) {
+                gui.reclaimSkillPoints(gui.getPlayerSkills().get(skill.getRecordPath()));
+            }
+            gui.removeMastery(gui.getPlayerSkills().get(mastery.getRecordPath()));
+        }
+        Respec.Plan plan = cli.respec(Respec.builder().skills().masteries(Respec.Masteries.REMOVE).build());
+
+        assertEquals(3 + 2 + 5, plan.getSkillPointsRefund());
+        assertEquals(skillPoints + 10, cli.getSaveData().getDataMap().getInt(Constants.Save.SKILL_POINTS));
+        assertEquals(max - 3, cli.getSaveData().getDataMap().getInt("max"));
+        assertTrue(cli.getSaveData().getDataMap().isRemoved(storm));
+        assertFalse(cli.getSaveData().getDataMap().isRemoved(skillBlock(cli, SPIRIT_MASTERY)));
+        assertSameRespec(gui, cli, blocks);
+    }
+
+    @Test
+    void respec_Should_refundWholeAttributeSteps() {
+        Player cli = loadRespecPlayer();
+        FileDataMap dataMap = cli.getSaveData().getDataMap();
+
+        Respec.Plan plan = cli.respec(Respec.builder().attributes().build());
+
+        //str 54, int 622, dex 102 and life 460 over bases of 50 and 300, mana has no increment
+        assertEquals(1 + 143 + 10 + 4, plan.getAttributePointsRefund());
+        assertEquals(50, dataMap.getTempAttr("str"));
+        assertEquals(50, dataMap.getTempAttr("int"));
+        assertEquals(52, dataMap.getTempAttr("dex"));
+        assertEquals(300, dataMap.getTempAttr("life"));
+        assertEquals(340, dataMap.getTempAttr("mana"));
+        assertEquals(8 + 158, dataMap.getInt("modifierPoints"));
+    }
+
+    @Test
+    void respec_Should_changeNothing_When_aChangeFails() {
+        Player cli = loadRespecPlayer();
+        FileDataMap dataMap = cli.getSaveData().getDataMap();
+        int skillPoints = dataMap.getInt(Constants.Save.SKILL_POINTS);
+        int max = dataMap.getInt("max");
+        int modifierPoints = dataMap.getInt("modifierPoints");
+        dataMap.addListener(new FileDataMapListener() {
+            @Override
+            public void intChanged(int blockStart, String variable, int value) {
+                if (variable.equals("modifierPoints")) {
+                    throw new IllegalStateException("failed");
+                }
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> cli.respec(Respec.builder().skills()
+                .masteries(Respec.Masteries.RECLAIM).attributes().build()));
+
+        assertEquals(skillPoints, dataMap.getInt(Constants.Save.SKILL_POINTS));
+        assertEquals(max, dataMap.getInt("max"));
+        assertEquals(modifierPoints, dataMap.getInt("modifierPoints"));
+        assertEquals(54, dataMap.getTempAttr("str"));
+        assertEquals(5, dataMap.getInt(skillBlock(cli, STORM_MASTERY), Constants.Save.SKILL_LEVEL));
+        assertFalse(dataMap.isRemoved(skillBlock(cli, TAUNT)));
+        assertEquals(3, cli.getSkillGraph().getNode(TAUNT).getLevel());
+        assertEquals(2, cli.getSkillGraph().getSkills(cli.getSkillGraph().getNode(STORM_MASTERY).getSkill()).size());
+    }
+
+    private static final String STORM_MASTERY = Database.normalizeRecordPath("Records\\Skills\\Storm\\StormMastery.dbr");
+    private static final String SPIRIT_MASTERY = Database.normalizeRecordPath("Records\\Skills\\Spirit\\SpiritMastery.dbr");
+    private static final String TAUNT = Database.normalizeRecordPath("Records\\XPack3\\Skills\\AllMasteries\\All_Taunt.dbr");
+    private static final String PET_ATTACK = Database.normalizeRecordPath("Records\\XPack3\\Skills\\AllMasteries\\Skill_AllPetAttack.dbr");
+
+    /**
+     * Loads the savegame with a game database where the two skills of the save taken from AllMasteries belong to the
+     * storm mastery. The storm mastery is raised to level 5, and its skills to 3 and 2.
+     */
+    private Player loadRespecPlayer() {
+        Db db = Mockito.mock(Db.class);
+        Skills skills = Mockito.mock(Skills.class);
+        br.com.pinter.tqdatabase.Player dbPlayer = Mockito.mock(br.com.pinter.tqdatabase.Player.class);
+        Pc pc = Mockito.mock(Pc.class);
+        PlayerLevels levels = Mockito.mock(PlayerLevels.class);
+        Mockito.lenient().when(db.skills()).thenReturn(skills);
+        Mockito.lenient().when(db.recordsExist(Mockito.anyList())).thenAnswer(i -> ((List<String>) i.getArgument(0))
+                .stream().distinct().collect(Collectors.toMap(Function.identity(), n -> true)));
+        Mockito.lenient().when(skills.getSkill(Mockito.anyString(), Mockito.anyBoolean()))
+                .thenAnswer(i -> skillRecord(Database.normalizeRecordPath(i.getArgument(0))));
+        Mockito.lenient().when(db.player()).thenReturn(dbPlayer);
+        Mockito.lenient().when(dbPlayer.getPc()).thenReturn(pc);
+        Mockito.lenient().when(dbPlayer.getPlayerLevels()).thenReturn(levels);
+        Mockito.lenient().when(pc.getCharacterStrength()).thenReturn(50f);
+        Mockito.lenient().when(pc.getCharacterIntelligence()).thenReturn(50f);
+        Mockito.lenient().when(pc.getCharacterDexterity()).thenReturn(50f);
+        Mockito.lenient().when(pc.getCharacterLife()).thenReturn(300f);
+        Mockito.lenient().when(pc.getCharacterMana()).thenReturn(300f);
+        Mockito.lenient().when(levels.getStrengthIncrement()).thenReturn(4);
+        Mockito.lenient().when(levels.getIntelligenceIncrement()).thenReturn(4);
+        Mockito.lenient().when(levels.getDexterityIncrement()).thenReturn(5);
+        Mockito.lenient().when(levels.getLifeIncrement()).thenReturn(40);
+
+        Player p = Guice.createInjector(binder -> {
+            binder.bind(Db.class).toInstance(db);
+            binder.bind(Txt.class).toInstance(Mockito.mock(Txt.class));
+            binder.bind(GameInfo.class).toInstance(Mockito.mock(GameInfo.class));
+            binder.bind(TeleportRegistry.class).toInstance(Mockito.mock(TeleportRegistry.class));
+        }).getInstance(Player.class);
+        assertTrue(p.loadPlayer(Path.of("src/test/resources/_savegame")));
+
+        FileDataMap dataMap = p.getSaveData().getDataMap();
+        dataMap.setInt(skillBlock(p, STORM_MASTERY), Constants.Save.SKILL_LEVEL, 5);
+        dataMap.setInt(skillBlock(p, TAUNT), Constants.Save.SKILL_LEVEL, 3);
+        dataMap.setInt(skillBlock(p, PET_ATTACK), Constants.Save.SKILL_LEVEL, 2);
+        return p;
+    }
+
+    private static Skill skillRecord(String path) {
+        Skill skill = Mockito.mock(Skill.class, Mockito.withSettings().lenient());
+        Mockito.when(skill.getRecordPath()).thenReturn(path);
+        Mockito.when(skill.isMastery()).thenReturn(path.equals(STORM_MASTERY) || path.equals(SPIRIT_MASTERY));
+        if (path.equals(TAUNT) || path.equals(PET_ATTACK)) {
+            Mockito.when(skill.getParentPath()).thenReturn(STORM_MASTERY);
+        }
+        return skill;
+    }
+
+    private static int skillBlock(Player p, String path) {
+        return p.getPlayerSkills().get(path).getBlockStart();
+    }
+
+    private static Map<String, Integer> skillBlocks(Player p) {
+        return p.getPlayerSkills().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, s -> s.getValue().getBlockStart()));
+    }
+
+    private static void assertSameRespec(Player expected, Player actual, Map<String, Integer> blocks) {
+        FileDataMap e = expected.getSaveData().getDataMap();
+        FileDataMap a = actual.getSaveData().getDataMap();
+        assertEquals(e.getInt(Constants.Save.SKILL_POINTS), a.getInt(Constants.Save.SKILL_POINTS));
+        assertEquals(e.getInt("max"), a.getInt("max"));
+        for (int blockStart : blocks.values()) {
+            assertEquals(e.isRemoved(blockStart), a.isRemoved(blockStart));
+            if (!e.isRemoved(blockStart)) {
+                assertEquals(e.getInt(blockStart, Constants.Save.SKILL_LEVEL), a.getInt(blockStart, Constants.Save.SKILL_LEVEL));
+            }
+        }
+        assertEquals(expected.getPlayerSkills().keySet(), actual.getPlayerSkills().keySet());
+    }
+
     private int readTempVar(String alias) {
         parse();
 
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.tqdata.Db;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
+import br.com.pinter.tqrespec.tqdata.TeleportRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerSummaryCacheTest {
+    private static final int FILE_SIZE = 3 * 4096;
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private GameInfo gameInfo;
+
+    @Mock
+    private Db db;
+
+    @Mock
+    private TeleportRegistry teleportRegistry;
+
+    @InjectMocks
+    private PlayerSummaryCache summaryCache;
+
+    @InjectMocks
+    private PlayerSummaryCache reloaded;
+
+    private Path playerChr;
+    private FileTime mtime;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        playerChr = Files.createDirectories(tempDir.resolve("_test")).resolve("Player.chr");
+        byte[] data = new byte[FILE_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        Files.write(playerChr, data);
+        mtime = FileTime.fromMillis(1600000000000L);
+        Files.setLastModifiedTime(playerChr, mtime);
+    }
+
+    private PlayerSummaryCache.Fingerprint changeByte(int offset) throws IOException {
+        byte[] data = Files.readAllBytes(playerChr);
+        data[offset]++;
+        Files.write(playerChr, data);
+        Files.setLastModifiedTime(playerChr, mtime);
+        return PlayerSummaryCache.fingerprint(playerChr);
+    }
+
+    @Test
+    void fingerprint_Should_changeWithSizeTimeHeadAndTail() throws IOException {
+        PlayerSummaryCache.Fingerprint original = PlayerSummaryCache.fingerprint(playerChr);
+        assertNotNull(original);
+        assertEquals(original, PlayerSummaryCache.fingerprint(playerChr));
+
+        Files.setLastModifiedTime(playerChr, FileTime.fromMillis(mtime.toMillis() + 1000));
+        assertNotEquals(original, PlayerSummaryCache.fingerprint(playerChr));
+        Files.setLastModifiedTime(playerChr, mtime);
+        assertEquals(original, PlayerSummaryCache.fingerprint(playerChr));
+
+        assertNotEquals(original, changeByte(10));
+        PlayerSummaryCache.Fingerprint head = PlayerSummaryCache.fingerprint(playerChr);
+        assertNotEquals(head, changeByte(FILE_SIZE - 10));
+        PlayerSummaryCache.Fingerprint tail = PlayerSummaryCache.fingerprint(playerChr);
+        //only the first and last bytes are hashed
+        assertEquals(tail, changeByte(FILE_SIZE / 2));
+
+        Files.write(playerChr, new byte[]{1}, StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(playerChr, mtime);
+        assertNotEquals(tail, PlayerSummaryCache.fingerprint(playerChr));
+    }
+
+    @Test
+    void fingerprint_Should_returnNull_When_fileIsMissing() {
+        assertNull(PlayerSummaryCache.fingerprint(tempDir.resolve("missing.chr")));
+    }
+
+    @Test
+    void get_Should_returnNull_When_fingerprintChanged() throws IOException {
+        Mockito.when(gameInfo.getSavePath()).thenReturn(tempDir.toString());
+        PlayerSummaryCache.Fingerprint fingerprint = PlayerSummaryCache.fingerprint(playerChr);
+        summaryCache.put(playerChr, fingerprint, character());
+
+        assertNotNull(summaryCache.get(playerChr, fingerprint));
+        assertNull(summaryCache.get(playerChr, changeByte(0)));
+        assertNull(summaryCache.get(playerChr, null));
+    }
+
+    @Test
+    void save_Should_roundTripEntries() {
+        Mockito.when(gameInfo.getSavePath()).thenReturn(tempDir.toString());
+        PlayerSummaryCache.Fingerprint fingerprint = PlayerSummaryCache.fingerprint(playerChr);
+        PlayerCharacter expected = character();
+        summaryCache.put(playerChr, fingerprint, expected);
+        summaryCache.put(tempDir.resolve("_gone").resolve("Player.chr"), fingerprint, character());
+        summaryCache.save(List.of(playerChr));
+
+        PlayerCharacter actual = reloaded.get(playerChr, fingerprint);
+        assertNotNull(actual);
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getLocation(), actual.getLocation());
+        assertEquals(expected.getGender(), actual.getGender());
+        assertEquals(expected.getCharacterClass(), actual.getCharacterClass());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getExperience(), actual.getExperience());
+        assertEquals(expected.getGold(), actual.getGold());
+        assertEquals(expected.getStatStr(), actual.getStatStr());
+        assertEquals(expected.getPlayTimeInSeconds(), actual.getPlayTimeInSeconds());
+        assertEquals(expected.getGreatestMonsterKilledName(), actual.getGreatestMonsterKilledName());
+        assertNull(reloaded.get(tempDir.resolve("_gone").resolve("Player.chr"), fingerprint));
+    }
+
+    @Test
+    void format_Should_change_When_fieldsChange() {
+        assertEquals(PlayerSummaryCache.format(ShapeA.class), PlayerSummaryCache.format(ShapeA.class));
+        assertNotEquals(PlayerSummaryCache.format(ShapeA.class), PlayerSummaryCache.format(ShapeB.class));
+        assertNotEquals(PlayerSummaryCache.format(ShapeA.class),
+                PlayerSummaryCache.format(ShapeA.class, PlayerCharacter.class));
+    }
+
+    private static PlayerCharacter character() {
+        PlayerCharacter pc = new PlayerCharacter();
+        pc.setName("test");
+        pc.setLocation(SaveLocation.MAIN);
+        pc.setGender(Gender.FEMALE);
+        pc.setCharacterClass("Conqueror");
+        pc.setGreatestMonsterKilledName("Typhon");
+        pc.setLevel(65);
+        pc.setExperience(123456);
+        pc.setGold(999);
+        pc.setStatStr(300);
+        pc.setPlayTimeInSeconds(3600);
+        pc.setMasteries(new ArrayList<>());
+        return pc;
+    }
+
+    @SuppressWarnings("unused")
+    private static class ShapeA {
+        private int level;
+    }
+
+    @SuppressWarnings("unused")
+    private static class ShapeB {
+        private long level;
+    }
+}
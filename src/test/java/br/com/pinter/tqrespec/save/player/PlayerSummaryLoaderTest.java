@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.save.player;
+
+import br.com.pinter.tqdatabase.Skills;
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.tqdata.Db;
+import br.com.pinter.tqrespec.tqdata.GameInfo;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacter;
+import br.com.pinter.tqrespec.tqdata.PlayerCharacterFile;
+import br.com.pinter.tqrespec.tqdata.TeleportRegistry;
+import br.com.pinter.tqrespec.tqdata.Txt;
+import com.google.inject.Guice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerSummaryLoaderTest {
+    @Mock
+    private Db db;
+
+    @Mock
+    private Skills skills;
+
+    @Mock
+    private Txt txt;
+
+    @Mock
+    private GameInfo gameInfo;
+
+    @Mock
+    private TeleportRegistry teleportRegistry;
+
+    @Mock
+    private PlayerSummaryCache summaryCache;
+
+    private PlayerSummaryLoader playerSummaryLoader;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(db.getAccessLock()).thenReturn(new Object());
+        Mockito.when(db.skills()).thenReturn(skills);
+        Mockito.when(gameInfo.playerChr(anyString(), any())).thenAnswer(i ->
+                Path.of("src/test/resources", "_" + i.getArgument(0), "Player.chr"));
+
+        playerSummaryLoader = Guice.createInjector(binder -> {
+            binder.bind(Db.class).toInstance(db);
+            binder.bind(Txt.class).toInstance(txt);
+            binder.bind(GameInfo.class).toInstance(gameInfo);
+            binder.bind(TeleportRegistry.class).toInstance(teleportRegistry);
+            binder.bind(PlayerSummaryCache.class).toInstance(summaryCache);
+        }).getInstance(PlayerSummaryLoader.class);
+    }
+
+    @Test
+    void loadAll_Should_loadSameSummariesAsSequentialLoads() {
+        List<PlayerCharacterFile> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            files.add(new PlayerCharacterFile("savegame", SaveLocation.MAIN));
+            files.add(new PlayerCharacterFile("mobile", SaveLocation.MAIN));
+        }
+
+        List<String> sequential = new ArrayList<>();
+        for (PlayerCharacterFile f : files) {
+            sequential.add(summary(playerSummaryLoader.load(f)));
+        }
+        List<String> loadedByListener = Collections.synchronizedList(new ArrayList<>());
+        List<String> parallel = playerSummaryLoader.loadAll(files, pc -> loadedByListener.add(summary(pc)))
+                .stream().map(PlayerSummaryLoaderTest::summary).collect(Collectors.toList());
+
+        assertEquals(files.size(), parallel.size());
+        assertEquals(sequential, parallel);
+        assertEquals(sequential.stream().sorted().collect(Collectors.toList()),
+                loadedByListener.stream().sorted().collect(Collectors.toList()));
+        assertNotEquals(sequential.get(0), sequential.get(1));
+    }
+
+    private static String summary(PlayerCharacter pc) {
+        return String.join(";", pc.getName(), pc.getPath().toString(), String.valueOf(pc.getGender()),
+                String.valueOf(pc.getLevel()), String.valueOf(pc.getDifficulty()), String.valueOf(pc.getExperience()),
+                String.valueOf(pc.getGold()), String.valueOf(pc.getStatStr()), String.valueOf(pc.getStatInt()),
+                String.valueOf(pc.getStatDex()), String.valueOf(pc.getStatLife()), String.valueOf(pc.getStatMana()),
+                String.valueOf(pc.getStatAvailableSkillPoints()), String.valueOf(pc.getPlayTimeInSeconds()),
+                String.valueOf(pc.getNumberOfKills()), String.valueOf(pc.getMasteries().size()),
+                String.valueOf(pc.getDefaultMapTeleports()));
+    }
+}
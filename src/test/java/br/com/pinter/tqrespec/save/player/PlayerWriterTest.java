@@ -38,11 +38,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -337,6 +340,45 @@ class PlayerWriterTest {
         assertEquals("testcopy", saveData.getDataMap().getCharacterName());
     }
 
+    @Test
+    void convertToZip_Should_writeConvertedSaveToZip() throws IOException {
+        saveData.reset();
+        saveData.setBuffer(playerParser.load());
+        saveData.getDataMap().setBlockInfo(playerParser.getBlockInfo());
+        saveData.getDataMap().setVariableLocation(playerParser.getVariableLocation());
+        String characterName = saveData.getDataMap().getCharacterName();
+
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(mockSaveData.getPlatform()).thenReturn(playerParser.getDetectedPlatform());
+        Mockito.when(mockSaveData.getPlayerPath()).thenReturn(Path.of("src/test/resources/_savegame"));
+        Mockito.when(mockSaveData.getDataMap()).thenReturn(saveData.getDataMap());
+        Mockito.when(mockSaveData.getBuffer()).thenReturn(saveData.getBuffer());
+
+        Path tempDir = Files.createTempDirectory("tqrespec");
+        Path zip = tempDir.resolve("converted.zip");
+        Path converted = tempDir.resolve("Player.chr");
+        playerWriter.convertToZip(Platform.MOBILE, zip);
+
+        try (FileSystem zipfs = FileSystems.newFileSystem(zip);
+             Stream<Path> dirs = Files.list(zipfs.getPath("/"))) {
+            Path dir = dirs.filter(d -> d.toString().startsWith("/__save")).findFirst().orElseThrow();
+            Files.copy(dir.resolve(Constants.PLAYERCHR), converted);
+            assertFalse(Files.exists(dir.resolve("winsys.dxb")));
+        }
+
+        playerParser = new PlayerParser(converted.toFile(), "converted");
+        saveData.reset();
+        saveData.setBuffer(playerParser.load());
+        saveData.getDataMap().setBlockInfo(playerParser.getBlockInfo());
+        saveData.getDataMap().setVariableLocation(playerParser.getVariableLocation());
+        assertEquals(Platform.MOBILE, playerParser.getDetectedPlatform());
+        assertEquals(characterName, saveData.getDataMap().getCharacterName());
+
+        Files.delete(converted);
+        Files.delete(zip);
+        Files.delete(tempDir);
+    }
+
     @Test
     void copyMobilePlayer_Should_copyAndParse() {
         prepareCopySavegame("mobile");
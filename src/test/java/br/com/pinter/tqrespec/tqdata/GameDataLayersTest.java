@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameDataLayersTest {
+    private static final Path BASE_DB = Paths.get("base", "database.arz");
+    private static final Path XPACK_DB = Paths.get("xpack", "database.arz");
+    private static final Path MOD_DB = Paths.get("mod", "database.arz");
+
+    @Test
+    void with_Should_keepLayersOrderedByPrecedence() {
+        GameDataLayers layers = GameDataLayers.of(
+                new GameDataLayers.Layer(GameDataLayers.Kind.EXPANSION, XPACK_DB, Paths.get("xpack", "Resources")),
+                new GameDataLayers.Layer(GameDataLayers.Kind.BASE, BASE_DB, Paths.get("base", "Text")));
+
+        GameDataLayers withMod = layers.with(new GameDataLayers.Layer(GameDataLayers.Kind.MOD, MOD_DB));
+
+        assertEquals(List.of(BASE_DB, XPACK_DB), layers.getDatabases());
+        assertEquals(List.of(BASE_DB, XPACK_DB, MOD_DB), withMod.getDatabases());
+        assertEquals(List.of(Paths.get("base", "Text"), Paths.get("xpack", "Resources")), withMod.getTextPaths());
+    }
+
+    @Test
+    void getDatabases_Should_listEachArchiveOnce() {
+        GameDataLayers layers = GameDataLayers.of(
+                new GameDataLayers.Layer(GameDataLayers.Kind.BASE, BASE_DB),
+                new GameDataLayers.Layer(GameDataLayers.Kind.EXPANSION, BASE_DB));
+
+        assertEquals(List.of(BASE_DB), layers.getDatabases());
+        assertTrue(layers.getTextPaths().isEmpty());
+        assertTrue(GameDataLayers.EMPTY.isEmpty());
+    }
+}
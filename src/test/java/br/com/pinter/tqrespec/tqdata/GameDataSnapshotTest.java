@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameDataSnapshotTest {
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private GameInfo gameInfo;
+
+    @InjectMocks
+    private GameDataSnapshot snapshot;
+
+    @InjectMocks
+    private GameDataSnapshot reopened;
+
+    private Path archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path database = Files.write(tempDir.resolve("database.arz"), new byte[]{1, 2, 3});
+        Path text = Files.createDirectories(tempDir.resolve("Text"));
+        archive = Files.write(text.resolve("Text_EN.arc"), new byte[]{4, 5, 6});
+        Mockito.when(gameInfo.getDatabasePath()).thenReturn(new String[]{database.toString()});
+        Mockito.when(gameInfo.getTextPath()).thenReturn(new String[]{text.toString()});
+        Mockito.when(gameInfo.getSavePath()).thenReturn(tempDir.resolve("save").toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        //nothing left to write from the shutdown hooks
+        snapshot.invalidate();
+        reopened.invalidate();
+    }
+
+    @Test
+    void save_Should_roundTripStringsAndReplaceSnapshotRead() {
+        assertFalse(snapshot.open("EN"));
+        snapshot.putString("tagA", "Alpha");
+        snapshot.save();
+
+        assertTrue(reopened.open("EN"));
+        assertTrue(reopened.isHit());
+        assertEquals("Alpha", reopened.getString("tagA"));
+
+        //the file just read is replaced
+        reopened.putString("tagB", "Beta");
+        reopened.save();
+
+        reopened.invalidate();
+        assertFalse(reopened.isHit());
+        assertNull(reopened.getString("tagA"));
+        assertTrue(reopened.open("EN"));
+        assertEquals("Alpha", reopened.getString("tagA"));
+        assertEquals("Beta", reopened.getString("tagB"));
+    }
+
+    @Test
+    void open_Should_miss_When_languageOrArchivesChange() throws IOException {
+        snapshot.open("EN");
+        snapshot.putString("tagA", "Alpha");
+        snapshot.save();
+
+        assertFalse(reopened.open("FR"));
+        assertNull(reopened.getString("tagA"));
+
+        reopened.invalidate();
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() + 10000));
+        assertFalse(reopened.open("EN"));
+        assertNull(reopened.getString("tagA"));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstallProbeRunnerTest {
+    private static final Path VALID = Paths.get("valid");
+
+    private final InstallProbeContext context = new InstallProbeContext() {
+        @Override
+        public boolean isValidGamePath(Path path) {
+            return path != null && path.startsWith(VALID);
+        }
+
+        @Override
+        public GameVersion getGameVersion(Path path) {
+            return GameVersion.TQAE;
+        }
+    };
+
+    private static class StubProbe implements InstallProbe {
+        private final String name;
+        private final int priority;
+        private final long delayMs;
+        private final Path path;
+
+        StubProbe(String name, int priority, long delayMs, Path path) {
+            this.name = name;
+            this.priority = priority;
+            this.delayMs = delayMs;
+            this.path = path;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public InstallProbeResult probe(InstallProbeContext context) throws Exception {
+            Thread.sleep(delayMs);
+            if ("error".equals(name)) {
+                throw new IllegalStateException("probe error");
+            }
+            return path == null ? null : new InstallProbeResult(path, GameVersion.TQAE, InstallType.WINDOWS);
+        }
+    }
+
+    @Test
+    void run_Should_preferPriorityOverCompletionOrder() {
+        InstallProbeRunner runner = new InstallProbeRunner(List.of(
+                new StubProbe("fast", 20, 0, VALID.resolve("fast")),
+                new StubProbe("slow", 10, 300, VALID.resolve("slow"))), 5000);
+
+        InstallProbeResult result = runner.run(context);
+        assertNotNull(result);
+        assertEquals("slow", result.getProbe());
+        assertEquals(VALID.resolve("slow"), result.getPath());
+    }
+
+    @Test
+    void run_Should_skipFailedInvalidAndTimedOutProbes() {
+        InstallProbeRunner runner = new InstallProbeRunner(List.of(
+                new StubProbe("error", 10, 0, VALID),
+                new StubProbe("invalid", 20, 0, Paths.get("invalid")),
+                new StubProbe("notfound", 30, 0, null),
+                new StubProbe("hanging", 40, 60000, VALID.resolve("hanging")),
+                new StubProbe("last", 50, 100, VALID.resolve("last"))), 1000);
+
+        long start = System.currentTimeMillis();
+        InstallProbeResult result = runner.run(context);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertNotNull(result);
+        assertEquals("last", result.getProbe());
+
+        assertNull(new InstallProbeRunner(List.of(new StubProbe("notfound", 10, 0, null)), 1000).run(context));
+    }
+
+    @Test
+    void run_Should_acceptUnknownVersion() {
+        InstallProbe unknown = new StubProbe("unknown", 10, 0, VALID) {
+            @Override
+            public InstallProbeResult probe(InstallProbeContext context) {
+                return new InstallProbeResult(VALID, GameVersion.UNKNOWN, InstallType.ALTERNATIVE_STEAM_API);
+            }
+        };
+
+        InstallProbeResult result = new InstallProbeRunner(List.of(unknown), 1000).run(context);
+        assertNotNull(result);
+        assertEquals(GameVersion.UNKNOWN, result.getVersion());
+        assertEquals("unknown", result.getProbe());
+    }
+
+    @Test
+    void find_Should_returnDefaultProbeByName() {
+        assertEquals("steam-api", InstallProbes.find("steam-api").getName());
+        assertNull(InstallProbes.find("missing"));
+        assertNull(InstallProbes.find(null));
+    }
+}
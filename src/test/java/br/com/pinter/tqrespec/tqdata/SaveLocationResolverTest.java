@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqrespec.save.SaveLocation;
+import br.com.pinter.tqrespec.util.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveLocationResolverTest {
+    private static class CountingProvider implements SaveLocationProvider {
+        private final AtomicInteger calls = new AtomicInteger();
+        private Path savePath;
+
+        CountingProvider(Path savePath) {
+            this.savePath = savePath;
+        }
+
+        @Override
+        public Path getSavePath() {
+            calls.incrementAndGet();
+            return savePath;
+        }
+
+        @Override
+        public Path getExternalSavePath() {
+            return null;
+        }
+    }
+
+    @Test
+    void getLayout_Should_resolveOnceUntilInvalidated() {
+        Path base = Paths.get("savebase");
+        CountingProvider provider = new CountingProvider(base);
+        SaveLocationResolver resolver = new SaveLocationResolver();
+        resolver.setProvider(provider);
+
+        SaveLayout layout = resolver.getLayout();
+        assertSame(layout, resolver.getLayout());
+        assertEquals(1, provider.calls.get());
+
+        assertEquals(base.resolve(Constants.SAVEDATA).resolve("Main"), layout.getLocation(SaveLocation.MAIN));
+        assertEquals(base.resolve(Constants.SAVEDATA).resolve("User").resolve(Constants.ARCHIVE_DIR),
+                layout.getLocation(SaveLocation.ARCHIVEUSER));
+        assertEquals(base.resolve(Constants.SETTINGS), layout.getSettings());
+        assertNull(layout.getLocation(SaveLocation.EXTERNAL));
+
+        provider.savePath = null;
+        resolver.invalidate();
+        assertNull(resolver.getLayout().getLocation(SaveLocation.MAIN));
+        assertEquals(2, provider.calls.get());
+    }
+
+    @Test
+    void getLayout_Should_notKeepLayout_When_savePathIsMissing() {
+        CountingProvider provider = new CountingProvider(null);
+        SaveLocationResolver resolver = new SaveLocationResolver();
+        resolver.setProvider(provider);
+
+        assertNull(resolver.getLayout().getSavePath());
+        assertNull(resolver.getLayout().getSavePath());
+        assertEquals(2, provider.calls.get());
+
+        Path base = Paths.get("savebase");
+        provider.savePath = base;
+        SaveLayout layout = resolver.getLayout();
+        assertEquals(base, layout.getSavePath());
+        assertSame(layout, resolver.getLayout());
+        assertEquals(3, provider.calls.get());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteamLibraryFoldersTest {
+    private static final String CURRENT = """
+            "libraryfolders"
+            {
+            	"contentstatsid"		"-123"
+            	"0"
+            	{
+            		"path"		"C:\\\\Program Files (x86)\\\\Steam"
+            		"label"		""
+            		"apps"
+            		{
+            			"228980"		"416296215"
+            		}
+            	}
+            	// comment
+            	"1"
+            	{
+            		"path"		"D:\\\\SteamLibrary"
+            		"label"		"games \\"big\\""
+            		"apps"
+            		{
+            			"475150"		"9217393047"
+            			"1091500"		"70131183484"
+            		}
+            	}
+            }
+            """;
+
+    private static final String LEGACY = """
+            "LibraryFolders"
+            {
+            	"TimeNextStatsReport"		"1646175312"
+            	"ContentStatsID"		"-123"
+            	"1"		"E:\\\\Games\\\\Steam"
+            }
+            """;
+
+    private List<String> paths(SteamLibraryFolders folders) {
+        return folders.getLibraries().stream().map(SteamLibraryFolders.Library::getPath).collect(Collectors.toList());
+    }
+
+    @Test
+    void read_Should_parseLibrariesAndApps() throws IOException {
+        SteamLibraryFolders folders = SteamLibraryFolders.read(new StringReader(CURRENT));
+        assertEquals(List.of("C:\\Program Files (x86)\\Steam", "D:\\SteamLibrary"), paths(folders));
+        assertEquals("D:\\SteamLibrary", folders.findApp("475150").getPath());
+        assertNull(folders.findApp("1"));
+
+        SteamLibraryFolders legacy = SteamLibraryFolders.read(new StringReader(LEGACY));
+        assertEquals(List.of("E:\\Games\\Steam"), paths(legacy));
+        assertNull(legacy.findApp("475150"));
+    }
+
+    @Test
+    void read_Should_rejectMalformedFiles() {
+        assertThrows(IOException.class, () -> SteamLibraryFolders.read(new StringReader("\"libraryfolders\" { \"0\" {")));
+        assertThrows(IOException.class, () -> SteamLibraryFolders.read(new StringReader("\"libraryfolders\" { \"path\" \"x")));
+        assertThrows(IOException.class, () -> SteamLibraryFolders.read(new StringReader("\"a\" }")));
+    }
+
+    @Test
+    void read_Should_handleLargeFilesInLinearTime() throws IOException {
+        StringBuilder vdf = new StringBuilder("\"libraryfolders\" { \"0\" { \"path\" \"C:\\\\Steam\" \"apps\" {");
+        for (int i = 0; i < 200000; i++) {
+            vdf.append('"').append(i).append("\" \"1\"\n");
+        }
+        vdf.append("\"475150\" \"1\" } } }");
+
+        long start = System.currentTimeMillis();
+        SteamLibraryFolders folders = SteamLibraryFolders.read(new StringReader(vdf.toString()));
+        assertNotNull(folders.findApp("475150"));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2022 Emerson Pinter - All Rights Reserved
+ */
+
+package br.com.pinter.tqrespec.tqdata;
+
+import br.com.pinter.tqdatabase.Text;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@ExtendWith(MockitoExtension.class)
+class TxtTest {
+    @Mock
+    private GameInfo gameInfo;
+
+    @Mock
+    private GameDataSnapshot snapshot;
+
+    //not a field mock, it would be injected straight into the Txt
+    private Text text;
+
+    @InjectMocks
+    private TestTxt txt;
+
+    private static class TestTxt extends Txt {
+        private final AtomicInteger opened = new AtomicInteger();
+        private Text text;
+
+        @Override
+        Text openText(String[] textPath, String language) {
+            opened.incrementAndGet();
+            return text;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        text = Mockito.mock(Text.class);
+        txt.text = text;
+        Mockito.lenient().when(text.getString(anyString())).thenAnswer(i -> "value of " + i.getArgument(0));
+    }
+
+    @Test
+    void getString_Should_readArchivesOnce() throws IOException {
+        assertEquals("value of tagA", txt.getString("tagA"));
+        assertEquals("value of tagA", txt.getString("tagA"));
+        assertEquals("Value Of TagA", txt.getCapitalizedString("tagA"));
+        assertNull(txt.getString(null));
+
+        Mockito.verify(text, Mockito.times(1)).getString("tagA");
+        Mockito.verify(snapshot).putString("tagA", "value of tagA");
+        assertEquals(1, txt.opened.get());
+    }
+
+    @Test
+    void getString_Should_useSnapshot_When_stringIsRecorded() throws IOException {
+        Mockito.when(snapshot.getString("tagA")).thenReturn("from snapshot");
+
+        assertEquals("from snapshot", txt.getString("tagA"));
+        Mockito.verify(text, Mockito.never()).getString("tagA");
+    }
+
+    @Test
+    void prefetch_Should_cacheEveryTag() throws IOException {
+        txt.prefetch(List.of("tagA", "tagB"));
+        Mockito.verify(text).getString("tagA");
+        Mockito.verify(text).getString("tagB");
+
+        assertEquals("value of tagA", txt.getString("tagA"));
+        assertEquals("value of tagB", txt.getString("tagB"));
+        Mockito.verifyNoMoreInteractions(text);
+    }
+
+    @Test
+    void invalidate_Should_dropCacheAndReopenArchives() throws IOException {
+        txt.getString("tagA");
+        txt.invalidate();
+        Mockito.verify(snapshot).invalidate();
+
+        assertEquals("value of tagA", txt.getString("tagA"));
+        Mockito.verify(text, Mockito.times(2)).getString("tagA");
+        assertEquals(2, txt.opened.get());
+    }
+
+    @Test
+    void getString_Should_notFail_When_invalidatedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        assertEquals("value of tag" + thread + i, txt.getString("tag" + thread + i));
+                    }
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    txt.invalidate();
+                }
+            }));
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}